@@ -0,0 +1,175 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Measures the time to the first result of {@link LocationManager#resolvePaths(ResolvePathsRequest)} in a fresh JVM.
+ * Every compiler or surefire fork makes exactly one call, so loading the classes it needs weighs more than the work
+ * itself, which JMH, measuring warmed up code, doesn't show.
+ * <p>
+ * A path is generated once by {@link SyntheticPathGenerator}, after which every scenario runs in a number of new JVMs
+ * with {@link ColdStartProbe}. For every scenario the median is reported of the wall time of the JVM, the time of the
+ * call itself and the number of loaded classes. The scenarios are:
+ * </p>
+ * <ul>
+ * <li>{@code path}: without main module descriptor</li>
+ * <li>{@code descriptor}: with a {@code module-info.java} which the lightweight parser supports</li>
+ * <li>{@code javaparser}: with a {@code module-info.java} which needs JavaParser</li>
+ * <li>{@code forked}: like {@code descriptor}, but the module names are extracted with a forked JVM</li>
+ * </ul>
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar org.codehaus.plexus.languages.java.jpms.ColdStart \
+ *     [-f forks] [-e pathElements] [scenario...]
+ * </pre>
+ */
+public final class ColdStart {
+    static final String PATH = "path";
+
+    static final String DESCRIPTOR = "descriptor";
+
+    static final String JAVAPARSER = "javaparser";
+
+    static final String FORKED = "forked";
+
+    private ColdStart() {}
+
+    public static void main(String[] args) throws Exception {
+        int forks = 10;
+        int pathElements = 200;
+        List<String> scenarios = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            if ("-f".equals(args[i])) {
+                forks = Integer.parseInt(args[++i]);
+            } else if ("-e".equals(args[i])) {
+                pathElements = Integer.parseInt(args[++i]);
+            } else {
+                scenarios.add(args[i]);
+            }
+        }
+        if (scenarios.isEmpty()) {
+            scenarios.addAll(Arrays.asList(PATH, DESCRIPTOR, JAVAPARSER, FORKED));
+        }
+
+        Path fixture = Files.createTempDirectory("cold-start");
+        try {
+            writeFixture(fixture, pathElements);
+
+            System.out.printf(
+                    Locale.ROOT, "%-12s %6s %12s %12s %8s%n", "scenario", "forks", "jvm [ms]", "call [ms]", "classes");
+            for (String scenario : scenarios) {
+                run(scenario, fixture, forks);
+            }
+        } finally {
+            SyntheticPathGenerator.delete(fixture);
+        }
+    }
+
+    private static void writeFixture(Path fixture, int pathElements) throws IOException {
+        Path elements = Files.createDirectory(fixture.resolve("elements"));
+        List<String> path = new ArrayList<>();
+        for (Path pathElement : new SyntheticPathGenerator(elements).generate(pathElements).getPathElements()) {
+            path.add(pathElement.toString());
+        }
+        Files.write(fixture.resolve(PATH), path, StandardCharsets.UTF_8);
+
+        JavaModuleDescriptor.Builder main = JavaModuleDescriptor.newModule("org.example.main");
+        for (int i = 9; i < pathElements; i += 10) {
+            main.requires(SyntheticPathGenerator.name(i));
+        }
+        String source = SyntheticPathGenerator.moduleInfoSource(main.build());
+
+        Files.write(
+                Files.createDirectory(fixture.resolve(DESCRIPTOR)).resolve("module-info.java"),
+                source.getBytes(StandardCharsets.UTF_8));
+
+        // the lightweight parser leaves unicode escapes to JavaParser
+        Files.write(
+                Files.createDirectory(fixture.resolve(JAVAPARSER)).resolve("module-info.java"),
+                ("// caf\\u00e9\n" + source).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void run(String scenario, Path fixture, int forks) throws IOException, InterruptedException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+
+        List<Long> jvmNanos = new ArrayList<>(forks);
+        List<Long> callNanos = new ArrayList<>(forks);
+        List<Long> loadedClasses = new ArrayList<>(forks);
+
+        for (int fork = 0; fork < forks; fork++) {
+            ProcessBuilder builder = new ProcessBuilder(
+                            java,
+                            "-cp",
+                            System.getProperty("java.class.path"),
+                            ColdStartProbe.class.getName(),
+                            scenario,
+                            fixture.toString())
+                    .redirectError(ProcessBuilder.Redirect.INHERIT);
+
+            long start = System.nanoTime();
+            Process process = builder.start();
+
+            String output;
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                output = reader.readLine();
+            }
+            int exitCode = process.waitFor();
+            jvmNanos.add(System.nanoTime() - start);
+
+            if (exitCode != 0 || output == null) {
+                throw new IllegalStateException("Scenario " + scenario + " failed with exit code " + exitCode);
+            }
+
+            String[] values = output.split(" ");
+            callNanos.add(Long.parseLong(values[0]));
+            loadedClasses.add(Long.parseLong(values[1]));
+        }
+
+        System.out.printf(
+                Locale.ROOT,
+                "%-12s %6d %12.1f %12.1f %8d%n",
+                scenario,
+                forks,
+                median(jvmNanos) / 1e6,
+                median(callNanos) / 1e6,
+                median(loadedClasses));
+    }
+
+    private static long median(List<Long> values) {
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted.get(sorted.size() / 2);
+    }
+}
@@ -0,0 +1,80 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Makes a single {@link LocationManager#resolvePaths(ResolvePathsRequest)} call in a fresh JVM, like a compiler or
+ * surefire fork does, and prints the time it took and the number of classes loaded by then. Started by
+ * {@link ColdStart}, it is kept apart so it loads as little as possible besides plexus-java.
+ */
+public final class ColdStartProbe {
+    private ColdStartProbe() {}
+
+    /**
+     * @param args the scenario and the directory written by {@link ColdStart}
+     */
+    public static void main(String[] args) throws Exception {
+        String scenario = args[0];
+        Path fixture = Paths.get(args[1]);
+
+        List<Path> pathElements = new ArrayList<>();
+        for (String pathElement : Files.readAllLines(fixture.resolve(ColdStart.PATH), StandardCharsets.UTF_8)) {
+            pathElements.add(Paths.get(pathElement));
+        }
+
+        long start = System.nanoTime();
+
+        ResolvePathsRequest<Path> request = ResolvePathsRequest.ofPaths(pathElements);
+        switch (scenario) {
+            case ColdStart.PATH:
+                break;
+            case ColdStart.DESCRIPTOR:
+                request.setMainModuleDescriptor(fixture.resolve(ColdStart.DESCRIPTOR).resolve("module-info.java"));
+                break;
+            case ColdStart.JAVAPARSER:
+                request.setMainModuleDescriptor(fixture.resolve(ColdStart.JAVAPARSER).resolve("module-info.java"));
+                break;
+            case ColdStart.FORKED:
+                request.setMainModuleDescriptor(fixture.resolve(ColdStart.DESCRIPTOR).resolve("module-info.java"))
+                        .setJdkHome(Paths.get(System.getProperty("java.home")))
+                        .setForkModuleNameExtractor(true);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown scenario " + scenario);
+        }
+
+        ResolvePathsResult<Path> result = new LocationManager().resolvePaths(request);
+
+        long nanos = System.nanoTime() - start;
+
+        if (result.getPathElements().size() != pathElements.size()) {
+            throw new IllegalStateException("Resolved " + result.getPathElements().size() + " path elements");
+        }
+        System.out.println(nanos + " " + ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount());
+    }
+}
@@ -0,0 +1,111 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link LocationManager#resolvePaths(ResolvePathsRequest)} end-to-end over a path of the default mix of
+ * {@link SyntheticPathGenerator}, with more or less signed jars. The main module requires every tenth module.
+ * <p>
+ * {@code resolvePaths} uses a new {@link LocationManager} every time, so every path element is probed.
+ * {@code resolvePathsCached} reuses one, so all path elements except the output directories come from its cache.
+ * </p>
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar LocationManagerBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocationManagerBenchmark {
+    @Param({"10", "1000", "10000", "50000"})
+    public int pathElements;
+
+    /**
+     * The weight of signed jars in the mix, against 98 for the other kinds together.
+     */
+    @Param({"2", "30"})
+    public int signedJars;
+
+    private Path tempDirectory;
+
+    private List<Path> path;
+
+    private JavaModuleDescriptor mainModule;
+
+    private final LocationManager cachingLocationManager = new LocationManager();
+
+    @Setup
+    public void setUp() throws IOException {
+        tempDirectory = Files.createTempDirectory("resolve-paths-benchmark");
+
+        path = new SyntheticPathGenerator(tempDirectory)
+                .setWeight(SyntheticPathGenerator.Kind.SIGNED_JAR, signedJars)
+                .generate(pathElements)
+                .getPathElements();
+
+        JavaModuleDescriptor.Builder main = JavaModuleDescriptor.newModule("main");
+        for (int i = 9; i < pathElements; i += 10) {
+            main.requires(SyntheticPathGenerator.name(i));
+        }
+        mainModule = main.build();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        SyntheticPathGenerator.delete(tempDirectory);
+    }
+
+    @Benchmark
+    public ResolvePathsResult<Path> resolvePaths() throws IOException {
+        return new LocationManager().resolvePaths(request());
+    }
+
+    @Benchmark
+    public ResolvePathsResult<Path> resolvePathsCached() throws IOException {
+        return cachingLocationManager.resolvePaths(request());
+    }
+
+    private ResolvePathsRequest<Path> request() {
+        return ResolvePathsRequest.ofPaths(path).setModuleDescriptor(mainModule);
+    }
+}
@@ -0,0 +1,92 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures reading the {@code Automatic-Module-Name} from the manifest of a jar and of an output directory.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar ManifestModuleNameExtractorBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ManifestModuleNameExtractorBenchmark {
+    private Path tempDirectory;
+
+    private Path jar;
+
+    private Path directory;
+
+    private final ManifestModuleNameExtractor extractor = new ManifestModuleNameExtractor();
+
+    @Setup
+    public void setUp() throws IOException {
+        tempDirectory = Files.createTempDirectory("manifest-benchmark");
+
+        jar = new SyntheticPathGenerator(tempDirectory)
+                .setKinds(SyntheticPathGenerator.Kind.AUTOMATIC_MODULE_NAME_JAR)
+                .generate(1)
+                .getPathElements()
+                .get(0);
+
+        directory = tempDirectory.resolve("classes");
+        Files.createDirectories(directory.resolve("META-INF"));
+        String manifest = "Manifest-Version: 1.0\r\nAutomatic-Module-Name: org.example.auto\r\n\r\n";
+        Files.write(directory.resolve("META-INF/MANIFEST.MF"), manifest.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        SyntheticPathGenerator.delete(tempDirectory);
+    }
+
+    @Benchmark
+    public String jar() throws IOException {
+        return extractor.extract(jar);
+    }
+
+    @Benchmark
+    public String directory() throws IOException {
+        return extractor.extract(directory);
+    }
+}
@@ -0,0 +1,101 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Measures the retained heap of module descriptors as the {@link ClassFileModuleInfoParser} reads them, which is what a
+ * {@link ResolvePathsResult} holds on to for every path element.
+ * <p>
+ * The heap in use is compared after a full GC before and after parsing, so run it without other load and with a fixed
+ * heap, e.g. {@code -Xms1g -Xmx1g}. Every module requires the two modules before it and exports the given number of
+ * packages, every tenth module uses or provides a service.
+ * </p>
+ *
+ * <pre>
+ * java -Xms1g -Xmx1g -cp target/benchmarks.jar org.codehaus.plexus.languages.java.jpms.ModuleDescriptorFootprint \
+ *     [-n descriptors] [-p packages]
+ * </pre>
+ */
+public final class ModuleDescriptorFootprint {
+    private ModuleDescriptorFootprint() {}
+
+    public static void main(String[] args) throws IOException {
+        int descriptors = 20_000;
+        int packages = 5;
+
+        for (int i = 0; i < args.length; i++) {
+            if ("-n".equals(args[i])) {
+                descriptors = Integer.parseInt(args[++i]);
+            } else if ("-p".equals(args[i])) {
+                packages = Integer.parseInt(args[++i]);
+            }
+        }
+
+        List<byte[]> moduleInfos = new ArrayList<>(descriptors);
+        for (JavaModuleDescriptor descriptor : SyntheticModules.descriptors(descriptors, packages)) {
+            moduleInfos.add(SyntheticPathGenerator.moduleInfo(descriptor));
+        }
+
+        // one pool for all descriptors, like the LocationManager shares one across its calls
+        ClassFileModuleInfoParser parser = new ClassFileModuleInfoParser(new NamePool());
+        JavaModuleDescriptor[] parsed = new JavaModuleDescriptor[descriptors];
+
+        // warm up the parser, so the measurement doesn't include its classes
+        parser.parse(new ByteArrayInputStream(moduleInfos.get(0)));
+
+        long before = usedHeap();
+        for (int i = 0; i < descriptors; i++) {
+            parsed[i] = parser.parse(new ByteArrayInputStream(moduleInfos.get(i)));
+        }
+        long after = usedHeap();
+
+        System.out.printf(
+                Locale.ROOT,
+                "%d descriptors with %d packages: %.1f MiB retained, %d bytes per descriptor%n",
+                descriptors,
+                packages,
+                (after - before) / (1024.0 * 1024.0),
+                (after - before) / descriptors);
+
+        // keep everything reachable until after the measurement
+        if (parsed[descriptors - 1].hashCode() == moduleInfos.size()) {
+            System.out.println();
+        }
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long used = Long.MAX_VALUE;
+        // a few rounds, until nothing more gets freed
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            used = Math.min(used, memory.getHeapMemoryUsage().getUsed());
+        }
+        return used;
+    }
+}
@@ -0,0 +1,88 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the throughput of the module-info.class parsers. The benchmarks jar contains the multi release jar of
+ * plexus-java, so on Java 9 and above the {@link BinaryModuleInfoParser} is the one using
+ * {@code java.lang.module.ModuleDescriptor} instead of the ASM based implementation.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar ModuleInfoParserBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModuleInfoParserBenchmark {
+    /**
+     * The number of exported packages, the module also requires two modules and uses or provides a service.
+     */
+    @Param({"0", "10", "200"})
+    public int packages;
+
+    private byte[] moduleInfo;
+
+    private final ClassFileModuleInfoParser classFileParser = new ClassFileModuleInfoParser();
+
+    private final AsmModuleInfoParser asmParser = new AsmModuleInfoParser();
+
+    private final BinaryModuleInfoParser binaryParser = new BinaryModuleInfoParser();
+
+    @Setup
+    public void setUp() {
+        // the sixth module requires two modules and provides a service
+        moduleInfo = SyntheticPathGenerator.moduleInfo(SyntheticModules.descriptors(6, packages).get(5));
+    }
+
+    @Benchmark
+    public JavaModuleDescriptor classFile() throws IOException {
+        return classFileParser.parse(new ByteArrayInputStream(moduleInfo));
+    }
+
+    @Benchmark
+    public JavaModuleDescriptor asm() throws IOException {
+        return asmParser.parse(new ByteArrayInputStream(moduleInfo));
+    }
+
+    @Benchmark
+    public JavaModuleDescriptor binary() throws IOException {
+        return binaryParser.parse(new ByteArrayInputStream(moduleInfo));
+    }
+}
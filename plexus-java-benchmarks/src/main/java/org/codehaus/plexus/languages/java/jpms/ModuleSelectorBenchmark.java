@@ -0,0 +1,117 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.codehaus.plexus.languages.java.jpms.JavaModuleDescriptor.JavaRequires.JavaModifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how the module selection of {@link LocationManager#resolvePaths(ResolvePathsRequest)} scales with the
+ * number of modules on the path. Every module requires a few modules created before it, a part of them
+ * {@code static} or {@code transitive}, and some of them use or provide a service. The main module requires the last
+ * modules, so most of the graph is selected, through long chains of requires.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar ModuleSelectorBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModuleSelectorBenchmark {
+    @Param({"100", "1000", "10000", "100000"})
+    public int modules;
+
+    private Map<String, JavaModuleDescriptor> availableModules;
+
+    private Map<String, Set<String>> availableProviders;
+
+    private JavaModuleDescriptor mainModule;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(modules);
+
+        availableModules = new HashMap<>();
+        availableProviders = new HashMap<>();
+
+        for (int i = 0; i < modules; i++) {
+            JavaModuleDescriptor.Builder builder = JavaModuleDescriptor.newModule("module" + i);
+            if (i > 0) {
+                // always require the previous module, to get long chains
+                builder.requires(EnumSet.of(JavaModifier.TRANSITIVE), "module" + (i - 1));
+            }
+            for (int requires = random.nextInt(4); requires > 0 && i > 0; requires--) {
+                Set<JavaModifier> modifiers = EnumSet.noneOf(JavaModifier.class);
+                if (random.nextInt(4) == 0) {
+                    modifiers.add(JavaModifier.STATIC);
+                }
+                if (random.nextInt(4) == 0) {
+                    modifiers.add(JavaModifier.TRANSITIVE);
+                }
+                builder.requires(modifiers, "module" + random.nextInt(i));
+            }
+            if (i % 50 == 0) {
+                builder.uses("service" + random.nextInt(10));
+            }
+            if (i % 50 == 25) {
+                String service = "service" + random.nextInt(10);
+                builder.provides(service, Collections.singletonList("provider.Provider" + i));
+                availableProviders.computeIfAbsent(service, s -> new HashSet<>()).add("module" + i);
+            }
+            availableModules.put("module" + i, builder.build());
+        }
+
+        JavaModuleDescriptor.Builder main = JavaModuleDescriptor.newModule("main");
+        for (int i = Math.max(0, modules - 10); i < modules; i++) {
+            main.requires("module" + i);
+        }
+        mainModule = main.build();
+    }
+
+    @Benchmark
+    public int select() {
+        ModuleSelector selector = new ModuleSelector(availableModules, availableProviders, false);
+        selector.selectMainModule(mainModule);
+        return selector.selectedCount();
+    }
+}
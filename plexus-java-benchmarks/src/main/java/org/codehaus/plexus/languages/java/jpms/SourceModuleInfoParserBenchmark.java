@@ -0,0 +1,95 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares reading a {@code module-info.java} with the lightweight {@link ModuleDeclarationParser} against JavaParser,
+ * and measures {@link SourceModuleInfoParser#fromSourcePath(Path)}, which includes reading the file.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar SourceModuleInfoParserBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SourceModuleInfoParserBenchmark {
+    /**
+     * The number of exported packages, the module also requires two modules and uses or provides a service.
+     */
+    @Param({"0", "10", "200"})
+    public int packages;
+
+    private String source;
+
+    private Path moduleInfo;
+
+    private final SourceModuleInfoParser parser = new SourceModuleInfoParser();
+
+    @Setup
+    public void setUp() throws IOException {
+        source = SyntheticPathGenerator.moduleInfoSource(SyntheticModules.descriptors(6, packages).get(5));
+
+        moduleInfo = Files.createTempFile("module-info", ".java");
+        Files.write(moduleInfo, source.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(moduleInfo);
+    }
+
+    @Benchmark
+    public JavaModuleDescriptor declarationParser() {
+        return ModuleDeclarationParser.parse(source);
+    }
+
+    @Benchmark
+    public JavaModuleDescriptor javaParser() throws IOException {
+        return parser.parseWithJavaParser(source, moduleInfo);
+    }
+
+    @Benchmark
+    public JavaModuleDescriptor fromSourcePath() throws IOException {
+        return parser.fromSourcePath(moduleInfo);
+    }
+}
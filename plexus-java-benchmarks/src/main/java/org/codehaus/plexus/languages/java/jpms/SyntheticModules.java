@@ -0,0 +1,68 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.codehaus.plexus.languages.java.jpms.JavaModuleDescriptor.JavaRequires.JavaModifier;
+
+/**
+ * Module descriptors for the benchmarks of single descriptors, see {@link SyntheticPathGenerator} for whole paths.
+ */
+final class SyntheticModules {
+    private SyntheticModules() {}
+
+    /**
+     * @param modules the number of modules
+     * @param packages the number of exported packages per module
+     * @return modules which require the two modules before them and export {@code packages} packages, every tenth
+     *         module uses or provides a service
+     */
+    static List<JavaModuleDescriptor> descriptors(int modules, int packages) {
+        List<JavaModuleDescriptor> descriptors = new ArrayList<>(modules);
+        for (int i = 0; i < modules; i++) {
+            JavaModuleDescriptor.Builder builder = JavaModuleDescriptor.newModule(name(i));
+            if (i > 0) {
+                builder.requires(EnumSet.of(JavaModifier.TRANSITIVE), name(i - 1));
+            }
+            if (i > 1) {
+                builder.requires(EnumSet.of(JavaModifier.STATIC), name(i - 2));
+            }
+            for (int p = 0; p < packages; p++) {
+                builder.exports(name(i) + ".api" + p);
+            }
+            if (i % 10 == 0) {
+                builder.uses("org.example.spi.Service" + (i % 3));
+            } else if (i % 10 == 5) {
+                builder.provides(
+                        "org.example.spi.Service" + (i % 3), Collections.singletonList(name(i) + ".internal.Provider"));
+            }
+            descriptors.add(builder.build());
+        }
+        return descriptors;
+    }
+
+    static String name(int index) {
+        return "org.example.module" + index;
+    }
+}
@@ -0,0 +1,71 @@
+package org.codehaus.plexus.languages.java.version;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link JavaClassfileVersion#of(byte[])} over the headers of class files of Java 1.1 up to 25, some of
+ * them with preview features.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JavaClassfileVersionBenchmark {
+    private byte[][] headers;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(0);
+        headers = new byte[1000][];
+        for (int index = 0; index < headers.length; index++) {
+            int major = 45 + random.nextInt(25);
+            int minor = major >= 56 && random.nextInt(10) == 0 ? 0xFFFF : 0;
+            headers[index] = new byte[] {
+                (byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE,
+                (byte) (minor >> 8), (byte) minor, (byte) (major >> 8), (byte) major
+            };
+        }
+    }
+
+    @Benchmark
+    public JavaClassfileVersion[] of() {
+        JavaClassfileVersion[] versions = new JavaClassfileVersion[headers.length];
+        for (int index = 0; index < headers.length; index++) {
+            versions[index] = JavaClassfileVersion.of(headers[index]);
+        }
+        return versions;
+    }
+}
@@ -0,0 +1,153 @@
+package org.codehaus.plexus.languages.java.version;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares sorting and range-checking versions with {@link JavaVersion#compareTo(JavaVersion)} against the former
+ * implementation, which split and matched the raw versions on every comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JavaVersionBenchmark {
+    private static final Pattern STARTING_DIGITS = Pattern.compile("(\\d+)(.*)");
+
+    private static final String[] VERSIONS = {
+        "1.3.0", "1.3.0_01", "1.3.1", "1.4.2", "1.5", "1.6.0_45", "1.7.0_80", "1.8", "1.8.0_292", "9-ea", "9", "9.0.1",
+        "10-ea+35", "11.0.2", "17", "17.0.9", "21", "21.0.1+12", "22-ea"
+    };
+
+    private JavaVersion[] versions;
+
+    private JavaVersion minimum;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(0);
+        versions = new JavaVersion[1000];
+        for (int index = 0; index < versions.length; index++) {
+            versions[index] = JavaVersion.parse(VERSIONS[random.nextInt(VERSIONS.length)]);
+        }
+        minimum = JavaVersion.parse("1.8");
+    }
+
+    @Benchmark
+    public JavaVersion[] sort() {
+        JavaVersion[] sorted = versions.clone();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    @Benchmark
+    public JavaVersion[] sortLegacy() {
+        JavaVersion[] sorted = versions.clone();
+        Arrays.sort(sorted, (a, b) -> legacyCompare(a.getValue(), b.getValue()));
+        return sorted;
+    }
+
+    @Benchmark
+    public List<JavaVersion> isAtLeast() {
+        List<JavaVersion> supported = new ArrayList<>(versions.length);
+        for (JavaVersion version : versions) {
+            if (version.isAtLeast(minimum)) {
+                supported.add(version);
+            }
+        }
+        return supported;
+    }
+
+    @Benchmark
+    public List<JavaVersion> isAtLeastLegacy() {
+        List<JavaVersion> supported = new ArrayList<>(versions.length);
+        for (JavaVersion version : versions) {
+            if (legacyCompare(version.getValue(), minimum.getValue()) >= 0) {
+                supported.add(version);
+            }
+        }
+        return supported;
+    }
+
+    /**
+     * The former implementation of {@link JavaVersion#compareTo(JavaVersion)}.
+     */
+    private static int legacyCompare(String thisVersion, String otherVersion) {
+        String[] thisSegments = thisVersion.split("\\.");
+        String[] otherSegments = otherVersion.split("\\.");
+
+        int minSegments = Math.min(thisSegments.length, otherSegments.length);
+
+        for (int index = 0; index < minSegments; index++) {
+            Matcher thisMatcher = STARTING_DIGITS.matcher(thisSegments[index]);
+            int thisValue = thisMatcher.find() ? Integer.parseInt(thisMatcher.group(1)) : -1;
+
+            Matcher otherMatcher = STARTING_DIGITS.matcher(otherSegments[index]);
+            int otherValue = otherMatcher.find() ? Integer.parseInt(otherMatcher.group(1)) : -1;
+
+            int compareValue = Integer.compare(thisValue, otherValue);
+            if (compareValue != 0) {
+                return compareValue;
+            }
+
+            compareValue = legacySuffixRate(thisMatcher.group(2)) - legacySuffixRate(otherMatcher.group(2));
+            if (compareValue != 0) {
+                return compareValue;
+            }
+
+            compareValue = thisMatcher.group(2).compareTo(otherMatcher.group(2));
+            if (compareValue != 0) {
+                return compareValue;
+            }
+        }
+
+        return (thisSegments.length - otherSegments.length);
+    }
+
+    private static int legacySuffixRate(String suffix) {
+        if ("-ea".equals(suffix)) {
+            return -100;
+        } else if ("".equals(suffix)) {
+            return 0;
+        } else {
+            return 10;
+        }
+    }
+}
@@ -23,13 +23,30 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
 
 import org.codehaus.plexus.languages.java.version.JavaVersion;
+import org.codehaus.plexus.languages.java.version.MultiReleaseVersions;
 
 abstract class AbstractBinaryModuleInfoParser implements ModuleInfoParser {
+    // archives without module descriptor, so the manifest doesn't have to be read again
+    private final Map<Path, JarProbe> probes = new ConcurrentHashMap<>();
+
+    // the names of the parsed descriptors are taken from here, shared with other parsers when given
+    final NamePool names;
+
+    AbstractBinaryModuleInfoParser() {
+        this(new NamePool());
+    }
+
+    AbstractBinaryModuleInfoParser(NamePool names) {
+        this.names = names;
+    }
+
     @Override
     public JavaModuleDescriptor getModuleDescriptor(Path modulePath) throws IOException {
         return getModuleDescriptor(modulePath, JavaVersion.JAVA_SPECIFICATION_VERSION);
@@ -37,13 +54,20 @@ abstract class AbstractBinaryModuleInfoParser implements ModuleInfoParser {
 
     @Override
     public JavaModuleDescriptor getModuleDescriptor(Path modulePath, JavaVersion jdkVersion) throws IOException {
+        return getModuleDescriptor(modulePath, jdkVersion, ParseDepth.FULL);
+    }
+
+    @Override
+    public JavaModuleDescriptor getModuleDescriptor(Path modulePath, JavaVersion jdkVersion, ParseDepth depth)
+            throws IOException {
         JavaModuleDescriptor descriptor;
         if (Files.isDirectory(modulePath)) {
             try (InputStream in = Files.newInputStream(modulePath.resolve("module-info.class"))) {
-                descriptor = parse(in);
+                descriptor = parse(in, depth);
             }
         } else {
-            try (JarFile jarFile = new JarFile(modulePath.toFile())) {
+            // only the descriptor and manifest are read, verifying the signatures of a signed jar would cost more
+            try (JarFile jarFile = new JarFile(modulePath.toFile(), false)) {
                 JarEntry moduleInfo;
                 if (modulePath.toString().toLowerCase().endsWith(".jmod")) {
                     moduleInfo = jarFile.getJarEntry("classes/module-info.class");
@@ -53,15 +77,14 @@ abstract class AbstractBinaryModuleInfoParser implements ModuleInfoParser {
                     if (moduleInfo == null) {
                         Manifest manifest = jarFile.getManifest();
 
-                        if (manifest != null
-                                && "true"
-                                        .equalsIgnoreCase(
-                                                manifest.getMainAttributes().getValue("Multi-Release"))) {
-                            int javaVersion =
-                                    Integer.parseInt(jdkVersion.asMajor().getValue(1));
+                        boolean multiRelease = MultiReleaseVersions.isMultiRelease(manifest);
 
-                            for (int version = javaVersion; version >= 9; version--) {
-                                String resource = "META-INF/versions/" + version + "/module-info.class";
+                        if (multiRelease) {
+                            int javaVersion = MultiReleaseVersions.release(jdkVersion);
+
+                            for (int version = javaVersion; version >= MultiReleaseVersions.FIRST_RELEASE; version--) {
+                                String resource =
+                                        MultiReleaseVersions.VERSIONS_PREFIX + version + "/module-info.class";
                                 JarEntry entry = jarFile.getJarEntry(resource);
                                 if (entry != null) {
                                     moduleInfo = entry;
@@ -69,18 +92,59 @@ abstract class AbstractBinaryModuleInfoParser implements ModuleInfoParser {
                                 }
                             }
                         }
+
+                        if (moduleInfo == null) {
+                            String automaticModuleName = manifest != null
+                                    ? manifest.getMainAttributes().getValue("Automatic-Module-Name")
+                                    : null;
+
+                            String filenameModuleName = null;
+                            String filenameModuleNameError = null;
+                            if (automaticModuleName == null) {
+                                try {
+                                    filenameModuleName = AutomaticModuleNameExtractor.getModuleName(
+                                            modulePath, jarFile, manifest, jdkVersion);
+                                } catch (IllegalArgumentException e) {
+                                    filenameModuleNameError = e.getMessage();
+                                }
+                            }
+
+                            probes.put(
+                                    modulePath,
+                                    new JarProbe(
+                                            multiRelease,
+                                            automaticModuleName,
+                                            filenameModuleName,
+                                            filenameModuleNameError));
+                        }
                     }
                 }
 
                 if (moduleInfo != null) {
-                    descriptor = parse(jarFile.getInputStream(moduleInfo));
+                    descriptor = parse(jarFile.getInputStream(moduleInfo), depth);
                 } else {
                     descriptor = null;
                 }
             }
         }
+
         return descriptor;
     }
 
+    @Override
+    public JarProbe getProbe(Path modulePath) {
+        return probes.get(modulePath);
+    }
+
     abstract JavaModuleDescriptor parse(InputStream in) throws IOException;
+
+    /**
+     * @param in the module-info.class
+     * @param depth how much of the module descriptor must be read, parsers may always read it completely
+     * @return the module descriptor
+     * @throws IOException when the module-info.class could not be parsed
+     */
+    JavaModuleDescriptor parse(InputStream in, ParseDepth depth) throws IOException {
+        return parse(in);
+    }
 }
@@ -0,0 +1,164 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable set backed by an array, in the order the elements were added. Compared to an unmodifiable
+ * {@code LinkedHashSet} it takes a fraction of the memory, which adds up over the module descriptors of a large path,
+ * and its hash code is computed once.
+ *
+ * @since 1.6.1
+ */
+final class ArraySet<E> extends AbstractSet<E> {
+    // up to this size contains() compares all elements, larger sets get a hash table
+    private static final int MAX_SCAN_SIZE = 8;
+
+    private final Object[] elements;
+
+    // the index + 1 of the elements by their hash code, 0 for an empty slot, null for small sets
+    private final int[] table;
+
+    private final int hashCode;
+
+    private ArraySet(Object[] elements) {
+        this.elements = elements;
+
+        int hash = 0;
+        for (Object element : elements) {
+            hash += element.hashCode();
+        }
+        this.hashCode = hash;
+
+        if (elements.length > MAX_SCAN_SIZE) {
+            table = new int[Integer.highestOneBit(elements.length * 2 - 1) << 1];
+            for (int i = 0; i < elements.length; i++) {
+                int slot = slot(elements[i]);
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & (table.length - 1);
+                }
+                table[slot] = i + 1;
+            }
+        } else {
+            table = null;
+        }
+    }
+
+    /**
+     * @param elements the elements, without {@code null}
+     * @return an immutable set of the distinct elements, in the order of the collection
+     */
+    @SuppressWarnings("unchecked")
+    static <E> Set<E> copyOf(Collection<? extends E> elements) {
+        if (elements instanceof ArraySet) {
+            return (Set<E>) elements;
+        }
+        Collection<? extends E> distinct = elements instanceof Set ? elements : new LinkedHashSet<>(elements);
+        switch (distinct.size()) {
+            case 0:
+                return Collections.emptySet();
+            case 1:
+                return Collections.singleton(distinct.iterator().next());
+            default:
+                return new ArraySet<>(distinct.toArray());
+        }
+    }
+
+    private int slot(Object element) {
+        int hash = element.hashCode();
+        return (hash ^ (hash >>> 16)) & (table.length - 1);
+    }
+
+    @Override
+    public int size() {
+        return elements.length;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (o == null) {
+            return false;
+        }
+        if (table == null) {
+            for (Object element : elements) {
+                if (element.equals(o)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        for (int slot = slot(o); table[slot] != 0; slot = (slot + 1) & (table.length - 1)) {
+            if (elements[table[slot] - 1].equals(o)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < elements.length;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                if (index >= elements.length) {
+                    throw new NoSuchElementException();
+                }
+                return (E) elements[index++];
+            }
+        };
+    }
+
+    @Override
+    public Object[] toArray() {
+        return Arrays.copyOf(elements, elements.length);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+        if (o instanceof ArraySet && ((ArraySet<?>) o).hashCode != hashCode) {
+            return false;
+        }
+        return super.equals(o);
+    }
+}
@@ -22,7 +22,6 @@ package org.codehaus.plexus.languages.java.jpms;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -41,6 +40,12 @@ import org.objectweb.asm.Opcodes;
  * @since 1.0.0
  */
 class AsmModuleInfoParser extends AbstractBinaryModuleInfoParser {
+    AsmModuleInfoParser() {}
+
+    AsmModuleInfoParser(NamePool names) {
+        super(names);
+    }
+
     @Override
     JavaModuleDescriptor parse(InputStream in) throws IOException {
         final JavaModuleDescriptorWrapper wrapper = new JavaModuleDescriptorWrapper();
@@ -50,7 +55,7 @@ class AsmModuleInfoParser extends AbstractBinaryModuleInfoParser {
                 new ClassVisitor(Opcodes.ASM9) {
                     @Override
                     public ModuleVisitor visitModule(String name, int arg1, String arg2) {
-                        wrapper.builder = JavaModuleDescriptor.newModule(name);
+                        wrapper.builder = JavaModuleDescriptor.newModule(names.get(name));
 
                         return new ModuleVisitor(Opcodes.ASM9) {
                             @Override
@@ -65,34 +70,37 @@ class AsmModuleInfoParser extends AbstractBinaryModuleInfoParser {
                                         modifiers.add(JavaModuleDescriptor.JavaRequires.JavaModifier.TRANSITIVE);
                                     }
 
-                                    wrapper.builder.requires(modifiers, module);
+                                    wrapper.builder.requires(modifiers, names.get(module));
                                 } else {
-                                    wrapper.builder.requires(module);
+                                    wrapper.builder.requires(names.get(module));
                                 }
                             }
 
                             @Override
                             public void visitExport(String pn, int ms, String... targets) {
                                 if (targets == null || targets.length == 0) {
-                                    wrapper.builder.exports(pn.replace('/', '.'));
+                                    wrapper.builder.exports(names.getFromInternalName(pn));
                                 } else {
-                                    wrapper.builder.exports(
-                                            pn.replace('/', '.'), new HashSet<>(Arrays.asList(targets)));
+                                    Set<String> pooledTargets = new HashSet<>(targets.length * 2);
+                                    for (String target : targets) {
+                                        pooledTargets.add(names.get(target));
+                                    }
+                                    wrapper.builder.exports(names.getFromInternalName(pn), pooledTargets);
                                 }
                             }
 
                             @Override
                             public void visitUse(String service) {
-                                wrapper.builder.uses(service.replace('/', '.'));
+                                wrapper.builder.uses(names.getFromInternalName(service));
                             }
 
                             @Override
                             public void visitProvide(String service, String... providers) {
                                 List<String> renamedProvides = new ArrayList<>(providers.length);
                                 for (String provider : providers) {
-                                    renamedProvides.add(provider.replace('/', '.'));
+                                    renamedProvides.add(names.getFromInternalName(provider));
                                 }
-                                wrapper.builder.provides(service.replace('/', '.'), renamedProvides);
+                                wrapper.builder.provides(names.getFromInternalName(service), renamedProvides);
                             }
                         };
                     }
@@ -0,0 +1,310 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.codehaus.plexus.languages.java.version.JavaVersion;
+import org.codehaus.plexus.languages.java.version.MultiReleaseVersions;
+
+/**
+ * Derives the name of an automatic module the same way as {@code java.lang.module.ModuleFinder} does, but without
+ * requiring Java 9 or a forked JVM.
+ * <p>
+ * The {@code Automatic-Module-Name} of the manifest is used if present, otherwise the name is derived from the
+ * filename: the version is dropped, every non-alphanumeric character is replaced by a dot, repeating dots are
+ * collapsed and leading and trailing dots are removed. Like the {@code ModuleFinder}, the content of the jar is
+ * verified too: classes in the unnamed package or service providers outside the packages of the jar make it unusable
+ * as automatic module.
+ * </p>
+ *
+ * @since 1.6.1
+ */
+class AutomaticModuleNameExtractor implements ModuleNameExtractor {
+    private static final String SERVICES_PREFIX = "META-INF/services/";
+
+    private static final Pattern DASH_VERSION = Pattern.compile("-(\\d+(\\.|$))");
+
+    private static final Pattern NON_ALPHANUM = Pattern.compile("[^A-Za-z0-9]");
+
+    private static final Pattern REPEATING_DOTS = Pattern.compile("(\\.)(\\1)+");
+
+    private static final Set<String> RESERVED = new HashSet<>(Arrays.asList(
+            "abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class", "const", "continue",
+            "default", "do", "double", "else", "enum", "extends", "final", "finally", "float", "for", "goto", "if",
+            "implements", "import", "instanceof", "int", "interface", "long", "native", "new", "package", "private",
+            "protected", "public", "return", "short", "static", "strictfp", "super", "switch", "synchronized", "this",
+            "throw", "throws", "transient", "try", "void", "volatile", "while", "true", "false", "null", "_"));
+
+    private final JavaVersion javaVersion;
+
+    AutomaticModuleNameExtractor() {
+        this(JavaVersion.JAVA_SPECIFICATION_VERSION);
+    }
+
+    /**
+     * @param javaVersion the java version to select the entries of a multirelease jar
+     */
+    AutomaticModuleNameExtractor(JavaVersion javaVersion) {
+        this.javaVersion = javaVersion;
+    }
+
+    /**
+     * @return the module name, or {@code null} if the file can't be used as automatic module
+     */
+    @Override
+    public String extract(Path file) throws IOException {
+        try {
+            return getModuleName(file);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param file the jar
+     * @return the module name, or {@code null} if the file is not a jar
+     * @throws IllegalArgumentException if the jar can't be used as automatic module
+     * @throws IOException if the jar can't be read
+     */
+    String getModuleName(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        try (JarFile jarFile = new JarFile(file.toFile(), false)) {
+            if (jarFile.getJarEntry("module-info.class") != null) {
+                return null;
+            }
+            return getModuleName(file, jarFile, jarFile.getManifest(), javaVersion);
+        }
+    }
+
+    /**
+     * Derives the module name from an already opened jar without module descriptor.
+     *
+     * @param file the jar
+     * @param jarFile the opened jar
+     * @param manifest the manifest of the jar, or {@code null}
+     * @param javaVersion the java version to select the entries of a multirelease jar
+     * @return the module name, or {@code null} if the file is not a jar
+     * @throws IllegalArgumentException if the jar can't be used as automatic module
+     * @throws IOException if the jar can't be read
+     */
+    static String getModuleName(Path file, JarFile jarFile, Manifest manifest, JavaVersion javaVersion)
+            throws IOException {
+        String fileName = file.getFileName().toString();
+        if (!fileName.endsWith(".jar")) {
+            return null;
+        }
+
+        String moduleName = manifest != null ? manifest.getMainAttributes().getValue("Automatic-Module-Name") : null;
+
+        if (moduleName == null) {
+            // drop ".jar"
+            String name = fileName.substring(0, fileName.length() - 4);
+
+            // find first occurrence of -${NUMBER}. or -${NUMBER}$, everything from there is considered the version
+            Matcher matcher = DASH_VERSION.matcher(name);
+            if (matcher.find()) {
+                name = name.substring(0, matcher.start());
+            }
+
+            moduleName = cleanModuleName(name);
+        }
+
+        if (!isQualifiedName(moduleName)) {
+            throw invalid(fileName, moduleName + ": Invalid module name");
+        }
+
+        Map<String, JarEntry> entries = versionedEntries(jarFile, manifest, javaVersion);
+
+        Set<String> packages = new HashSet<>();
+        for (String entryName : entries.keySet()) {
+            if (entryName.endsWith(".class") && !entryName.startsWith(SERVICES_PREFIX)) {
+                int index = entryName.lastIndexOf('/');
+                if (index == -1) {
+                    if (!entryName.equals("module-info.class")) {
+                        throw invalid(
+                                fileName, entryName + " found in top-level directory (unnamed package not allowed)");
+                    }
+                } else {
+                    String packageName = entryName.substring(0, index).replace('/', '.');
+                    if (isQualifiedName(packageName)) {
+                        packages.add(packageName);
+                    }
+                }
+            }
+        }
+
+        for (Map.Entry<String, JarEntry> entry : entries.entrySet()) {
+            String entryName = entry.getKey();
+            if (!entryName.endsWith(".class")
+                    && entryName.startsWith(SERVICES_PREFIX)
+                    && entryName.indexOf('/', SERVICES_PREFIX.length()) == -1
+                    && isQualifiedName(entryName.substring(SERVICES_PREFIX.length()))) {
+                verifyProviders(fileName, jarFile, entry.getValue(), packages);
+            }
+        }
+
+        return moduleName;
+    }
+
+    /**
+     * Same as {@code java.lang.module.ModulePath.cleanModuleName(String)}
+     */
+    static String cleanModuleName(String name) {
+        // replace non-alphanumeric
+        String moduleName = NON_ALPHANUM.matcher(name).replaceAll(".");
+
+        // collapse repeating dots
+        moduleName = REPEATING_DOTS.matcher(moduleName).replaceAll(".");
+
+        // drop leading and trailing dot
+        if (!moduleName.isEmpty() && moduleName.charAt(0) == '.') {
+            moduleName = moduleName.substring(1);
+        }
+        if (!moduleName.isEmpty() && moduleName.charAt(moduleName.length() - 1) == '.') {
+            moduleName = moduleName.substring(0, moduleName.length() - 1);
+        }
+        return moduleName;
+    }
+
+    /**
+     * @return {@code true} if every dot-separated part is a Java identifier and not a reserved word
+     */
+    static boolean isQualifiedName(String name) {
+        int offset = 0;
+        int next;
+        while ((next = name.indexOf('.', offset)) != -1) {
+            if (!isJavaIdentifier(name.substring(offset, next))) {
+                return false;
+            }
+            offset = next + 1;
+        }
+        return isJavaIdentifier(name.substring(offset));
+    }
+
+    private static boolean isJavaIdentifier(String value) {
+        if (value.isEmpty() || RESERVED.contains(value)) {
+            return false;
+        }
+
+        int first = Character.codePointAt(value, 0);
+        if (!Character.isJavaIdentifierStart(first)) {
+            return false;
+        }
+
+        int index = Character.charCount(first);
+        while (index < value.length()) {
+            int codePoint = Character.codePointAt(value, index);
+            if (!Character.isJavaIdentifierPart(codePoint)) {
+                return false;
+            }
+            index += Character.charCount(codePoint);
+        }
+        return true;
+    }
+
+    /**
+     * The files of the jar by the name they have for the java version, like {@code JarFile.versionedStream()}.
+     */
+    private static Map<String, JarEntry> versionedEntries(JarFile jarFile, Manifest manifest, JavaVersion javaVersion) {
+        boolean multiRelease = MultiReleaseVersions.isMultiRelease(manifest);
+
+        int maxVersion = multiRelease ? MultiReleaseVersions.release(javaVersion) : 0;
+
+        Map<String, JarEntry> entries = new HashMap<>();
+        Map<String, Integer> entryVersions = new HashMap<>();
+
+        Enumeration<JarEntry> jarEntries = jarFile.entries();
+        while (jarEntries.hasMoreElements()) {
+            JarEntry jarEntry = jarEntries.nextElement();
+            if (jarEntry.isDirectory()) {
+                continue;
+            }
+
+            String name = jarEntry.getName();
+            int version = 0;
+
+            if (multiRelease) {
+                version = MultiReleaseVersions.releaseOf(name);
+                if (version == MultiReleaseVersions.IGNORED_RELEASE || version > maxVersion) {
+                    continue;
+                }
+                name = MultiReleaseVersions.unversionedName(name);
+            }
+
+            Integer previous = entryVersions.get(name);
+            if (previous == null || previous < version) {
+                entries.put(name, jarEntry);
+                entryVersions.put(name, version);
+            }
+        }
+        return entries;
+    }
+
+    private static void verifyProviders(String fileName, JarFile jarFile, JarEntry entry, Set<String> packages)
+            throws IOException {
+        try (InputStream in = jarFile.getInputStream(entry);
+                BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int commentIndex = line.indexOf('#');
+                if (commentIndex >= 0) {
+                    line = line.substring(0, commentIndex);
+                }
+                line = line.trim();
+
+                if (!line.isEmpty()) {
+                    int index = line.lastIndexOf('.');
+                    String packageName = index == -1 ? "" : line.substring(0, index);
+                    if (!packages.contains(packageName)) {
+                        throw invalid(fileName, "Provider class " + line + " not in JAR file " + fileName);
+                    }
+                    if (!isQualifiedName(line)) {
+                        throw invalid(fileName, line + ": Invalid class name");
+                    }
+                }
+            }
+        }
+    }
+
+    private static IllegalArgumentException invalid(String fileName, String reason) {
+        return new IllegalArgumentException("Unable to derive module descriptor for " + fileName + ": " + reason);
+    }
+}
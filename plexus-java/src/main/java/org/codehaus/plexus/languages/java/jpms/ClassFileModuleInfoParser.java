@@ -0,0 +1,419 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+import org.codehaus.plexus.languages.java.jpms.JavaModuleDescriptor.JavaRequires.JavaModifier;
+
+/**
+ * Extract information from module-info.class by reading the class file format directly. Only the constant pool and
+ * the {@code Module} attribute are read, everything else is skipped. Unlike the other parsers it neither depends on
+ * the Java version of the runtime nor on the class file version.
+ *
+ * @since 1.6.1
+ */
+class ClassFileModuleInfoParser extends AbstractBinaryModuleInfoParser {
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final int ACC_MODULE = 0x8000;
+
+    private static final int ACC_TRANSITIVE = 0x0020;
+
+    private static final int ACC_STATIC_PHASE = 0x0040;
+
+    private static final int CONSTANT_UTF8 = 1;
+
+    private static final int CONSTANT_INTEGER = 3;
+
+    private static final int CONSTANT_FLOAT = 4;
+
+    private static final int CONSTANT_LONG = 5;
+
+    private static final int CONSTANT_DOUBLE = 6;
+
+    private static final int CONSTANT_CLASS = 7;
+
+    private static final int CONSTANT_STRING = 8;
+
+    private static final int CONSTANT_FIELDREF = 9;
+
+    private static final int CONSTANT_METHODREF = 10;
+
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    private static final int CONSTANT_METHOD_HANDLE = 15;
+
+    private static final int CONSTANT_METHOD_TYPE = 16;
+
+    private static final int CONSTANT_DYNAMIC = 17;
+
+    private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+
+    private static final int CONSTANT_MODULE = 19;
+
+    private static final int CONSTANT_PACKAGE = 20;
+
+    ClassFileModuleInfoParser() {}
+
+    ClassFileModuleInfoParser(NamePool names) {
+        super(names);
+    }
+
+    @Override
+    JavaModuleDescriptor parse(InputStream in) throws IOException {
+        return parse(in, ParseDepth.FULL);
+    }
+
+    @Override
+    JavaModuleDescriptor parse(InputStream in, ParseDepth depth) throws IOException {
+        return parse(ByteBuffer.wrap(readAllBytes(in)), depth);
+    }
+
+    JavaModuleDescriptor parse(ByteBuffer buffer, ParseDepth depth) throws IOException {
+        return parse(buffer, depth, names);
+    }
+
+    private static JavaModuleDescriptor parse(ByteBuffer buffer, ParseDepth depth, NamePool names)
+            throws IOException {
+        // the skipped directives are decoded from these bytes once asked for, the archive may have changed by then
+        ByteBuffer moduleInfo = depth != ParseDepth.FULL ? buffer.duplicate() : null;
+        JavaModuleDescriptor descriptor;
+        try {
+            descriptor = new ClassFile(buffer, depth, names).readModule();
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Truncated module-info.class", e);
+        }
+        if (moduleInfo != null) {
+            descriptor.setLoader(loader(moduleInfo, names));
+        }
+        return descriptor;
+    }
+
+    /**
+     * Static, so a cached descriptor keeps only the bytes of its module-info.class alive, not the parser.
+     */
+    private static Callable<JavaModuleDescriptor> loader(ByteBuffer moduleInfo, NamePool names) {
+        return () -> parse(moduleInfo.duplicate(), ParseDepth.FULL, names);
+    }
+
+    private static byte[] readAllBytes(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+        byte[] bytes = new byte[4096];
+        int read;
+        while ((read = in.read(bytes)) != -1) {
+            out.write(bytes, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static final class ClassFile {
+        private final ByteBuffer buffer;
+
+        private final ParseDepth depth;
+
+        private final NamePool names;
+
+        // position of every constant pool entry, its tag is the byte before
+        private int[] offsets;
+
+        private String[] strings;
+
+        ClassFile(ByteBuffer buffer, ParseDepth depth, NamePool names) {
+            this.buffer = buffer;
+            this.depth = depth;
+            this.names = names;
+        }
+
+        JavaModuleDescriptor readModule() throws IOException {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Invalid module-info.class, bad magic number");
+            }
+
+            // minor and major version, irrelevant for the Module attribute
+            skip(4);
+
+            readConstantPool();
+
+            int accessFlags = u2();
+            if ((accessFlags & ACC_MODULE) == 0) {
+                throw new IOException("Invalid module-info.class, ACC_MODULE not set");
+            }
+
+            // this_class and super_class
+            skip(4);
+            skip(2 * u2());
+
+            // fields and methods, a module-info.class has none, but be lenient
+            skipMembers();
+            skipMembers();
+
+            for (int attributes = u2(); attributes > 0; attributes--) {
+                String name = utf8(u2());
+                int length = buffer.getInt();
+                if ("Module".equals(name)) {
+                    return readModuleAttribute();
+                }
+                skip(length);
+            }
+            throw new IOException("Invalid module-info.class, Module attribute not found");
+        }
+
+        private void readConstantPool() throws IOException {
+            int count = u2();
+            offsets = new int[count];
+            strings = new String[count];
+
+            for (int index = 1; index < count; index++) {
+                int tag = buffer.get() & 0xFF;
+                offsets[index] = buffer.position();
+                switch (tag) {
+                    case CONSTANT_UTF8:
+                        skip(u2());
+                        break;
+                    case CONSTANT_CLASS:
+                    case CONSTANT_STRING:
+                    case CONSTANT_METHOD_TYPE:
+                    case CONSTANT_MODULE:
+                    case CONSTANT_PACKAGE:
+                        skip(2);
+                        break;
+                    case CONSTANT_METHOD_HANDLE:
+                        skip(3);
+                        break;
+                    case CONSTANT_INTEGER:
+                    case CONSTANT_FLOAT:
+                    case CONSTANT_FIELDREF:
+                    case CONSTANT_METHODREF:
+                    case CONSTANT_INTERFACE_METHODREF:
+                    case CONSTANT_NAME_AND_TYPE:
+                    case CONSTANT_DYNAMIC:
+                    case CONSTANT_INVOKE_DYNAMIC:
+                        skip(4);
+                        break;
+                    case CONSTANT_LONG:
+                    case CONSTANT_DOUBLE:
+                        skip(8);
+                        // takes two entries
+                        index++;
+                        break;
+                    default:
+                        throw new IOException("Invalid module-info.class, unknown constant pool tag " + tag);
+                }
+            }
+        }
+
+        private void skipMembers() {
+            for (int members = u2(); members > 0; members--) {
+                // access_flags, name_index and descriptor_index
+                skip(6);
+                for (int attributes = u2(); attributes > 0; attributes--) {
+                    skip(2);
+                    skip(buffer.getInt());
+                }
+            }
+        }
+
+        private JavaModuleDescriptor readModuleAttribute() throws IOException {
+            JavaModuleDescriptor.Builder builder =
+                    JavaModuleDescriptor.newModule(name(u2(), CONSTANT_MODULE)).depth(depth);
+
+            // module_flags and module_version_index
+            skip(4);
+
+            for (int requires = u2(); requires > 0; requires--) {
+                String name = name(u2(), CONSTANT_MODULE);
+                int flags = u2();
+                // requires_version_index
+                skip(2);
+
+                if ((flags & (ACC_STATIC_PHASE | ACC_TRANSITIVE)) != 0) {
+                    Set<JavaModifier> modifiers = EnumSet.noneOf(JavaModifier.class);
+                    if ((flags & ACC_STATIC_PHASE) != 0) {
+                        modifiers.add(JavaModifier.STATIC);
+                    }
+                    if ((flags & ACC_TRANSITIVE) != 0) {
+                        modifiers.add(JavaModifier.TRANSITIVE);
+                    }
+                    builder.requires(modifiers, name);
+                } else {
+                    builder.requires(name);
+                }
+            }
+
+            // the skipped directives are only checked, so decoding them later can't fail on a malformed reference
+            for (int exports = u2(); exports > 0; exports--) {
+                if (depth != ParseDepth.FULL) {
+                    checkReference(u2(), CONSTANT_PACKAGE);
+                    // exports_flags
+                    skip(2);
+                    for (int targets = u2(); targets > 0; targets--) {
+                        checkReference(u2(), CONSTANT_MODULE);
+                    }
+                    continue;
+                }
+
+                String source = name(u2(), CONSTANT_PACKAGE);
+                // exports_flags
+                skip(2);
+
+                int targetCount = u2();
+                if (targetCount == 0) {
+                    builder.exports(source);
+                } else {
+                    Set<String> targets = new LinkedHashSet<>(targetCount * 2);
+                    for (int i = 0; i < targetCount; i++) {
+                        targets.add(name(u2(), CONSTANT_MODULE));
+                    }
+                    builder.exports(source, targets);
+                }
+            }
+
+            for (int opens = u2(); opens > 0; opens--) {
+                // opens_index and opens_flags
+                skip(4);
+                skip(2 * u2());
+            }
+
+            for (int uses = u2(); uses > 0; uses--) {
+                if (depth == ParseDepth.REQUIRES) {
+                    checkReference(u2(), CONSTANT_CLASS);
+                    continue;
+                }
+                builder.uses(name(u2(), CONSTANT_CLASS));
+            }
+
+            for (int provides = u2(); provides > 0; provides--) {
+                if (depth == ParseDepth.REQUIRES) {
+                    checkReference(u2(), CONSTANT_CLASS);
+                    for (int providers = u2(); providers > 0; providers--) {
+                        checkReference(u2(), CONSTANT_CLASS);
+                    }
+                    continue;
+                }
+
+                String service = name(u2(), CONSTANT_CLASS);
+
+                int providerCount = u2();
+                List<String> providers = new ArrayList<>(providerCount);
+                for (int i = 0; i < providerCount; i++) {
+                    providers.add(name(u2(), CONSTANT_CLASS));
+                }
+                builder.provides(service, providers);
+            }
+
+            return builder.build();
+        }
+
+        /**
+         * @return the name of a CONSTANT_Module, CONSTANT_Package or CONSTANT_Class entry, separated by dots and
+         *         taken from the pool
+         */
+        private String name(int index, int expectedTag) throws IOException {
+            return names.getFromInternalName(reference(index, expectedTag));
+        }
+
+        /**
+         * @return the name of a CONSTANT_Module, CONSTANT_Package or CONSTANT_Class entry
+         */
+        private String reference(int index, int expectedTag) throws IOException {
+            checkIndex(index, expectedTag);
+            return utf8(buffer.getShort(offsets[index]) & 0xFFFF);
+        }
+
+        private String utf8(int index) throws IOException {
+            checkIndex(index, CONSTANT_UTF8);
+
+            String value = strings[index];
+            if (value == null) {
+                value = decode(offsets[index]);
+                strings[index] = value;
+            }
+            return value;
+        }
+
+        /**
+         * Checks a CONSTANT_Module, CONSTANT_Package or CONSTANT_Class entry and its name without decoding it.
+         */
+        private void checkReference(int index, int expectedTag) throws IOException {
+            checkIndex(index, expectedTag);
+            checkIndex(buffer.getShort(offsets[index]) & 0xFFFF, CONSTANT_UTF8);
+        }
+
+        private void checkIndex(int index, int expectedTag) throws IOException {
+            if (index <= 0 || index >= offsets.length || offsets[index] == 0) {
+                throw new IOException("Invalid module-info.class, bad constant pool index " + index);
+            }
+            int tag = buffer.get(offsets[index] - 1) & 0xFF;
+            if (tag != expectedTag) {
+                throw new IOException("Invalid module-info.class, expected constant pool tag " + expectedTag
+                        + " at index " + index + " but was " + tag);
+            }
+        }
+
+        /**
+         * Decodes the modified UTF-8 of a CONSTANT_Utf8 entry, like {@code DataInputStream.readUTF()}.
+         */
+        private String decode(int offset) throws IOException {
+            int length = buffer.getShort(offset) & 0xFFFF;
+            int position = offset + 2;
+            int end = position + length;
+
+            char[] chars = new char[length];
+            int count = 0;
+            while (position < end) {
+                int b = buffer.get(position++) & 0xFF;
+                if (b < 0x80) {
+                    chars[count++] = (char) b;
+                } else if ((b & 0xE0) == 0xC0 && position < end) {
+                    int b2 = buffer.get(position++) & 0xFF;
+                    chars[count++] = (char) (((b & 0x1F) << 6) | (b2 & 0x3F));
+                } else if ((b & 0xF0) == 0xE0 && position + 1 < end) {
+                    int b2 = buffer.get(position++) & 0xFF;
+                    int b3 = buffer.get(position++) & 0xFF;
+                    chars[count++] = (char) (((b & 0x0F) << 12) | ((b2 & 0x3F) << 6) | (b3 & 0x3F));
+                } else {
+                    throw new IOException("Invalid module-info.class, malformed UTF-8 in constant pool");
+                }
+            }
+            return new String(chars, 0, count);
+        }
+
+        private int u2() {
+            return buffer.getShort() & 0xFFFF;
+        }
+
+        private void skip(int bytes) {
+            buffer.position(buffer.position() + bytes);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+/**
+ * What has been read from an archive without module descriptor while looking for it, so the archive doesn't have to
+ * be opened again to find its automatic module name.
+ * <p>
+ * If the manifest has no {@code Automatic-Module-Name}, the name is derived from the filename with the
+ * {@link AutomaticModuleNameExtractor} while the archive is still open.
+ * </p>
+ *
+ * @since 1.6.1
+ */
+final class JarProbe {
+    private final boolean multiRelease;
+
+    private final String automaticModuleName;
+
+    private final String filenameModuleName;
+
+    private final String filenameModuleNameError;
+
+    JarProbe(
+            boolean multiRelease,
+            String automaticModuleName,
+            String filenameModuleName,
+            String filenameModuleNameError) {
+        this.multiRelease = multiRelease;
+        this.automaticModuleName = automaticModuleName;
+        this.filenameModuleName = filenameModuleName;
+        this.filenameModuleNameError = filenameModuleNameError;
+    }
+
+    /**
+     * @return {@code true} if the manifest has {@code Multi-Release: true}
+     */
+    boolean isMultiRelease() {
+        return multiRelease;
+    }
+
+    /**
+     * @return the {@code Automatic-Module-Name} of the manifest, or {@code null}
+     */
+    String getAutomaticModuleName() {
+        return automaticModuleName;
+    }
+
+    /**
+     * @return the module name derived from the filename, or {@code null} if the manifest has an
+     *         {@code Automatic-Module-Name}
+     * @throws IllegalArgumentException if the archive can't be used as automatic module
+     */
+    String getFilenameModuleName() {
+        if (filenameModuleNameError != null) {
+            throw new IllegalArgumentException(filenameModuleNameError);
+        }
+        return filenameModuleName;
+    }
+}
@@ -19,32 +19,60 @@ package org.codehaus.plexus.languages.java.jpms;
  * under the License.
  */
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Callable;
 
 /**
  * Simple representation of a ModuleDescriptor containing info required by this plugin.
  * It will provide only methods matching Java 9 ModuleDescriptor, so once Java 9  is required, we can easily switch
+ * <p>
+ * A large path holds thousands of descriptors, so the directives are kept in compact immutable sets which the
+ * accessors return as is, and the hash code is computed once. The name and the requires never change once built. The
+ * directives a parser skipped are decoded on first access from the module-info.class it kept in memory, which
+ * replaces the exports, uses and provides once. The archive isn't read again, it may have changed or be gone by then.
+ * </p>
  *
  * @author Robert Scholte
  * @since 1.0.0
  *
  */
 public class JavaModuleDescriptor {
-    private String name;
+    private final String name;
 
-    private boolean automatic;
+    private final boolean automatic;
 
-    private Set<JavaRequires> requires = new LinkedHashSet<>();
+    private final Set<JavaRequires> requires;
 
-    private Set<JavaExports> exports = new LinkedHashSet<>();
+    // replaced by complete() when the parser skipped them
+    private Set<JavaExports> exports;
 
-    private Set<String> uses = new LinkedHashSet<>();
+    private Set<String> uses;
 
-    private Set<JavaProvides> provides = new LinkedHashSet<>();
+    private Set<JavaProvides> provides;
+
+    // the directives beyond this depth haven't been read yet, the loader decodes the complete descriptor
+    private volatile ParseDepth depth;
+
+    private Callable<JavaModuleDescriptor> loader;
+
+    // 0 if not computed yet
+    private int hashCode;
+
+    private JavaModuleDescriptor(Builder builder) {
+        this.name = builder.name;
+        this.automatic = builder.automatic;
+        this.requires = ArraySet.copyOf(builder.requires);
+        this.exports = ArraySet.copyOf(builder.exports);
+        this.uses = ArraySet.copyOf(builder.uses);
+        this.provides = ArraySet.copyOf(builder.provides);
+        this.depth = builder.depth;
+    }
 
     public String name() {
         return name;
@@ -55,19 +83,62 @@ public class JavaModuleDescriptor {
     }
 
     public Set<JavaRequires> requires() {
-        return Collections.unmodifiableSet(requires);
+        return requires;
     }
 
     public Set<JavaExports> exports() {
-        return Collections.unmodifiableSet(exports);
+        complete(ParseDepth.FULL);
+        return exports;
     }
 
     public Set<JavaProvides> provides() {
-        return Collections.unmodifiableSet(provides);
+        complete(ParseDepth.REQUIRES_AND_SERVICES);
+        return provides;
     }
 
     public Set<String> uses() {
-        return Collections.unmodifiableSet(uses);
+        complete(ParseDepth.REQUIRES_AND_SERVICES);
+        return uses;
+    }
+
+    /**
+     * @return the depth up to which the directives have been read
+     */
+    ParseDepth depth() {
+        return depth;
+    }
+
+    /**
+     * @param loader decodes the complete module descriptor once the skipped directives are asked for, without reading
+     *            the archive again
+     */
+    void setLoader(Callable<JavaModuleDescriptor> loader) {
+        this.loader = loader;
+    }
+
+    private void complete(ParseDepth required) {
+        if (depth.compareTo(required) <= 0) {
+            return;
+        }
+        synchronized (this) {
+            if (depth.compareTo(required) <= 0) {
+                return;
+            }
+            if (loader == null) {
+                throw new IllegalStateException("The module descriptor of " + name + " has been read up to " + depth);
+            }
+            JavaModuleDescriptor complete;
+            try {
+                complete = loader.call();
+            } catch (Exception e) {
+                throw new IllegalStateException("Unable to read the module descriptor of " + name, e);
+            }
+            exports = complete.exports;
+            uses = complete.uses;
+            provides = complete.provides;
+            loader = null;
+            depth = ParseDepth.FULL;
+        }
     }
 
     public static JavaModuleDescriptor.Builder newModule(String name) {
@@ -80,7 +151,13 @@ public class JavaModuleDescriptor {
 
     @Override
     public int hashCode() {
-        return Objects.hash(name, automatic, requires, exports);
+        int hash = hashCode;
+        if (hash == 0) {
+            complete(ParseDepth.FULL);
+            hash = Objects.hash(name, automatic, requires, exports);
+            hashCode = hash;
+        }
+        return hash;
     }
 
     @Override
@@ -96,6 +173,9 @@ public class JavaModuleDescriptor {
         }
 
         JavaModuleDescriptor other = (JavaModuleDescriptor) obj;
+        if (hashCode != 0 && other.hashCode != 0 && hashCode != other.hashCode) {
+            return false;
+        }
         if (automatic != other.automatic) {
             return false;
         }
@@ -105,21 +185,31 @@ public class JavaModuleDescriptor {
         if (!Objects.equals(requires, other.requires)) {
             return false;
         }
-        if (!Objects.equals(exports, other.exports)) {
-            return false;
-        }
-        return true;
+        // the skipped directives are decoded from memory, so a partially read descriptor compares by content as well
+        complete(ParseDepth.FULL);
+        other.complete(ParseDepth.FULL);
+        return Objects.equals(exports, other.exports);
     }
 
     @Override
     public String toString() {
-        return "JavaModuleDescriptor{" + "name='"
-                + name + '\'' + ", automatic="
-                + automatic + ", requires="
-                + requires + ", exports="
-                + exports + ", uses="
-                + uses + ", provides="
-                + provides + '}';
+        // only what has been read, printing must never read the skipped directives
+        ParseDepth read = depth;
+        StringBuilder builder = new StringBuilder("JavaModuleDescriptor{");
+        builder.append("name='").append(name).append('\'');
+        builder.append(", automatic=").append(automatic);
+        builder.append(", requires=").append(requires);
+        if (read == ParseDepth.FULL) {
+            builder.append(", exports=").append(exports);
+        }
+        if (read != ParseDepth.REQUIRES) {
+            builder.append(", uses=").append(uses);
+            builder.append(", provides=").append(provides);
+        }
+        if (read != ParseDepth.FULL) {
+            builder.append(", depth=").append(read);
+        }
+        return builder.append('}').toString();
     }
 
     /**
@@ -129,15 +219,26 @@ public class JavaModuleDescriptor {
      * @since 1.0.0
      */
     public static final class Builder {
-        private JavaModuleDescriptor jModule;
+        private final String name;
+
+        private boolean automatic;
+
+        private final Set<JavaRequires> requires = new LinkedHashSet<>();
+
+        private final Set<JavaExports> exports = new LinkedHashSet<>();
+
+        private final Set<String> uses = new LinkedHashSet<>();
+
+        private final Set<JavaProvides> provides = new LinkedHashSet<>();
+
+        private ParseDepth depth = ParseDepth.FULL;
 
         private Builder(String name) {
-            jModule = new JavaModuleDescriptor();
-            jModule.name = name;
+            this.name = name;
         }
 
         private Builder setAutomatic(boolean isAutomatic) {
-            jModule.automatic = isAutomatic;
+            this.automatic = isAutomatic;
             return this;
         }
 
@@ -149,7 +250,7 @@ public class JavaModuleDescriptor {
          * @return This builder
          */
         public Builder requires(Set<JavaModuleDescriptor.JavaRequires.JavaModifier> modifiers, String name) {
-            jModule.requires.add(new JavaRequires(modifiers, name));
+            requires.add(new JavaRequires(modifiers, name));
             return this;
         }
 
@@ -160,7 +261,7 @@ public class JavaModuleDescriptor {
          * @return This builder
          */
         public Builder requires(String name) {
-            jModule.requires.add(new JavaRequires(name));
+            requires.add(new JavaRequires(name));
             return this;
         }
 
@@ -171,7 +272,7 @@ public class JavaModuleDescriptor {
          * @return This builder
          */
         public Builder exports(String source) {
-            jModule.exports.add(new JavaExports(source));
+            exports.add(new JavaExports(source));
             return this;
         }
 
@@ -183,7 +284,7 @@ public class JavaModuleDescriptor {
          * @return This builder
          */
         public Builder exports(String source, Set<String> targets) {
-            jModule.exports.add(new JavaExports(source, targets));
+            exports.add(new JavaExports(source, targets));
             return this;
         }
 
@@ -194,12 +295,23 @@ public class JavaModuleDescriptor {
          * @return This Builder
          */
         public Builder uses(String service) {
-            jModule.uses.add(service);
+            uses.add(service);
             return this;
         }
 
         public Builder provides(String service, List<String> providers) {
-            jModule.provides.add(new JavaProvides(service, providers));
+            provides.add(new JavaProvides(service, providers));
+            return this;
+        }
+
+        /**
+         * Marks the directives beyond the depth as not read yet.
+         *
+         * @param depth the depth up to which the directives have been read
+         * @return This Builder
+         */
+        Builder depth(ParseDepth depth) {
+            this.depth = depth;
             return this;
         }
 
@@ -209,7 +321,7 @@ public class JavaModuleDescriptor {
          * @return The module descriptor
          */
         public JavaModuleDescriptor build() {
-            return jModule;
+            return new JavaModuleDescriptor(this);
         }
     }
 
@@ -220,22 +332,36 @@ public class JavaModuleDescriptor {
      * @since 1.0.0
      */
     public static class JavaRequires {
-        private final Set<JavaModifier> modifiers;
+        // every combination of modifiers, indexed by their bits
+        private static final List<Set<JavaModifier>> MODIFIER_SETS = Arrays.asList(
+                Collections.<JavaModifier>emptySet(),
+                Collections.unmodifiableSet(EnumSet.of(JavaModifier.STATIC)),
+                Collections.unmodifiableSet(EnumSet.of(JavaModifier.TRANSITIVE)),
+                Collections.unmodifiableSet(EnumSet.of(JavaModifier.STATIC, JavaModifier.TRANSITIVE)));
+
+        // a bit per JavaModifier, by ordinal
+        private final byte modifiers;
 
         private final String name;
 
+        private final int hashCode;
+
         private JavaRequires(Set<JavaModifier> modifiers, String name) {
-            this.modifiers = modifiers;
+            int bits = 0;
+            for (JavaModifier modifier : modifiers) {
+                bits |= 1 << modifier.ordinal();
+            }
+            this.modifiers = (byte) bits;
             this.name = name;
+            this.hashCode = 31 * bits + Objects.hashCode(name);
         }
 
         private JavaRequires(String name) {
-            this.modifiers = Collections.emptySet();
-            this.name = name;
+            this(Collections.<JavaModifier>emptySet(), name);
         }
 
         public Set<JavaModifier> modifiers() {
-            return modifiers;
+            return MODIFIER_SETS.get(modifiers);
         }
 
         public String name() {
@@ -255,7 +381,7 @@ public class JavaModuleDescriptor {
 
         @Override
         public int hashCode() {
-            return Objects.hash(modifiers, name);
+            return hashCode;
         }
 
         @Override
@@ -271,7 +397,7 @@ public class JavaModuleDescriptor {
             }
 
             JavaRequires other = (JavaRequires) obj;
-            if (!Objects.equals(modifiers, other.modifiers)) {
+            if (modifiers != other.modifiers) {
                 return false;
             }
             if (!Objects.equals(name, other.name)) {
@@ -282,7 +408,7 @@ public class JavaModuleDescriptor {
 
         @Override
         public String toString() {
-            return "JavaRequires{" + "modifiers=" + modifiers + ", name='" + name + '\'' + '}';
+            return "JavaRequires{" + "modifiers=" + modifiers() + ", name='" + name + '\'' + '}';
         }
     }
 
@@ -297,14 +423,16 @@ public class JavaModuleDescriptor {
 
         private final Set<String> targets;
 
+        private final int hashCode;
+
         private JavaExports(String source) {
-            this.source = source;
-            this.targets = null;
+            this(source, null);
         }
 
         public JavaExports(String source, Set<String> targets) {
             this.source = source;
-            this.targets = targets;
+            this.targets = targets != null ? ArraySet.copyOf(targets) : null;
+            this.hashCode = Objects.hash(source, this.targets);
         }
 
         public String source() {
@@ -317,7 +445,7 @@ public class JavaModuleDescriptor {
 
         @Override
         public int hashCode() {
-            return Objects.hash(source, targets);
+            return hashCode;
         }
 
         @Override
@@ -359,9 +487,14 @@ public class JavaModuleDescriptor {
 
         private final List<String> providers;
 
+        private final int hashCode;
+
         private JavaProvides(String service, List<String> providers) {
             this.service = service;
-            this.providers = providers;
+            this.providers = providers.size() == 1
+                    ? Collections.singletonList(providers.get(0))
+                    : Collections.unmodifiableList(Arrays.asList(providers.toArray(new String[0])));
+            this.hashCode = Objects.hash(service, this.providers);
         }
 
         public String service() {
@@ -374,7 +507,7 @@ public class JavaModuleDescriptor {
 
         @Override
         public int hashCode() {
-            return Objects.hash(service, providers);
+            return hashCode;
         }
 
         @Override
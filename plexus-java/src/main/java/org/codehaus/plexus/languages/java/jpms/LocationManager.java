@@ -27,15 +27,29 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 import org.codehaus.plexus.languages.java.jpms.JavaModuleDescriptor.JavaProvides;
+import org.codehaus.plexus.languages.java.jpms.ResolvePathsState.ProbedElement;
+import org.codehaus.plexus.languages.java.jpms.ResolvePathsStatistics.Phase;
+import org.codehaus.plexus.languages.java.version.JavaVersion;
 
 /**
  * Maps artifacts to modules and analyzes the type of required modules
@@ -46,18 +60,44 @@ import org.codehaus.plexus.languages.java.jpms.JavaModuleDescriptor.JavaProvides
 @Named
 @Singleton
 public class LocationManager {
-    private SourceModuleInfoParser sourceParser;
+    // the parsers and extractors are created when first needed, most forks make a single call which needs few of them
+    private volatile SourceModuleInfoParser sourceParser;
 
-    private ManifestModuleNameExtractor manifestModuleNameExtractor;
+    private volatile ManifestModuleNameExtractor manifestModuleNameExtractor;
 
-    public LocationManager() {
-        this.sourceParser = new SourceModuleInfoParser();
-        this.manifestModuleNameExtractor = new ManifestModuleNameExtractor();
-    }
+    private volatile AutomaticModuleNameExtractor automaticModuleNameExtractor;
+
+    private final ResolvePathCache resolvePathCache =
+            new ResolvePathCache(ResolvePathCache.DEFAULT_MAX_ENTRIES, ResolvePathCache.DEFAULT_MAX_BYTES);
+
+    // shared by the descriptors of all calls, like the cache which keeps them
+    private final NamePool namePool = new NamePool();
+
+    public LocationManager() {}
 
     LocationManager(SourceModuleInfoParser sourceParser) {
         this.sourceParser = sourceParser;
-        this.manifestModuleNameExtractor = new ManifestModuleNameExtractor();
+    }
+
+    /**
+     * The resolved results of archives are kept in memory, so they are reused by subsequent calls as long as the
+     * size and last modified time of the archive didn't change. When one of the limits is exceeded, the least
+     * recently used entries are evicted.
+     *
+     * @param maxEntries the maximum number of archives to keep, {@code 0} disables the cache
+     * @param maxEstimatedBytes the maximum estimated size of all entries, {@code 0} disables the cache
+     * @since 1.6.1
+     */
+    public void setCacheLimits(int maxEntries, long maxEstimatedBytes) {
+        resolvePathCache.setLimits(maxEntries, maxEstimatedBytes);
+    }
+
+    /**
+     * @return the counters of the in-memory cache
+     * @since 1.6.1
+     */
+    public CacheStatistics getCacheStatistics() {
+        return resolvePathCache.getStatistics();
     }
 
     /**
@@ -68,7 +108,7 @@ public class LocationManager {
     public ResolvePathResult parseModuleDescriptor(Path descriptorPath) throws IOException {
         JavaModuleDescriptor moduleDescriptor;
         if (descriptorPath.endsWith("module-info.java")) {
-            moduleDescriptor = sourceParser.fromSourcePath(descriptorPath);
+            moduleDescriptor = getSourceParser().fromSourcePath(descriptorPath);
         } else {
             throw new IOException("Invalid path to module descriptor: " + descriptorPath);
         }
@@ -103,25 +143,62 @@ public class LocationManager {
      * @throws IOException if any occurs
      */
     public <T> ResolvePathResult resolvePath(final ResolvePathRequest<T> request) throws IOException {
+        final ModuleInfoParser binaryParser = getBinaryModuleInfoParser(request.getJdkHome());
+
         ModuleNameExtractor filenameExtractor = new ModuleNameExtractor() {
-            MainClassModuleNameExtractor extractor = new MainClassModuleNameExtractor(request.getJdkHome());
+            // created on first use, only needed for an archive without module descriptor and Automatic-Module-Name
+            private MainClassModuleNameExtractor forkedExtractor;
 
             @Override
             public String extract(Path file) throws IOException {
-                if (request.getJdkHome() != null) {
-                    return extractor
-                            .extract(Collections.singletonMap(file, file))
-                            .get(file);
+                if (request.getJdkHome() != null && request.isForkModuleNameExtractor()) {
+                    if (forkedExtractor == null) {
+                        forkedExtractor = new MainClassModuleNameExtractor(request.getJdkHome(), true);
+                    }
+                    return forkedExtractor.extract(Collections.singletonMap(file, file)).get(file);
                 } else {
-                    return CmdModuleNameExtractor.getModuleName(file);
+                    return extractFilenameModuleName(file, binaryParser);
                 }
             }
         };
 
-        return resolvePath(
-                request.toPath(request.getPathElement()),
-                filenameExtractor,
-                getBinaryModuleInfoParser(request.getJdkHome()));
+        Path path = request.toPath(request.getPathElement());
+
+        BasicFileAttributes attributes =
+                Files.isRegularFile(path) ? Files.readAttributes(path, BasicFileAttributes.class) : null;
+
+        Path forkJdkHome =
+                request.getJdkHome() != null && request.isForkModuleNameExtractor() ? request.getJdkHome() : null;
+
+        ResolvePathResult result = attributes != null ? getCachedResult(path, attributes, forkJdkHome, null) : null;
+
+        if (result == null) {
+            result = resolvePath(path, filenameExtractor, binaryParser, ParseDepth.FULL, null);
+
+            if (attributes != null) {
+                cacheResult(path, attributes, forkJdkHome, result, null);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Resolve many jars at once. Compared to calling {@link #resolvePath(ResolvePathRequest)} for every jar, the
+     * parsers are shared and, when the module names are extracted with the jdkHome, there's only one round trip for
+     * all of them. Only the path elements, jdkHome, cache directory and executor of the request are used.
+     *
+     * @param request the paths to resolve
+     * @param pathExceptions receives the reason per path element which couldn't be resolved, like
+     *            {@link ResolvePathsResult#getPathExceptions()}
+     * @return the result per path element in the order of the request, {@code null} if the path element couldn't be
+     *         resolved
+     * @throws IOException if a critical IOException occurs
+     * @since 1.6.1
+     */
+    public <T> Map<T, ResolvePathResult> resolvePathElements(
+            final ResolvePathsRequest<T> request, Map<T, Exception> pathExceptions) throws IOException {
+        return resolvePathElements(
+                request, getBinaryModuleInfoParser(request.getJdkHome()), pathExceptions, null, null, null);
     }
 
     /**
@@ -133,15 +210,249 @@ public class LocationManager {
      * @throws IOException if a critical IOException occurs
      */
     public <T> ResolvePathsResult<T> resolvePaths(final ResolvePathsRequest<T> request) throws IOException {
+        return resolvePathsReusing(request, null);
+    }
+
+    /**
+     * Resolves the paths again, reusing what didn't change since a previous resolution, for example when a project
+     * is compiled again. The result equals the one of {@link #resolvePaths(ResolvePathsRequest)}.
+     * <p>
+     * A path element is only probed again when it is new or when the file attributes it depends on changed: for an
+     * archive these are its own, for an output directory these are the ones of its {@code module-info.class} and
+     * {@code META-INF/MANIFEST.MF}. The modules are only selected again when the main module or additional modules
+     * changed, or when one of the selected modules, the availability of the modules they require or the providers
+     * of the services they use changed. The main module descriptor is always read again.
+     * </p>
+     * When the jdkHome, parse depth or the way module names are extracted differ from the previous request, every
+     * path element is probed again.
+     *
+     * @param request the paths to resolve
+     * @param previous the result of a previous resolution, {@code null} to resolve everything
+     * @return the result of the resolution
+     * @throws IOException if a critical IOException occurs
+     * @since 1.6.1
+     */
+    public <T> ResolvePathsResult<T> resolvePaths(
+            final ResolvePathsRequest<T> request, final ResolvePathsResult<T> previous) throws IOException {
+        return resolvePathsReusing(request, previous != null ? previous.getState() : null);
+    }
+
+    /**
+     * Resolves many requests at once, for example the projects of a reactor build. The results equal the ones of
+     * {@link #resolvePaths(ResolvePathsRequest)} per request, but a path element shared by several requests is only
+     * probed once: the path elements of all requests are deduplicated by their absolute path and probed in parallel,
+     * after which the modules are selected per request from the shared module descriptors.
+     * <p>
+     * Path elements are only shared between requests with the same jdkHome, parse depth and way of extracting module
+     * names. They are probed with the executor of the first request which has one, otherwise with the common pool,
+     * and with the cache directory of the first request which has one.
+     * </p>
+     * Every result can be passed as previous result to {@link #resolvePaths(ResolvePathsRequest, ResolvePathsResult)}.
+     *
+     * @param requests the requests to resolve
+     * @return the result per request, in the order of the requests
+     * @throws IOException if a critical IOException occurs
+     * @since 1.6.1
+     */
+    public <T> List<ResolvePathsResult<T>> resolvePaths(final Collection<? extends ResolvePathsRequest<T>> requests)
+            throws IOException {
+        Object event = ResolvePathsEvents.beginResolvePaths();
+
+        Executor executor = null;
+        Path cacheDirectory = null;
+
+        // key = probe settings, value = the path elements of all requests with these settings
+        Map<List<Object>, SharedPathElements> sharedPathElements = new LinkedHashMap<>();
+
+        for (ResolvePathsRequest<T> request : requests) {
+            if (executor == null) {
+                executor = request.getExecutor();
+            }
+            if (cacheDirectory == null) {
+                cacheDirectory = request.getCacheDirectory();
+            }
+
+            SharedPathElements shared =
+                    sharedPathElements.computeIfAbsent(getProbeSettings(request), k -> new SharedPathElements(request));
+
+            if (request.isCollectStatistics() && shared.statistics == null) {
+                shared.statistics = new ResolvePathsStatistics<>(shared.paths.values());
+            }
+
+            for (T t : request.getPathElements()) {
+                try {
+                    shared.add(request.toPath(t));
+                } catch (RuntimeException e) {
+                    // reported per request
+                }
+            }
+        }
+
+        for (SharedPathElements shared : sharedPathElements.values()) {
+            ResolvePathsRequest<Path> request = ResolvePathsRequest.ofPaths(shared.paths.values())
+                    .setJdkHome(shared.request.getJdkHome())
+                    .setForkModuleNameExtractor(shared.request.isForkModuleNameExtractor())
+                    .setParseDepth(getParseDepth(shared.request))
+                    .setCacheDirectory(cacheDirectory)
+                    .setExecutor(executor != null ? executor : ForkJoinPool.commonPool());
+
+            long start = ResolvePathsStatistics.start(shared.statistics);
+
+            shared.resolvedPaths = resolvePathElements(
+                    request,
+                    getBinaryModuleInfoParser(request.getJdkHome()),
+                    shared.pathExceptions,
+                    null,
+                    shared.probedElements,
+                    shared.statistics);
+
+            ResolvePathsStatistics.stop(shared.statistics, Phase.PATH_ELEMENTS, start);
+        }
+
+        List<ResolvePathsResult<T>> results = new ArrayList<>(requests.size());
+
+        for (ResolvePathsRequest<T> request : requests) {
+            final ResolvePathsResult<T> result = request.createResult();
+
+            final ResolvePathsStatistics<T> statistics =
+                    request.isCollectStatistics() ? new ResolvePathsStatistics<>(request.getPathElements()) : null;
+            result.setStatistics(statistics);
+
+            long start = ResolvePathsStatistics.start(statistics);
+
+            JavaModuleDescriptor mainModuleDescriptor =
+                    getMainModuleDescriptor(request, getBinaryModuleInfoParser(request.getJdkHome()));
+
+            ResolvePathsStatistics.stop(statistics, Phase.MAIN_MODULE_DESCRIPTOR, start);
+
+            List<Object> probeSettings = getProbeSettings(request);
+
+            SharedPathElements shared = sharedPathElements.get(probeSettings);
+
+            if (statistics != null) {
+                // the path elements were probed once for all requests
+                statistics.addProbing(shared.statistics);
+            }
+
+            Map<T, ResolvePathResult> resolvedPaths = new LinkedHashMap<>(request.getPathElements().size());
+
+            Map<T, ProbedElement> probedElements = new HashMap<>(request.getPathElements().size() * 4 / 3 + 1);
+
+            for (T t : request.getPathElements()) {
+                Path path;
+                try {
+                    path = shared.get(request.toPath(t));
+                } catch (RuntimeException e) {
+                    result.getPathExceptions().put(t, e);
+                    resolvedPaths.put(t, null);
+                    continue;
+                }
+
+                resolvedPaths.put(t, shared.resolvedPaths.get(path));
+
+                if (statistics != null) {
+                    statistics.addPathElement(t, shared.statistics.getPathElementNanos(path));
+                }
+
+                Exception exception = shared.pathExceptions.get(path);
+                if (exception != null) {
+                    result.getPathExceptions().put(t, exception);
+                }
+
+                ProbedElement probedElement = shared.probedElements.get(path);
+                if (probedElement != null) {
+                    probedElements.put(t, probedElement);
+                }
+            }
+
+            start = ResolvePathsStatistics.start(statistics);
+
+            selectModules(request, result, mainModuleDescriptor, resolvedPaths, probeSettings, probedElements, null);
+
+            ResolvePathsStatistics.stop(statistics, Phase.SELECTION, start);
+
+            results.add(result);
+        }
+
+        if (event != null) {
+            int pathElements = 0;
+            int modulepathElements = 0;
+            int classpathElements = 0;
+            for (ResolvePathsResult<T> result : results) {
+                pathElements += result.getPathElements().size();
+                modulepathElements += result.getModulepathElements().size();
+                classpathElements += result.getClasspathElements().size();
+            }
+            ResolvePathsEvents.commitResolvePaths(
+                    event, results.size(), pathElements, modulepathElements, classpathElements);
+        }
+        return results;
+    }
+
+    private <T> ResolvePathsResult<T> resolvePathsReusing(
+            final ResolvePathsRequest<T> request, final ResolvePathsState<T> previous) throws IOException {
+        Object event = ResolvePathsEvents.beginResolvePaths();
+
         final ResolvePathsResult<T> result = request.createResult();
 
-        Map<T, JavaModuleDescriptor> pathElements =
-                new LinkedHashMap<>(request.getPathElements().size());
+        final ResolvePathsStatistics<T> statistics =
+                request.isCollectStatistics() ? new ResolvePathsStatistics<>(request.getPathElements()) : null;
+        result.setStatistics(statistics);
 
         final ModuleInfoParser binaryParser = getBinaryModuleInfoParser(request.getJdkHome());
 
+        long start = ResolvePathsStatistics.start(statistics);
+
         JavaModuleDescriptor mainModuleDescriptor = getMainModuleDescriptor(request, binaryParser);
 
+        ResolvePathsStatistics.stop(statistics, Phase.MAIN_MODULE_DESCRIPTOR, start);
+
+        List<Object> probeSettings = getProbeSettings(request);
+
+        Map<T, ProbedElement> probedElements = new HashMap<>(request.getPathElements().size() * 4 / 3 + 1);
+
+        start = ResolvePathsStatistics.start(statistics);
+
+        Map<T, ResolvePathResult> resolvedPaths = resolvePathElements(
+                request,
+                binaryParser,
+                result.getPathExceptions(),
+                previous != null ? previous.getElements(probeSettings) : null,
+                probedElements,
+                statistics);
+
+        ResolvePathsStatistics.stop(statistics, Phase.PATH_ELEMENTS, start);
+
+        start = ResolvePathsStatistics.start(statistics);
+
+        selectModules(request, result, mainModuleDescriptor, resolvedPaths, probeSettings, probedElements, previous);
+
+        ResolvePathsStatistics.stop(statistics, Phase.SELECTION, start);
+
+        ResolvePathsEvents.commitResolvePaths(
+                event,
+                1,
+                result.getPathElements().size(),
+                result.getModulepathElements().size(),
+                result.getClasspathElements().size());
+
+        return result;
+    }
+
+    /**
+     * Collects the modules of the resolved path elements and decides which of them belong to the modulepath. The
+     * selection of {@code previous} is reused when nothing it depends on changed.
+     */
+    private <T> void selectModules(
+            final ResolvePathsRequest<T> request,
+            final ResolvePathsResult<T> result,
+            JavaModuleDescriptor mainModuleDescriptor,
+            Map<T, ResolvePathResult> resolvedPaths,
+            List<Object> probeSettings,
+            Map<T, ProbedElement> probedElements,
+            ResolvePathsState<T> previous) {
+        Map<T, JavaModuleDescriptor> pathElements = new LinkedHashMap<>(resolvedPaths.size());
+
         result.setMainModuleDescriptor(mainModuleDescriptor);
 
         // key = service, value = names of modules that provide this service
@@ -155,34 +466,15 @@ public class LocationManager {
 
         Map<String, ModuleNameSource> moduleNameSources = new HashMap<>();
 
-        final Map<T, Path> filenameAutoModules = new HashMap<>();
-
         // collect all modules from path
-        for (final T t : request.getPathElements()) {
-            JavaModuleDescriptor moduleDescriptor;
-            ModuleNameSource source;
+        for (Map.Entry<T, ResolvePathResult> resolvedPath : resolvedPaths.entrySet()) {
+            JavaModuleDescriptor moduleDescriptor = null;
+            ModuleNameSource source = null;
 
-            ModuleNameExtractor nameExtractor = path -> {
-                if (request.getJdkHome() != null) {
-                    filenameAutoModules.put(t, path);
-                } else {
-                    return CmdModuleNameExtractor.getModuleName(path);
-                }
-                return null;
-            };
-
-            try {
-                ResolvePathResult resolvedPath = resolvePath(request.toPath(t), nameExtractor, binaryParser);
+            if (resolvedPath.getValue() != null) {
+                moduleDescriptor = resolvedPath.getValue().getModuleDescriptor();
 
-                moduleDescriptor = resolvedPath.getModuleDescriptor();
-
-                source = resolvedPath.getModuleNameSource();
-            } catch (Exception e) {
-                result.getPathExceptions().put(t, e);
-
-                pathElements.put(t, null);
-
-                continue;
+                source = resolvedPath.getValue().getModuleNameSource();
             }
 
             // in case of identical module names, first one wins
@@ -194,62 +486,49 @@ public class LocationManager {
                 }
             }
 
-            pathElements.put(t, moduleDescriptor);
+            if (source != null && result.getStatistics() != null) {
+                result.getStatistics().countModuleNameSource(source);
+            }
+
+            pathElements.put(resolvedPath.getKey(), moduleDescriptor);
         }
         result.setPathElements(pathElements);
 
-        if (!filenameAutoModules.isEmpty()) {
-            MainClassModuleNameExtractor extractor = new MainClassModuleNameExtractor(request.getJdkHome());
+        ModuleSelector selector = previous != null
+                ? previous.getSelector(
+                        mainModuleDescriptor,
+                        request.getAdditionalModules(),
+                        request.isIncludeStatic(),
+                        availableNamedModules,
+                        availableProviders)
+                : null;
 
-            Map<T, String> automodules = extractor.extract(filenameAutoModules);
+        if (selector == null) {
+            selector = new ModuleSelector(availableNamedModules, availableProviders, request.isIncludeStatic());
 
-            for (Map.Entry<T, String> entry : automodules.entrySet()) {
-                String moduleName = entry.getValue();
-
-                if (moduleName != null) {
-                    JavaModuleDescriptor moduleDescriptor =
-                            JavaModuleDescriptor.newAutomaticModule(moduleName).build();
-
-                    moduleNameSources.put(moduleDescriptor.name(), ModuleNameSource.FILENAME);
-
-                    availableNamedModules.put(moduleDescriptor.name(), moduleDescriptor);
-
-                    pathElements.put(entry.getKey(), moduleDescriptor);
-                }
+            if (mainModuleDescriptor != null) {
+                selector.selectMainModule(mainModuleDescriptor);
             }
-        }
 
-        Set<String> requiredNamedModules = new HashSet<>();
-
-        if (mainModuleDescriptor != null) {
-            requiredNamedModules.add(mainModuleDescriptor.name());
-
-            selectRequires(
-                    mainModuleDescriptor,
-                    Collections.unmodifiableMap(availableNamedModules),
-                    Collections.unmodifiableMap(availableProviders),
-                    requiredNamedModules,
-                    true,
-                    true,
-                    request.isIncludeStatic());
+            for (String additionalModule : request.getAdditionalModules()) {
+                selector.selectModule(additionalModule);
+            }
         }
 
-        for (String additionalModule : request.getAdditionalModules()) {
-            selectModule(
-                    additionalModule,
-                    Collections.unmodifiableMap(availableNamedModules),
-                    Collections.unmodifiableMap(availableProviders),
-                    requiredNamedModules,
-                    true,
-                    true,
-                    request.isIncludeStatic());
-        }
+        result.setState(new ResolvePathsState<>(
+                probeSettings,
+                probedElements,
+                mainModuleDescriptor,
+                request.getAdditionalModules(),
+                request.isIncludeStatic(),
+                availableNamedModules,
+                availableProviders,
+                selector));
 
-        Set<String> collectedModules = new HashSet<>(requiredNamedModules.size());
+        Set<String> collectedModules = new HashSet<>(selector.selectedCount());
 
         for (Entry<T, JavaModuleDescriptor> entry : pathElements.entrySet()) {
-            if (entry.getValue() != null
-                    && requiredNamedModules.contains(entry.getValue().name())) {
+            if (entry.getValue() != null && selector.isSelected(entry.getValue().name())) {
                 // Consider strategies how to handle duplicate modules by name
                 // For now only add first on modulePath, just ignore others,
                 //   This has effectively the same result as putting it on the modulePath, but might better help
@@ -270,25 +549,46 @@ public class LocationManager {
                 result.getClasspathElements().add(entry.getKey());
             }
         }
-
-        return result;
     }
 
     /**
-     * If the jdkHome is specified, its version it considered higher than the runtime java version.
-     * In that case ASM must be used to read the module descriptor
+     * The module descriptors are read by a parser which only decodes the Module attribute and doesn't depend on the
+     * runtime java version, so it is used whether the jdkHome is specified or not. The names of the descriptors are
+     * shared with the ones of previous calls.
      *
      * @param jdkHome
      * @return
      */
     ModuleInfoParser getBinaryModuleInfoParser(final Path jdkHome) {
-        final ModuleInfoParser binaryParser;
-        if (jdkHome == null) {
-            binaryParser = new BinaryModuleInfoParser();
-        } else {
-            binaryParser = new AsmModuleInfoParser();
+        return new ClassFileModuleInfoParser(namePool);
+    }
+
+    private SourceModuleInfoParser getSourceParser() {
+        SourceModuleInfoParser parser = sourceParser;
+        if (parser == null) {
+            // stateless, so it doesn't matter if concurrent calls create more than one
+            parser = new SourceModuleInfoParser();
+            sourceParser = parser;
         }
-        return binaryParser;
+        return parser;
+    }
+
+    private ManifestModuleNameExtractor getManifestModuleNameExtractor() {
+        ManifestModuleNameExtractor extractor = manifestModuleNameExtractor;
+        if (extractor == null) {
+            extractor = new ManifestModuleNameExtractor();
+            manifestModuleNameExtractor = extractor;
+        }
+        return extractor;
+    }
+
+    private AutomaticModuleNameExtractor getAutomaticModuleNameExtractor() {
+        AutomaticModuleNameExtractor extractor = automaticModuleNameExtractor;
+        if (extractor == null) {
+            extractor = new AutomaticModuleNameExtractor();
+            automaticModuleNameExtractor = extractor;
+        }
+        return extractor;
     }
 
     private <T> JavaModuleDescriptor getMainModuleDescriptor(
@@ -299,7 +599,7 @@ public class LocationManager {
 
         if (descriptorPath != null) {
             if (descriptorPath.endsWith("module-info.java")) {
-                mainModuleDescriptor = sourceParser.fromSourcePath(descriptorPath);
+                mainModuleDescriptor = getSourceParser().fromSourcePath(descriptorPath);
             } else if (descriptorPath.endsWith("module-info.class")) {
                 mainModuleDescriptor = binaryParser.getModuleDescriptor(descriptorPath.getParent());
             } else {
@@ -311,8 +611,320 @@ public class LocationManager {
         return mainModuleDescriptor;
     }
 
+    /**
+     * Resolves every path element, in the order of the path. If a path element couldn't be resolved, its value is
+     * {@code null} and the reason is added to {@code pathExceptions}. When {@code probedElements} is specified, the
+     * outcome of every path element is added to it, path elements which didn't change since
+     * {@code previousElements} aren't probed again. When {@code statistics} is specified, the time spent is added
+     * to it.
+     */
+    private <T> Map<T, ResolvePathResult> resolvePathElements(
+            final ResolvePathsRequest<T> request,
+            final ModuleInfoParser binaryParser,
+            Map<T, Exception> pathExceptions,
+            final Map<T, ProbedElement> previousElements,
+            Map<T, ProbedElement> probedElements,
+            final ResolvePathsStatistics<T> statistics)
+            throws IOException {
+        final Map<T, Path> filenameAutoModules = new ConcurrentHashMap<>();
+
+        final Map<T, PathFingerprint> fingerprints = probedElements != null ? new ConcurrentHashMap<>() : null;
+
+        final PersistentResolvePathCache persistentCache = request.getCacheDirectory() != null
+                ? new PersistentResolvePathCache(request.getCacheDirectory(), namePool)
+                : null;
+
+        // attributes of the archives of which the module name still has to be extracted from the filename,
+        // these can only be cached once that's done
+        final Map<T, BasicFileAttributes> filenameAutoModuleAttributes = new ConcurrentHashMap<>();
+
+        // with an executor all elements are probed upfront, the results are still collected in the order of the path
+        Iterator<CompletableFuture<ResolvePathResult>> probes = null;
+
+        if (request.getExecutor() != null) {
+            List<CompletableFuture<ResolvePathResult>> futures =
+                    new ArrayList<>(request.getPathElements().size());
+
+            for (final T t : request.getPathElements()) {
+                futures.add(CompletableFuture.supplyAsync(
+                        () -> {
+                            try {
+                                return probePathElement(
+                                        request,
+                                        t,
+                                        binaryParser,
+                                        persistentCache,
+                                        filenameAutoModules,
+                                        filenameAutoModuleAttributes,
+                                        previousElements != null ? previousElements.get(t) : null,
+                                        fingerprints,
+                                        statistics);
+                            } catch (IOException e) {
+                                throw new CompletionException(e);
+                            }
+                        },
+                        request.getExecutor()));
+            }
+            probes = futures.iterator();
+        }
+
+        Map<T, ResolvePathResult> resolvedPaths = new LinkedHashMap<>(request.getPathElements().size());
+
+        for (final T t : request.getPathElements()) {
+            ResolvePathResult resolvedPath;
+            try {
+                if (probes != null) {
+                    resolvedPath = join(probes.next());
+                } else {
+                    resolvedPath = probePathElement(
+                            request,
+                            t,
+                            binaryParser,
+                            persistentCache,
+                            filenameAutoModules,
+                            filenameAutoModuleAttributes,
+                            previousElements != null ? previousElements.get(t) : null,
+                            fingerprints,
+                            statistics);
+                }
+            } catch (Exception e) {
+                pathExceptions.put(t, e);
+
+                resolvedPath = null;
+            }
+
+            resolvedPaths.put(t, resolvedPath);
+        }
+
+        if (!filenameAutoModules.isEmpty()) {
+            MainClassModuleNameExtractor extractor = new MainClassModuleNameExtractor(request.getJdkHome(), true);
+
+            long start = ResolvePathsStatistics.start(statistics);
+
+            Map<T, String> automodules = extractor.extract(filenameAutoModules);
+
+            ResolvePathsStatistics.stop(statistics, Phase.FORKED_EXTRACTOR, start);
+
+            for (Map.Entry<T, String> entry : automodules.entrySet()) {
+                String moduleName = entry.getValue();
+
+                ResolvePathResult resolvedPath = new ResolvePathResult();
+
+                if (moduleName != null) {
+                    JavaModuleDescriptor moduleDescriptor =
+                            JavaModuleDescriptor.newAutomaticModule(moduleName).build();
+
+                    resolvedPath.setModuleDescriptor(moduleDescriptor).setModuleNameSource(ModuleNameSource.FILENAME);
+                }
+
+                resolvedPaths.put(entry.getKey(), resolvedPath);
+
+                BasicFileAttributes attributes = filenameAutoModuleAttributes.get(entry.getKey());
+                if (attributes != null) {
+                    cacheResult(
+                            filenameAutoModules.get(entry.getKey()),
+                            attributes,
+                            getForkJdkHome(request),
+                            resolvedPath,
+                            persistentCache);
+                }
+            }
+        }
+
+        if (probedElements != null) {
+            for (Map.Entry<T, PathFingerprint> fingerprint : fingerprints.entrySet()) {
+                T t = fingerprint.getKey();
+                probedElements.put(
+                        t, new ProbedElement(fingerprint.getValue(), resolvedPaths.get(t), pathExceptions.get(t)));
+            }
+        }
+
+        return resolvedPaths;
+    }
+
+    /**
+     * Resolves a single element of the path, using the cache when possible. When the module name must be extracted
+     * from the filename with the jdkHome, the element is registered in {@code filenameAutoModules} instead.
+     * When {@code fingerprints} is specified, the fingerprint of the element is added to it and the previous outcome
+     * is reused if the fingerprint didn't change. When {@code statistics} is specified, the time spent is added to it.
+     * May be called concurrently.
+     */
+    private <T> ResolvePathResult probePathElement(
+            final ResolvePathsRequest<T> request,
+            final T t,
+            ModuleInfoParser binaryParser,
+            PersistentResolvePathCache persistentCache,
+            final Map<T, Path> filenameAutoModules,
+            Map<T, BasicFileAttributes> filenameAutoModuleAttributes,
+            ProbedElement previous,
+            Map<T, PathFingerprint> fingerprints,
+            ResolvePathsStatistics<T> statistics)
+            throws IOException {
+        long start = ResolvePathsStatistics.start(statistics);
+        try {
+            ModuleNameExtractor nameExtractor = path -> {
+                if (isForkModuleNameExtractor(request)) {
+                    filenameAutoModules.put(t, path);
+                } else {
+                    return extractFilenameModuleName(path, binaryParser);
+                }
+                return null;
+            };
+
+            Path path = request.toPath(t);
+
+            BasicFileAttributes attributes =
+                    Files.isRegularFile(path) ? Files.readAttributes(path, BasicFileAttributes.class) : null;
+
+            // a forked extractor looks for modules inside a directory without module descriptor,
+            // so it can't be trusted
+            if (fingerprints != null && (attributes != null || !isForkModuleNameExtractor(request))) {
+                PathFingerprint fingerprint = PathFingerprint.of(path, attributes);
+
+                fingerprints.put(t, fingerprint);
+
+                if (previous != null && previous.matches(fingerprint)) {
+                    return previous.getResult();
+                }
+            }
+
+            Object event = ResolvePathsEvents.beginProbe();
+
+            ResolvePathResult resolvedPath = null;
+            boolean cached = false;
+            boolean failed = true;
+            try {
+                if (attributes != null) {
+                    resolvedPath = getCachedResult(path, attributes, getForkJdkHome(request), persistentCache);
+                }
+
+                cached = resolvedPath != null;
+
+                if (resolvedPath == null) {
+                    resolvedPath = resolvePath(path, nameExtractor, binaryParser, getParseDepth(request), statistics);
+
+                    if (attributes != null) {
+                        if (filenameAutoModules.containsKey(t)) {
+                            filenameAutoModuleAttributes.put(t, attributes);
+                        } else {
+                            cacheResult(path, attributes, getForkJdkHome(request), resolvedPath, persistentCache);
+                        }
+                    }
+                }
+
+                failed = false;
+                return resolvedPath;
+            } finally {
+                // also when probing failed, so a recording shows the path elements it failed on
+                ResolvePathsEvents.commitProbe(
+                        event,
+                        path,
+                        resolvedPath != null ? resolvedPath.getModuleNameSource() : null,
+                        attributes != null ? attributes.size() : 0L,
+                        cached,
+                        failed);
+            }
+        } finally {
+            if (statistics != null) {
+                statistics.addPathElement(t, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private static boolean isForkModuleNameExtractor(ResolvePathsRequest<?> request) {
+        return request.getJdkHome() != null && request.isForkModuleNameExtractor();
+    }
+
+    /**
+     * @return the jdkHome of the forked JVM which extracts the module names, {@code null} when they are extracted
+     *         in-process
+     */
+    private static Path getForkJdkHome(ResolvePathsRequest<?> request) {
+        return isForkModuleNameExtractor(request) ? request.getJdkHome() : null;
+    }
+
+    /**
+     * Everything which influences the result of probing a path element, except the path element itself.
+     */
+    private static List<Object> getProbeSettings(ResolvePathsRequest<?> request) {
+        return Arrays.asList(request.getJdkHome(), isForkModuleNameExtractor(request), getParseDepth(request));
+    }
+
+    /**
+     * The services are required to select the providers, so these are read regardless of the requested depth.
+     */
+    private static ParseDepth getParseDepth(ResolvePathsRequest<?> request) {
+        if (request.isIncludeAllProviders() && request.getParseDepth() == ParseDepth.REQUIRES) {
+            return ParseDepth.REQUIRES_AND_SERVICES;
+        }
+        return request.getParseDepth();
+    }
+
+    /**
+     * Derives the automatic module name in-process, preferably from what the binary parser already read of the jar.
+     *
+     * @throws IllegalArgumentException if the jar can't be used as automatic module
+     */
+    private String extractFilenameModuleName(Path path, ModuleInfoParser binaryParser) throws IOException {
+        JarProbe probe = binaryParser.getProbe(path);
+        if (probe != null) {
+            return probe.getFilenameModuleName();
+        } else {
+            return getAutomaticModuleNameExtractor().getModuleName(path);
+        }
+    }
+
+    private static ResolvePathResult join(CompletableFuture<ResolvePathResult> probe) throws Exception {
+        try {
+            return probe.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @param forkJdkHome the jdkHome of the forked JVM which extracts the module names, {@code null} when they are
+     *            extracted in-process, a result derived from the filename in another way isn't returned
+     */
+    private ResolvePathResult getCachedResult(
+            Path path, BasicFileAttributes attributes, Path forkJdkHome, PersistentResolvePathCache persistentCache) {
+        ResolvePathResult result = resolvePathCache.get(path, attributes, forkJdkHome);
+
+        if (result == null && persistentCache != null) {
+            result = persistentCache.get(path, attributes, forkJdkHome);
+
+            if (result != null) {
+                resolvePathCache.put(path, attributes, forkJdkHome, result);
+            }
+        }
+        return result;
+    }
+
+    private void cacheResult(
+            Path path,
+            BasicFileAttributes attributes,
+            Path forkJdkHome,
+            ResolvePathResult result,
+            PersistentResolvePathCache persistentCache) {
+        resolvePathCache.put(path, attributes, forkJdkHome, result);
+
+        if (persistentCache != null) {
+            persistentCache.put(path, attributes, forkJdkHome, result);
+        }
+    }
+
     private ResolvePathResult resolvePath(
-            Path path, ModuleNameExtractor fileModulenameExtractor, ModuleInfoParser binaryParser) throws IOException {
+            Path path,
+            ModuleNameExtractor fileModulenameExtractor,
+            ModuleInfoParser binaryParser,
+            ParseDepth depth,
+            ResolvePathsStatistics<?> statistics)
+            throws IOException {
         ResolvePathResult result = new ResolvePathResult();
 
         JavaModuleDescriptor moduleDescriptor = null;
@@ -324,19 +936,40 @@ public class LocationManager {
         }
 
         if (Files.isRegularFile(path) || Files.exists(path.resolve("module-info.class"))) {
-            moduleDescriptor = binaryParser.getModuleDescriptor(path);
+            long start = ResolvePathsStatistics.start(statistics);
+
+            if (depth == ParseDepth.FULL) {
+                moduleDescriptor = binaryParser.getModuleDescriptor(path);
+            } else {
+                moduleDescriptor =
+                        binaryParser.getModuleDescriptor(path, JavaVersion.JAVA_SPECIFICATION_VERSION, depth);
+            }
+
+            ResolvePathsStatistics.stop(statistics, Phase.MODULE_DESCRIPTOR, start);
         }
 
         if (moduleDescriptor != null) {
             result.setModuleNameSource(ModuleNameSource.MODULEDESCRIPTOR);
         } else {
-            String moduleName = manifestModuleNameExtractor.extract(path);
+            long start = ResolvePathsStatistics.start(statistics);
+
+            // the binary parser might already have read the manifest while looking for the module descriptor
+            JarProbe probe = binaryParser.getProbe(path);
+
+            String moduleName =
+                    probe != null ? probe.getAutomaticModuleName() : getManifestModuleNameExtractor().extract(path);
+
+            ResolvePathsStatistics.stop(statistics, Phase.MANIFEST, start);
 
             if (moduleName != null) {
                 result.setModuleNameSource(ModuleNameSource.MANIFEST);
             } else {
+                start = ResolvePathsStatistics.start(statistics);
+
                 moduleName = fileModulenameExtractor.extract(path);
 
+                ResolvePathsStatistics.stop(statistics, Phase.FILENAME, start);
+
                 if (moduleName != null) {
                     result.setModuleNameSource(ModuleNameSource.FILENAME);
                 }
@@ -352,74 +985,6 @@ public class LocationManager {
         return result;
     }
 
-    private void selectRequires(
-            JavaModuleDescriptor module,
-            Map<String, JavaModuleDescriptor> availableModules,
-            Map<String, Set<String>> availableProviders,
-            Set<String> namedModules,
-            boolean isRootModule,
-            boolean includeAsTransitive,
-            boolean includeStatic) {
-        for (JavaModuleDescriptor.JavaRequires requires : module.requires()) {
-            // includeTransitive is one level deeper compared to includeStatic
-            if (isRootModule
-                    || includeStatic
-                    || includeAsTransitive
-                    || !requires.modifiers().contains(JavaModuleDescriptor.JavaRequires.JavaModifier.STATIC)
-                    || requires.modifiers().contains(JavaModuleDescriptor.JavaRequires.JavaModifier.TRANSITIVE)) {
-                selectModule(
-                        requires.name(),
-                        availableModules,
-                        availableProviders,
-                        namedModules,
-                        false,
-                        includeStatic,
-                        includeStatic);
-            }
-        }
-
-        for (String uses : module.uses()) {
-            if (availableProviders.containsKey(uses)) {
-                for (String providerModule : availableProviders.get(uses)) {
-                    JavaModuleDescriptor requiredModule = availableModules.get(providerModule);
-
-                    if (requiredModule != null && namedModules.add(providerModule)) {
-                        selectRequires(
-                                requiredModule,
-                                availableModules,
-                                availableProviders,
-                                namedModules,
-                                false,
-                                includeAsTransitive,
-                                includeStatic);
-                    }
-                }
-            }
-        }
-    }
-
-    private void selectModule(
-            String module,
-            Map<String, JavaModuleDescriptor> availableModules,
-            Map<String, Set<String>> availableProviders,
-            Set<String> namedModules,
-            boolean isRootModule,
-            boolean includeTransitive,
-            boolean includeStatic) {
-        JavaModuleDescriptor requiredModule = availableModules.get(module);
-
-        if (requiredModule != null && namedModules.add(module)) {
-            selectRequires(
-                    requiredModule,
-                    availableModules,
-                    availableProviders,
-                    namedModules,
-                    false,
-                    includeTransitive,
-                    includeStatic);
-        }
-    }
-
     private void collectProviders(JavaModuleDescriptor moduleDescriptor, Map<String, Set<String>> availableProviders) {
         for (JavaProvides provides : moduleDescriptor.provides()) {
             // module-info.class uses FQN, i.e. $-separator for subclasses
@@ -430,4 +995,36 @@ public class LocationManager {
             providingModules.add(moduleDescriptor.name());
         }
     }
+
+    /**
+     * The unique path elements of all requests with the same probe settings.
+     */
+    private static final class SharedPathElements {
+        private final ResolvePathsRequest<?> request;
+
+        // key = absolute path, value = the path element as it is probed
+        // not normalized, x/../y only exists if x does
+        private final Map<Path, Path> paths = new LinkedHashMap<>();
+
+        private final Map<Path, Exception> pathExceptions = new HashMap<>();
+
+        private final Map<Path, ProbedElement> probedElements = new HashMap<>();
+
+        private Map<Path, ResolvePathResult> resolvedPaths;
+
+        // only collected if any of the requests asks for it
+        private ResolvePathsStatistics<Path> statistics;
+
+        SharedPathElements(ResolvePathsRequest<?> request) {
+            this.request = request;
+        }
+
+        void add(Path path) {
+            paths.putIfAbsent(path.toAbsolutePath(), path);
+        }
+
+        Path get(Path path) {
+            return paths.get(path.toAbsolutePath());
+        }
+    }
 }
@@ -42,25 +42,40 @@ import java.util.Properties;
 public class MainClassModuleNameExtractor {
     private final Path jdkHome;
 
+    private final boolean keepAlive;
+
     public MainClassModuleNameExtractor(Path jdkHome) {
+        this(jdkHome, false);
+    }
+
+    /**
+     * @param jdkHome the JDK to extract the module names with
+     * @param keepAlive {@code true} to keep one JVM per jdkHome running for subsequent calls, which is stopped after
+     *            it has been idle for a while
+     * @since 1.6.1
+     */
+    public MainClassModuleNameExtractor(Path jdkHome, boolean keepAlive) {
         this.jdkHome = jdkHome;
+        this.keepAlive = keepAlive;
     }
 
     public <T> Map<T, String> extract(Map<T, Path> files) throws IOException {
-        Path workDir = Files.createTempDirectory("plexus-java_jpms-");
-
-        String classResourcePath = CmdModuleNameExtractor.class.getName().replace('.', '/') + ".class";
-
-        try (InputStream is =
-                MainClassModuleNameExtractor.class.getResourceAsStream("/META-INF/versions/9/" + classResourcePath)) {
-            if (is == null) {
-                return Collections.emptyMap();
-            }
-            Path target = workDir.resolve(classResourcePath);
+        Object event = ResolvePathsEvents.beginForkedExtractor();
+        try {
+            return doExtract(files);
+        } finally {
+            ResolvePathsEvents.commitForkedExtractor(event, jdkHome, files.size(), keepAlive);
+        }
+    }
 
-            Files.createDirectories(target.getParent());
+    private <T> Map<T, String> doExtract(Map<T, Path> files) throws IOException {
+        if (keepAlive) {
+            return ModuleNameExtractorWorker.of(jdkHome).extract(files);
+        }
 
-            Files.copy(is, target);
+        Path workDir = createWorkDir();
+        if (workDir == null) {
+            return Collections.emptyMap();
         }
 
         try (BufferedWriter argsWriter = Files.newBufferedWriter(workDir.resolve("args"), Charset.defaultCharset())) {
@@ -101,6 +116,36 @@ public class MainClassModuleNameExtractor {
                     output.getProperty(entry.getValue().toAbsolutePath().toString(), null));
         }
 
+        deleteWorkDir(workDir);
+
+        return moduleNames;
+    }
+
+    /**
+     * @return a new temporary directory containing the Java 9 {@code CmdModuleNameExtractor}, or {@code null} if
+     *         this is not the multirelease jar
+     */
+    static Path createWorkDir() throws IOException {
+        Path workDir = Files.createTempDirectory("plexus-java_jpms-");
+
+        String classResourcePath = CmdModuleNameExtractor.class.getName().replace('.', '/') + ".class";
+
+        try (InputStream is =
+                MainClassModuleNameExtractor.class.getResourceAsStream("/META-INF/versions/9/" + classResourcePath)) {
+            if (is == null) {
+                deleteWorkDir(workDir);
+                return null;
+            }
+            Path target = workDir.resolve(classResourcePath);
+
+            Files.createDirectories(target.getParent());
+
+            Files.copy(is, target);
+        }
+        return workDir;
+    }
+
+    static void deleteWorkDir(Path workDir) {
         try {
             Files.walkFileTree(workDir, new SimpleFileVisitor<Path>() {
                 @Override
@@ -118,7 +163,5 @@ public class MainClassModuleNameExtractor {
         } catch (IOException e) {
             // noop, we did our best to clean it up
         }
-
-        return moduleNames;
     }
 }
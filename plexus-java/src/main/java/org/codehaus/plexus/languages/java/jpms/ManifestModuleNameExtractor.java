@@ -50,7 +50,7 @@ class ManifestModuleNameExtractor implements ModuleNameExtractor {
     private Manifest extractManifest(Path file) throws IOException {
         Manifest manifest;
         if (Files.isRegularFile(file)) {
-            try (JarFile jarFile = new JarFile(file.toFile())) {
+            try (JarFile jarFile = new JarFile(file.toFile(), false)) {
                 manifest = jarFile.getManifest();
             }
         } else if (Files.exists(file.resolve("META-INF/MANIFEST.MF"))) {
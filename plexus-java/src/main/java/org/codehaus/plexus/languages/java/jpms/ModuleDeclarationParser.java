@@ -0,0 +1,299 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.codehaus.plexus.languages.java.jpms.JavaModuleDescriptor.JavaRequires.JavaModifier;
+
+/**
+ * Reads the module declaration of a module-info.java with a small tokenizer, instead of loading a complete Java parser
+ * to read a handful of directives. Comments, imports, annotations and all module directives are supported. Whatever
+ * it doesn't understand, like unicode escapes, is left to the {@link SourceModuleInfoParser}.
+ *
+ * @since 1.6.1
+ */
+final class ModuleDeclarationParser {
+    private final String source;
+
+    private int position;
+
+    // the token after the current one, read ahead to recognize the requires modifiers
+    private String peeked;
+
+    private ModuleDeclarationParser(String source) {
+        this.source = source;
+    }
+
+    /**
+     * @param source the content of the module-info.java
+     * @return the module descriptor, or {@code null} if the source is not supported by this parser
+     */
+    static JavaModuleDescriptor parse(String source) {
+        if (source.indexOf("\\u") >= 0) {
+            // unicode escapes can appear anywhere, even in keywords
+            return null;
+        }
+        try {
+            return new ModuleDeclarationParser(source).readCompilationUnit();
+        } catch (UnsupportedSourceException e) {
+            return null;
+        }
+    }
+
+    private JavaModuleDescriptor readCompilationUnit() throws UnsupportedSourceException {
+        String token = next();
+        while ("import".equals(token)) {
+            do {
+                token = next();
+            } while (token != null && !";".equals(token));
+            token = next();
+        }
+
+        while ("@".equals(token)) {
+            skipAnnotation();
+            token = next();
+        }
+
+        if ("open".equals(token)) {
+            token = next();
+        }
+        expect("module", token);
+
+        JavaModuleDescriptor.Builder builder = JavaModuleDescriptor.newModule(readName(next()));
+
+        expect("{", next());
+
+        for (token = next(); !"}".equals(token); token = next()) {
+            if ("requires".equals(token)) {
+                readRequires(builder);
+            } else if ("exports".equals(token)) {
+                String exported = readName(next());
+                Set<String> targets = readTargets();
+                if (targets == null) {
+                    builder.exports(exported);
+                } else {
+                    builder.exports(exported, targets);
+                }
+            } else if ("opens".equals(token)) {
+                // not part of the JavaModuleDescriptor
+                readName(next());
+                readTargets();
+            } else if ("uses".equals(token)) {
+                builder.uses(readName(next()));
+                expect(";", next());
+            } else if ("provides".equals(token)) {
+                String service = readName(next());
+                expect("with", next());
+                List<String> providers = new ArrayList<>();
+                do {
+                    providers.add(readName(next()));
+                    token = next();
+                } while (",".equals(token));
+                expect(";", token);
+                builder.provides(service, providers);
+            } else {
+                throw new UnsupportedSourceException();
+            }
+        }
+
+        if (next() != null) {
+            throw new UnsupportedSourceException();
+        }
+        return builder.build();
+    }
+
+    private void readRequires(JavaModuleDescriptor.Builder builder) throws UnsupportedSourceException {
+        Set<JavaModifier> modifiers = new LinkedHashSet<>(2);
+
+        String token = next();
+        // both are restricted keywords, so they're only modifiers if they're not the module name itself
+        while (("static".equals(token) || "transitive".equals(token))
+                && !";".equals(peek())
+                && !".".equals(peek())) {
+            modifiers.add("static".equals(token) ? JavaModifier.STATIC : JavaModifier.TRANSITIVE);
+            token = next();
+        }
+
+        String name = readName(token);
+        expect(";", next());
+
+        if (modifiers.isEmpty()) {
+            builder.requires(name);
+        } else {
+            builder.requires(modifiers, name);
+        }
+    }
+
+    /**
+     * @return the modules after {@code to}, or {@code null} if the directive has none
+     */
+    private Set<String> readTargets() throws UnsupportedSourceException {
+        String token = next();
+        if (";".equals(token)) {
+            return null;
+        }
+        expect("to", token);
+
+        Set<String> targets = new LinkedHashSet<>();
+        do {
+            targets.add(readName(next()));
+            token = next();
+        } while (",".equals(token));
+        expect(";", token);
+
+        return targets;
+    }
+
+    private String readName(String token) throws UnsupportedSourceException {
+        if (!isIdentifier(token)) {
+            throw new UnsupportedSourceException();
+        }
+        if (!".".equals(peek())) {
+            return token;
+        }
+
+        StringBuilder name = new StringBuilder(token);
+        while (".".equals(peek())) {
+            next();
+            String identifier = next();
+            if (!isIdentifier(identifier)) {
+                throw new UnsupportedSourceException();
+            }
+            name.append('.').append(identifier);
+        }
+        return name.toString();
+    }
+
+    private void skipAnnotation() throws UnsupportedSourceException {
+        readName(next());
+
+        if ("(".equals(peek())) {
+            next();
+            int depth = 1;
+            while (depth > 0) {
+                String token = next();
+                if (token == null) {
+                    throw new UnsupportedSourceException();
+                } else if ("(".equals(token)) {
+                    depth++;
+                } else if (")".equals(token)) {
+                    depth--;
+                }
+            }
+        }
+    }
+
+    private static void expect(String expected, String token) throws UnsupportedSourceException {
+        if (!expected.equals(token)) {
+            throw new UnsupportedSourceException();
+        }
+    }
+
+    private static boolean isIdentifier(String token) {
+        return token != null && Character.isJavaIdentifierStart(token.charAt(0));
+    }
+
+    private String peek() throws UnsupportedSourceException {
+        if (peeked == null) {
+            peeked = read();
+        }
+        return peeked;
+    }
+
+    private String next() throws UnsupportedSourceException {
+        if (peeked != null) {
+            String token = peeked;
+            peeked = null;
+            return token;
+        }
+        return read();
+    }
+
+    /**
+     * @return an identifier, a string or character literal or any other single character, {@code null} at the end
+     */
+    private String read() throws UnsupportedSourceException {
+        skipWhitespaceAndComments();
+
+        if (position >= source.length()) {
+            return null;
+        }
+
+        int start = position;
+        char c = source.charAt(position++);
+
+        if (Character.isJavaIdentifierStart(c)) {
+            while (position < source.length() && Character.isJavaIdentifierPart(source.charAt(position))) {
+                position++;
+            }
+        } else if (c == '"' || c == '\'') {
+            if (source.startsWith("\"\"", position)) {
+                // the opening quote is consumed, so this is a text block, only expected in annotations
+                throw new UnsupportedSourceException();
+            }
+            while (position < source.length() && source.charAt(position) != c) {
+                if (source.charAt(position) == '\\') {
+                    position++;
+                }
+                position++;
+            }
+            if (position >= source.length()) {
+                throw new UnsupportedSourceException();
+            }
+            position++;
+        }
+        return source.substring(start, position);
+    }
+
+    private void skipWhitespaceAndComments() throws UnsupportedSourceException {
+        while (position < source.length()) {
+            char c = source.charAt(position);
+            if (Character.isWhitespace(c) || c == '\uFEFF') {
+                position++;
+            } else if (source.startsWith("//", position)) {
+                int end = source.indexOf('\n', position);
+                position = end >= 0 ? end + 1 : source.length();
+            } else if (source.startsWith("/*", position)) {
+                int end = source.indexOf("*/", position + 2);
+                if (end < 0) {
+                    throw new UnsupportedSourceException();
+                }
+                position = end + 2;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Unwinds the parser when the source is not supported, no stack trace required.
+     */
+    private static final class UnsupportedSourceException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        UnsupportedSourceException() {
+            super(null, null, false, false);
+        }
+    }
+}
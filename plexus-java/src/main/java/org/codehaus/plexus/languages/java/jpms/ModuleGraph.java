@@ -0,0 +1,390 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.codehaus.plexus.languages.java.jpms.JavaModuleDescriptor.JavaProvides;
+import org.codehaus.plexus.languages.java.jpms.JavaModuleDescriptor.JavaRequires;
+import org.codehaus.plexus.languages.java.jpms.JavaModuleDescriptor.JavaRequires.JavaModifier;
+
+/**
+ * The dependencies between the main module and the named modules of the path elements, so they don't have to be
+ * collected from {@link JavaModuleDescriptor#requires()} again. Only the modules of the graph are part of the results,
+ * requires of modules which aren't on the path, like the modules of the JDK, are left out.
+ * <p>
+ * The graph is immutable and thread-safe. The requires are stored as arrays of module ids, the transitive closures are
+ * computed the first time they're asked for and kept. The returned sets are unmodifiable and iterate in the order of
+ * the graph: the main module first, followed by the modules in the order of the path elements.
+ * </p>
+ *
+ * @since 1.6.1
+ * @see ResolvePathsResult#getModuleGraph()
+ */
+public final class ModuleGraph {
+    private static final byte STATIC = 1;
+
+    private static final byte TRANSITIVE = 2;
+
+    private final String[] names;
+
+    private final JavaModuleDescriptor[] modules;
+
+    private final Map<String, Integer> ids;
+
+    // the requires of module i are requiresTargets[requiresOffsets[i]] until requiresTargets[requiresOffsets[i + 1]]
+    private final int[] requiresOffsets;
+
+    private final int[] requiresTargets;
+
+    private final byte[] requiresModifiers;
+
+    private final int[] requiredByOffsets;
+
+    private final int[] requiredByTargets;
+
+    private final AtomicReferenceArray<ModuleSet> transitiveRequires;
+
+    private final AtomicReferenceArray<BitSet> impliedReadability;
+
+    private final AtomicReferenceArray<ModuleSet> readableModules;
+
+    private volatile Map<String, ModuleSet> providers;
+
+    /**
+     * @param mainModule the main module, may be {@code null}
+     * @param modules the modules of the path elements, {@code null} for path elements without a module name. When
+     *            names are identical the main module or else the first module wins.
+     */
+    ModuleGraph(JavaModuleDescriptor mainModule, Iterable<JavaModuleDescriptor> modules) {
+        List<JavaModuleDescriptor> nodes = new ArrayList<>();
+        Map<String, Integer> ids = new HashMap<>();
+        if (mainModule != null) {
+            ids.put(mainModule.name(), 0);
+            nodes.add(mainModule);
+        }
+        for (JavaModuleDescriptor module : modules) {
+            if (module != null && ids.putIfAbsent(module.name(), nodes.size()) == null) {
+                nodes.add(module);
+            }
+        }
+
+        int size = nodes.size();
+        this.ids = ids;
+        this.modules = nodes.toArray(new JavaModuleDescriptor[size]);
+        this.names = new String[size];
+
+        int edges = 0;
+        for (int id = 0; id < size; id++) {
+            names[id] = this.modules[id].name();
+            edges += this.modules[id].requires().size();
+        }
+
+        int[] targets = new int[edges];
+        byte[] modifiers = new byte[edges];
+        int[] inDegree = new int[size];
+        requiresOffsets = new int[size + 1];
+
+        int edge = 0;
+        for (int id = 0; id < size; id++) {
+            requiresOffsets[id] = edge;
+            for (JavaRequires requires : this.modules[id].requires()) {
+                Integer target = ids.get(requires.name());
+                if (target != null) {
+                    targets[edge] = target;
+                    modifiers[edge] = (byte) ((requires.modifiers().contains(JavaModifier.STATIC) ? STATIC : 0)
+                            | (requires.modifiers().contains(JavaModifier.TRANSITIVE) ? TRANSITIVE : 0));
+                    inDegree[target]++;
+                    edge++;
+                }
+            }
+        }
+        requiresOffsets[size] = edge;
+
+        // only the requires of modules of the graph are kept
+        requiresTargets = edge == edges ? targets : trim(targets, edge);
+        requiresModifiers = edge == edges ? modifiers : trim(modifiers, edge);
+
+        requiredByOffsets = new int[size + 1];
+        for (int id = 0; id < size; id++) {
+            requiredByOffsets[id + 1] = requiredByOffsets[id] + inDegree[id];
+        }
+        requiredByTargets = new int[edge];
+        int[] next = new int[size];
+        System.arraycopy(requiredByOffsets, 0, next, 0, size);
+        for (int id = 0; id < size; id++) {
+            for (int index = requiresOffsets[id]; index < requiresOffsets[id + 1]; index++) {
+                requiredByTargets[next[requiresTargets[index]]++] = id;
+            }
+        }
+
+        transitiveRequires = new AtomicReferenceArray<>(size);
+        impliedReadability = new AtomicReferenceArray<>(size);
+        readableModules = new AtomicReferenceArray<>(size);
+    }
+
+    /**
+     * @return the names of all modules of the graph
+     */
+    public Set<String> getModules() {
+        BitSet all = new BitSet(names.length);
+        all.set(0, names.length);
+        return new ModuleSet(all);
+    }
+
+    /**
+     * @param module the name of a module
+     * @return {@code true} if the module is part of the graph
+     */
+    public boolean contains(String module) {
+        return ids.containsKey(module);
+    }
+
+    /**
+     * @param module the name of a module
+     * @return the descriptor of the module, or {@code null} if the module isn't part of the graph
+     */
+    public JavaModuleDescriptor getModuleDescriptor(String module) {
+        Integer id = ids.get(module);
+        return id != null ? modules[id] : null;
+    }
+
+    /**
+     * @param module the name of a module
+     * @return the modules it requires directly, including {@code requires static}, or an empty set if the module isn't
+     *         part of the graph
+     */
+    public Set<String> getRequires(String module) {
+        Integer id = ids.get(module);
+        if (id == null) {
+            return Collections.emptySet();
+        }
+        BitSet requires = new BitSet(names.length);
+        for (int index = requiresOffsets[id]; index < requiresOffsets[id + 1]; index++) {
+            requires.set(requiresTargets[index]);
+        }
+        return new ModuleSet(requires);
+    }
+
+    /**
+     * @param module the name of a module
+     * @return the modules it requires directly or indirectly, including {@code requires static}, or an empty set if
+     *         the module isn't part of the graph. The module itself is only part of it when its requires are cyclic.
+     */
+    public Set<String> getTransitiveRequires(String module) {
+        Integer id = ids.get(module);
+        if (id == null) {
+            return Collections.emptySet();
+        }
+        ModuleSet closure = transitiveRequires.get(id);
+        if (closure == null) {
+            closure = new ModuleSet(closure(id, (byte) 0));
+            if (!transitiveRequires.compareAndSet(id, null, closure)) {
+                closure = transitiveRequires.get(id);
+            }
+        }
+        return closure;
+    }
+
+    /**
+     * @param module the name of a module
+     * @return the modules requiring it directly, or an empty set if the module isn't part of the graph
+     */
+    public Set<String> getRequiredBy(String module) {
+        Integer id = ids.get(module);
+        if (id == null) {
+            return Collections.emptySet();
+        }
+        BitSet requiredBy = new BitSet(names.length);
+        for (int index = requiredByOffsets[id]; index < requiredByOffsets[id + 1]; index++) {
+            requiredBy.set(requiredByTargets[index]);
+        }
+        return new ModuleSet(requiredBy);
+    }
+
+    /**
+     * The modules the module reads besides itself: the modules it requires and the modules these require transitively,
+     * repeatedly. Compile time readability is meant, so {@code requires static} counts too.
+     *
+     * @param module the name of a module
+     * @return the modules it reads, or an empty set if the module isn't part of the graph
+     */
+    public Set<String> getReadableModules(String module) {
+        Integer id = ids.get(module);
+        if (id == null) {
+            return Collections.emptySet();
+        }
+        ModuleSet readable = readableModules.get(id);
+        if (readable == null) {
+            BitSet reads = new BitSet(names.length);
+            for (int index = requiresOffsets[id]; index < requiresOffsets[id + 1]; index++) {
+                int target = requiresTargets[index];
+                reads.set(target);
+                reads.or(impliedReadability(target));
+            }
+            readable = new ModuleSet(reads);
+            if (!readableModules.compareAndSet(id, null, readable)) {
+                readable = readableModules.get(id);
+            }
+        }
+        return readable;
+    }
+
+    /**
+     * The service index is built the first time, which reads the provides of all modules.
+     *
+     * @param service the fully qualified name of a service, with {@code .} as separator for nested classes
+     * @return the modules providing the service, or an empty set if there are none
+     */
+    public Set<String> getProviders(String service) {
+        Map<String, ModuleSet> index = providers;
+        if (index == null) {
+            Map<String, BitSet> services = new HashMap<>();
+            for (int id = 0; id < modules.length; id++) {
+                for (JavaProvides provides : modules[id].provides()) {
+                    // module-info.class uses FQN, i.e. $-separator for subclasses
+                    services.computeIfAbsent(provides.service().replace('$', '.'), s -> new BitSet(names.length))
+                            .set(id);
+                }
+            }
+            index = new HashMap<>(services.size() * 4 / 3 + 1);
+            for (Map.Entry<String, BitSet> entry : services.entrySet()) {
+                index.put(entry.getKey(), new ModuleSet(entry.getValue()));
+            }
+            providers = index;
+        }
+        Set<String> serviceProviders = index.get(service);
+        return serviceProviders != null ? serviceProviders : Collections.emptySet();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("ModuleGraph{");
+        for (int id = 0; id < names.length; id++) {
+            builder.append(id == 0 ? "" : ", ").append(names[id]).append("=").append(getRequires(names[id]));
+        }
+        return builder.append('}').toString();
+    }
+
+    /**
+     * The modules reachable from the module over requires with all the modifiers.
+     */
+    private BitSet closure(int id, byte modifiers) {
+        BitSet reached = new BitSet(names.length);
+        // every module is added once, the module itself a second time if the requires are cyclic
+        int[] worklist = new int[names.length + 1];
+        int size = 0;
+        worklist[size++] = id;
+        while (size > 0) {
+            int current = worklist[--size];
+            for (int index = requiresOffsets[current]; index < requiresOffsets[current + 1]; index++) {
+                int target = requiresTargets[index];
+                if ((requiresModifiers[index] & modifiers) == modifiers && !reached.get(target)) {
+                    reached.set(target);
+                    worklist[size++] = target;
+                }
+            }
+        }
+        return reached;
+    }
+
+    /**
+     * The modules which whoever reads the module reads as well, the closure over {@code requires transitive}.
+     */
+    private BitSet impliedReadability(int id) {
+        BitSet implied = impliedReadability.get(id);
+        if (implied == null) {
+            implied = closure(id, TRANSITIVE);
+            if (!impliedReadability.compareAndSet(id, null, implied)) {
+                implied = impliedReadability.get(id);
+            }
+        }
+        return implied;
+    }
+
+    private static int[] trim(int[] values, int length) {
+        int[] trimmed = new int[length];
+        System.arraycopy(values, 0, trimmed, 0, length);
+        return trimmed;
+    }
+
+    private static byte[] trim(byte[] values, int length) {
+        byte[] trimmed = new byte[length];
+        System.arraycopy(values, 0, trimmed, 0, length);
+        return trimmed;
+    }
+
+    /**
+     * An unmodifiable set of module names backed by the ids of the modules, the bits are never changed once created.
+     */
+    private final class ModuleSet extends AbstractSet<String> {
+        private final BitSet members;
+
+        private final int size;
+
+        ModuleSet(BitSet members) {
+            this.members = members;
+            this.size = members.cardinality();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            Integer id = ids.get(o);
+            return id != null && members.get(id);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return new Iterator<String>() {
+                private int next = members.nextSetBit(0);
+
+                @Override
+                public boolean hasNext() {
+                    return next >= 0;
+                }
+
+                @Override
+                public String next() {
+                    if (next < 0) {
+                        throw new NoSuchElementException();
+                    }
+                    String name = names[next];
+                    next = members.nextSetBit(next + 1);
+                    return name;
+                }
+            };
+        }
+    }
+}
@@ -49,4 +49,32 @@ interface ModuleInfoParser {
      * @throws IOException when the file could not be parsed
      */
     JavaModuleDescriptor getModuleDescriptor(Path modulePath, JavaVersion javaVersion) throws IOException;
+
+    /**
+     * Extracts the module descriptor from the module-info file, reading the directives only up to the given depth.
+     * The skipped directives are read once they're asked for.
+     *
+     * @param modulePath the path to the {@code module-info.class}
+     * @param javaVersion the java version in case of a multirelease jar
+     * @param depth how much of the module descriptor must be read upfront
+     * @return the module descriptor
+     * @throws IOException when the file could not be parsed
+     * @since 1.6.1
+     */
+    default JavaModuleDescriptor getModuleDescriptor(Path modulePath, JavaVersion javaVersion, ParseDepth depth)
+            throws IOException {
+        return getModuleDescriptor(modulePath, javaVersion);
+    }
+
+    /**
+     * Returns what has been read from the archive by {@link #getModuleDescriptor(Path)} when it turned out to have no
+     * module descriptor.
+     *
+     * @param modulePath the archive
+     * @return the probe, or {@code null} if the archive wasn't read by this parser
+     * @since 1.6.1
+     */
+    default JarProbe getProbe(Path modulePath) {
+        return null;
+    }
 }
@@ -0,0 +1,232 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a JVM running the {@code CmdModuleNameExtractor} in worker mode, so only the first call pays for starting it.
+ * Paths are written to its StdIn and the module names are read from its StdOut, one per line.
+ * <p>
+ * There's one worker per jdkHome. It is stopped after it has been idle for a while and when this JVM shuts down.
+ * When the process died in the meantime, a new one is started.
+ * </p>
+ *
+ * @since 1.6.1
+ */
+final class ModuleNameExtractorWorker {
+    static final long DEFAULT_IDLE_TIMEOUT = TimeUnit.MINUTES.toMillis(1);
+
+    // paths sent before reading the answers, small enough to never fill the pipes of both processes
+    private static final int CHUNK_SIZE = 100;
+
+    private static final Map<Path, ModuleNameExtractorWorker> WORKERS = new ConcurrentHashMap<>();
+
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "plexus-java-module-name-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        Runtime.getRuntime()
+                .addShutdownHook(new Thread(
+                        () -> {
+                            for (ModuleNameExtractorWorker worker : WORKERS.values()) {
+                                worker.stop();
+                            }
+                        },
+                        "plexus-java-module-name-worker-shutdown"));
+    }
+
+    private final Path jdkHome;
+
+    private final long idleTimeout;
+
+    private Path workDir;
+
+    private Process process;
+
+    private BufferedWriter stdin;
+
+    private BufferedReader stdout;
+
+    private ScheduledFuture<?> idleTask;
+
+    ModuleNameExtractorWorker(Path jdkHome, long idleTimeout) {
+        this.jdkHome = jdkHome;
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * @param jdkHome the JDK to extract the module names with
+     * @return the shared worker for this jdkHome
+     */
+    static ModuleNameExtractorWorker of(Path jdkHome) {
+        return WORKERS.computeIfAbsent(
+                jdkHome.toAbsolutePath().normalize(),
+                home -> new ModuleNameExtractorWorker(home, DEFAULT_IDLE_TIMEOUT));
+    }
+
+    synchronized <T> Map<T, String> extract(Map<T, Path> files) throws IOException {
+        if (idleTask != null) {
+            idleTask.cancel(false);
+            idleTask = null;
+        }
+
+        try {
+            try {
+                return request(files);
+            } catch (IOException e) {
+                // the process crashed or was killed, give it one more try with a new one
+                stop();
+                return request(files);
+            }
+        } catch (IOException e) {
+            stop();
+            throw e;
+        } finally {
+            if (process != null) {
+                idleTask = TIMER.schedule(this::stop, idleTimeout, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private <T> Map<T, String> request(Map<T, Path> files) throws IOException {
+        if (process == null || !process.isAlive()) {
+            start();
+        }
+
+        Map<T, String> moduleNames = new HashMap<>(files.size());
+
+        List<Map.Entry<T, Path>> chunk = new ArrayList<>(CHUNK_SIZE);
+        for (Map.Entry<T, Path> entry : files.entrySet()) {
+            String path = entry.getValue().toAbsolutePath().toString();
+            if (path.indexOf('\n') >= 0 || path.indexOf('\r') >= 0) {
+                // can't be passed as a line, such a path won't be a valid module anyway
+                moduleNames.put(entry.getKey(), null);
+                continue;
+            }
+
+            stdin.write(path);
+            stdin.newLine();
+            chunk.add(entry);
+
+            if (chunk.size() == CHUNK_SIZE) {
+                readChunk(chunk, moduleNames);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            readChunk(chunk, moduleNames);
+        }
+        return moduleNames;
+    }
+
+    private <T> void readChunk(List<Map.Entry<T, Path>> chunk, Map<T, String> moduleNames) throws IOException {
+        stdin.flush();
+
+        for (Map.Entry<T, Path> entry : chunk) {
+            String moduleName = stdout.readLine();
+            if (moduleName == null) {
+                throw new IOException("Module name extractor of " + jdkHome + " stopped unexpectedly");
+            }
+            moduleNames.put(entry.getKey(), moduleName.isEmpty() ? null : moduleName);
+        }
+        chunk.clear();
+    }
+
+    private void start() throws IOException {
+        stop();
+
+        workDir = MainClassModuleNameExtractor.createWorkDir();
+        if (workDir == null) {
+            throw new IOException("Module name extractor requires the multirelease jar of plexus-java");
+        }
+
+        ProcessBuilder builder = new ProcessBuilder(
+                        jdkHome.resolve("bin/java").toAbsolutePath().toString(),
+                        "--class-path",
+                        ".",
+                        CmdModuleNameExtractor.class.getName(),
+                        "--worker")
+                .directory(workDir.toFile())
+                .redirectError(workDir.resolve("stderr.log").toFile());
+
+        process = builder.start();
+        stdin = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+        stdout = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Stops the process, a next call will start a new one.
+     */
+    synchronized void stop() {
+        if (process != null) {
+            try {
+                // end of StdIn lets the process exit by itself
+                stdin.close();
+            } catch (IOException e) {
+                // noop, it'll be destroyed
+            }
+            try {
+                if (!process.waitFor(1, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+            try {
+                stdout.close();
+            } catch (IOException e) {
+                // noop
+            }
+            process = null;
+            stdin = null;
+            stdout = null;
+        }
+        if (workDir != null) {
+            MainClassModuleNameExtractor.deleteWorkDir(workDir);
+            workDir = null;
+        }
+    }
+
+    /**
+     * @return the running process, or {@code null}
+     */
+    synchronized Process getProcess() {
+        return process;
+    }
+}
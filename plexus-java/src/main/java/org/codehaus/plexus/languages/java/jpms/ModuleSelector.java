@@ -0,0 +1,237 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.codehaus.plexus.languages.java.jpms.JavaModuleDescriptor.JavaRequires;
+import org.codehaus.plexus.languages.java.jpms.JavaModuleDescriptor.JavaRequires.JavaModifier;
+
+/**
+ * Selects the modules required by the main module and the additional modules.
+ * <p>
+ * The modules are interned to dense ids, so membership is a {@link BitSet} and the requires and providers are arrays
+ * of ids. The graph is walked with a worklist instead of recursion, long chains of requires can't overflow the stack.
+ * The worklist visits the modules in the same order as a depth-first recursion would: a module is only expanded the
+ * first time it is reached and which of its static requires are followed depends on how it was reached, so the order
+ * decides the result.
+ * </p>
+ *
+ * @since 1.6.1
+ */
+final class ModuleSelector {
+    private static final int[] NONE = new int[0];
+
+    private final Map<String, Integer> ids;
+
+    private final JavaModuleDescriptor[] modules;
+
+    // key = service, value = ids of the modules that provide this service
+    private final Map<String, int[]> providers;
+
+    private final boolean includeStatic;
+
+    private final BitSet selected;
+
+    private final Deque<Frame> worklist = new ArrayDeque<>();
+
+    /**
+     * @param availableModules the modules by name
+     * @param availableProviders the names of the modules providing a service, by service
+     * @param includeStatic {@code true} to follow {@code requires static} of all modules, not only of the roots
+     */
+    ModuleSelector(
+            Map<String, JavaModuleDescriptor> availableModules,
+            Map<String, Set<String>> availableProviders,
+            boolean includeStatic) {
+        this.ids = new HashMap<>(availableModules.size() * 4 / 3 + 1);
+        this.modules = new JavaModuleDescriptor[availableModules.size()];
+        for (JavaModuleDescriptor module : availableModules.values()) {
+            modules[ids.size()] = module;
+            ids.put(module.name(), ids.size());
+        }
+
+        this.providers = new HashMap<>(availableProviders.size() * 4 / 3 + 1);
+        for (Map.Entry<String, Set<String>> service : availableProviders.entrySet()) {
+            int[] providerIds = new int[service.getValue().size()];
+            int count = 0;
+            for (String provider : service.getValue()) {
+                Integer id = ids.get(provider);
+                if (id != null) {
+                    providerIds[count++] = id;
+                }
+            }
+            if (count < providerIds.length) {
+                int[] available = new int[count];
+                System.arraycopy(providerIds, 0, available, 0, count);
+                providerIds = available;
+            }
+            providers.put(service.getKey(), providerIds);
+        }
+
+        this.includeStatic = includeStatic;
+        this.selected = new BitSet(modules.length);
+    }
+
+    /**
+     * Selects the main module and everything it requires. The descriptor is used even if a module with the same name
+     * is available, but that one counts as selected.
+     *
+     * @param mainModule the main module
+     */
+    void selectMainModule(JavaModuleDescriptor mainModule) {
+        Integer id = ids.get(mainModule.name());
+        if (id != null) {
+            selected.set(id);
+        }
+        walk(new Frame(mainModule, true, true));
+    }
+
+    /**
+     * Selects the module, like {@code --add-modules}, and everything it requires.
+     *
+     * @param name the name of the module
+     */
+    void selectModule(String name) {
+        Integer id = ids.get(name);
+        if (id != null && !selected.get(id)) {
+            selected.set(id);
+            walk(new Frame(modules[id], false, true));
+        }
+    }
+
+    /**
+     * @param name the name of a module
+     * @return {@code true} if the module is available and selected
+     */
+    boolean isSelected(String name) {
+        Integer id = ids.get(name);
+        return id != null && selected.get(id);
+    }
+
+    /**
+     * @return the number of selected modules
+     */
+    int selectedCount() {
+        return selected.cardinality();
+    }
+
+    private void walk(Frame root) {
+        worklist.push(root);
+
+        while (!worklist.isEmpty()) {
+            Frame frame = worklist.peek();
+
+            if (frame.index == frame.targets.length) {
+                if (frame.requiresPhase) {
+                    frame.requiresPhase = false;
+                    frame.targets = providerIds(frame.module);
+                    frame.index = 0;
+                } else {
+                    worklist.pop();
+                }
+                continue;
+            }
+
+            int target = frame.targets[frame.index++];
+            if (!selected.get(target)) {
+                selected.set(target);
+                // required modules include their static requires only if all modules do,
+                // providers inherit it from the module using the service
+                boolean includeAsTransitive = frame.requiresPhase ? includeStatic : frame.includeAsTransitive;
+                worklist.push(new Frame(modules[target], false, includeAsTransitive));
+            }
+        }
+    }
+
+    private int[] requiresIds(JavaModuleDescriptor module, boolean isRootModule, boolean includeAsTransitive) {
+        int[] requiresIds = new int[module.requires().size()];
+        int count = 0;
+        for (JavaRequires requires : module.requires()) {
+            // includeTransitive is one level deeper compared to includeStatic
+            if (isRootModule
+                    || includeStatic
+                    || includeAsTransitive
+                    || !requires.modifiers().contains(JavaModifier.STATIC)
+                    || requires.modifiers().contains(JavaModifier.TRANSITIVE)) {
+                Integer id = ids.get(requires.name());
+                if (id != null) {
+                    requiresIds[count++] = id;
+                }
+            }
+        }
+        return count == requiresIds.length ? requiresIds : trim(requiresIds, count);
+    }
+
+    private int[] providerIds(JavaModuleDescriptor module) {
+        // without providers there's no need to read the uses of the module
+        if (providers.isEmpty()) {
+            return NONE;
+        }
+
+        int[] providerIds = NONE;
+        int count = 0;
+        for (String uses : module.uses()) {
+            int[] serviceProviders = providers.get(uses);
+            if (serviceProviders != null && serviceProviders.length > 0) {
+                if (count + serviceProviders.length > providerIds.length) {
+                    int[] grown = new int[Math.max(count + serviceProviders.length, providerIds.length * 2)];
+                    System.arraycopy(providerIds, 0, grown, 0, count);
+                    providerIds = grown;
+                }
+                System.arraycopy(serviceProviders, 0, providerIds, count, serviceProviders.length);
+                count += serviceProviders.length;
+            }
+        }
+        return count == providerIds.length ? providerIds : trim(providerIds, count);
+    }
+
+    private static int[] trim(int[] values, int count) {
+        int[] trimmed = new int[count];
+        System.arraycopy(values, 0, trimmed, 0, count);
+        return trimmed;
+    }
+
+    /**
+     * A module being expanded, first its requires and then the providers of the services it uses.
+     */
+    private final class Frame {
+        private final JavaModuleDescriptor module;
+
+        private final boolean includeAsTransitive;
+
+        private boolean requiresPhase = true;
+
+        private int[] targets;
+
+        private int index;
+
+        Frame(JavaModuleDescriptor module, boolean isRootModule, boolean includeAsTransitive) {
+            this.module = module;
+            this.includeAsTransitive = includeAsTransitive;
+            this.targets = requiresIds(module, isRootModule, includeAsTransitive);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+/**
+ * Canonicalizes the module, package and service names read from module descriptors, so the same name read from many
+ * descriptors is held once. Across a large path names like {@code java.base} or {@code java.sql.Driver} repeat in
+ * thousands of descriptors, and equal names which are the same instance are also compared faster.
+ * <p>
+ * The pool is a fixed table indexed by the hash of the name, every slot keeps the last name which ended up there. It
+ * never grows, doesn't cost anything per distinct name like a map would, and frequent names stay in it because they
+ * keep coming back. Concurrent use needs no locking: a lost update only means a name isn't shared.
+ * </p>
+ *
+ * @since 1.6.1
+ */
+final class NamePool {
+    static final int DEFAULT_SIZE = 1 << 14;
+
+    private final String[] names;
+
+    NamePool() {
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * @param size the number of slots, rounded up to a power of two
+     */
+    NamePool(int size) {
+        names = new String[size <= 1 ? 1 : Integer.highestOneBit(size - 1) << 1];
+    }
+
+    /**
+     * @param name the name, may be {@code null}
+     * @return an equal name, the one in the pool if there is one
+     */
+    String get(String name) {
+        if (name == null) {
+            return null;
+        }
+        int hash = name.hashCode();
+        int slot = (hash ^ (hash >>> 16)) & (names.length - 1);
+        String pooled = names[slot];
+        if (name.equals(pooled)) {
+            return pooled;
+        }
+        names[slot] = name;
+        return name;
+    }
+
+    /**
+     * @param internalName a package or class name as in a class file, separated by slashes
+     * @return the name separated by dots, the one in the pool if there is one
+     */
+    String getFromInternalName(String internalName) {
+        return get(internalName.replace('/', '.'));
+    }
+}
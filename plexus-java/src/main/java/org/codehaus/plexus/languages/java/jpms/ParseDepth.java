@@ -0,0 +1,42 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+/**
+ * How much of the module descriptors of the path elements must be read upfront. The directives which are skipped are
+ * decoded from the module-info.class kept in memory once they're asked for, without reading the archive again.
+ *
+ * @since 1.6.1
+ * @see ResolvePathsRequest#setParseDepth(ParseDepth)
+ */
+public enum ParseDepth {
+    /**
+     * All directives.
+     */
+    FULL,
+    /**
+     * The name, requires, uses and provides, which are required to select the modules and their service providers.
+     */
+    REQUIRES_AND_SERVICES,
+    /**
+     * Only the name and requires, which are required to select the modules.
+     */
+    REQUIRES
+}
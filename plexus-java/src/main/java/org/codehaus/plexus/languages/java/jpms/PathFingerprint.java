@@ -0,0 +1,145 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Objects;
+
+/**
+ * The file attributes a resolved path element depends on, to detect if it must be resolved again.
+ * <p>
+ * For an archive these are the size, last modified time and file key of the archive itself. An output directory is
+ * only read for its {@code module-info.class} and {@code META-INF/MANIFEST.MF}, so the attributes of these files are
+ * used, or the fact that they don't exist. The attributes of the directory itself don't change when a file in it is
+ * rewritten.
+ * </p>
+ *
+ * @since 1.6.1
+ */
+final class PathFingerprint {
+    private static final String MODULE_DESCRIPTOR = "module-info.class";
+
+    private static final String MANIFEST = "META-INF/MANIFEST.MF";
+
+    private final Attributes file;
+
+    private final Attributes moduleDescriptor;
+
+    private final Attributes manifest;
+
+    private PathFingerprint(Attributes file, Attributes moduleDescriptor, Attributes manifest) {
+        this.file = file;
+        this.moduleDescriptor = moduleDescriptor;
+        this.manifest = manifest;
+    }
+
+    /**
+     * @param path the path element
+     * @param attributes the attributes of the path element if it is a regular file, otherwise {@code null}
+     * @return the fingerprint of the path element
+     * @throws IOException if the attributes can't be read
+     */
+    static PathFingerprint of(Path path, BasicFileAttributes attributes) throws IOException {
+        if (attributes != null) {
+            return new PathFingerprint(new Attributes(attributes), null, null);
+        }
+        return new PathFingerprint(
+                null, attributesOf(path.resolve(MODULE_DESCRIPTOR)), attributesOf(path.resolve(MANIFEST)));
+    }
+
+    private static Attributes attributesOf(Path file) throws IOException {
+        try {
+            return new Attributes(Files.readAttributes(file, BasicFileAttributes.class));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(file, moduleDescriptor, manifest);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+
+        PathFingerprint other = (PathFingerprint) obj;
+        return Objects.equals(file, other.file)
+                && Objects.equals(moduleDescriptor, other.moduleDescriptor)
+                && Objects.equals(manifest, other.manifest);
+    }
+
+    @Override
+    public String toString() {
+        return "PathFingerprint{" + "file=" + file + ", moduleDescriptor=" + moduleDescriptor + ", manifest="
+                + manifest + '}';
+    }
+
+    private static final class Attributes {
+        private final long size;
+
+        private final FileTime lastModifiedTime;
+
+        private final Object fileKey;
+
+        Attributes(BasicFileAttributes attributes) {
+            this.size = attributes.size();
+            this.lastModifiedTime = attributes.lastModifiedTime();
+            this.fileKey = attributes.fileKey();
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(size, lastModifiedTime, fileKey);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+
+            Attributes other = (Attributes) obj;
+            return size == other.size
+                    && lastModifiedTime.equals(other.lastModifiedTime)
+                    && Objects.equals(fileKey, other.fileKey);
+        }
+
+        @Override
+        public String toString() {
+            return "Attributes{" + "size=" + size + ", lastModifiedTime=" + lastModifiedTime + ", fileKey=" + fileKey
+                    + '}';
+        }
+    }
+}
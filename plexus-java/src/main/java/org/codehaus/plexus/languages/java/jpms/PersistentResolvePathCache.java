@@ -0,0 +1,326 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import org.codehaus.plexus.languages.java.jpms.JavaModuleDescriptor.JavaExports;
+import org.codehaus.plexus.languages.java.jpms.JavaModuleDescriptor.JavaProvides;
+import org.codehaus.plexus.languages.java.jpms.JavaModuleDescriptor.JavaRequires;
+import org.codehaus.plexus.languages.java.jpms.JavaModuleDescriptor.JavaRequires.JavaModifier;
+import org.codehaus.plexus.languages.java.version.JavaVersion;
+
+/**
+ * Stores the resolved module descriptor of archives on disk, so subsequent builds don't have to open them again.
+ * <p>
+ * Every archive gets its own entry, which records the path, size and last modified time of the archive. An entry is
+ * only used when these still match, so a jar that changed in place is resolved again and its entry replaced.
+ * Entries are written to a temporary file first and then moved in place, which makes it safe for concurrent builds
+ * to share the same directory.
+ * </p>
+ * <p>
+ * An entry also records how module names were extracted, in-process or by the forked JVM of a jdkHome. A module name
+ * derived from the filename, or the lack of a module name, is only used when that matches.
+ * </p>
+ * Output directories are never cached, their content can change without touching the attributes of the directory,
+ * neither are module descriptors which haven't been read completely, see {@link ParseDepth}.
+ *
+ * @since 1.6.1
+ */
+final class PersistentResolvePathCache {
+    private static final int MAGIC = 0x504A4D43;
+
+    private static final int FORMAT_VERSION = 2;
+
+    private final Path directory;
+
+    // the names of the descriptors read from disk are taken from here
+    private final NamePool names;
+
+    PersistentResolvePathCache(Path directory) {
+        this(directory, new NamePool());
+    }
+
+    PersistentResolvePathCache(Path directory, NamePool names) {
+        this.directory = directory;
+        this.names = names;
+    }
+
+    /**
+     * @param path the archive
+     * @param attributes the current attributes of the archive
+     * @return the cached result when module names are extracted in-process, or {@code null} if there is none or if it
+     *         is outdated
+     */
+    ResolvePathResult get(Path path, BasicFileAttributes attributes) {
+        return get(path, attributes, null);
+    }
+
+    /**
+     * @param path the archive
+     * @param attributes the current attributes of the archive
+     * @param forkJdkHome the jdkHome of the forked JVM which extracts the module names, {@code null} when they are
+     *            extracted in-process
+     * @return the cached result, or {@code null} if there is none or if it is outdated
+     */
+    ResolvePathResult get(Path path, BasicFileAttributes attributes, Path forkJdkHome) {
+        Path entry = entryFile(path);
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(entry)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+            if (!path.toAbsolutePath().toString().equals(in.readUTF())
+                    || attributes.size() != in.readLong()
+                    || attributes.lastModifiedTime().toMillis() != in.readLong()
+                    || !Objects.toString(attributes.fileKey(), "").equals(in.readUTF())
+                    || !JavaVersion.JAVA_SPECIFICATION_VERSION.toString().equals(in.readUTF())) {
+                return null;
+            }
+
+            boolean sameNameExtractor = nameExtractor(forkJdkHome).equals(in.readUTF());
+
+            ResolvePathResult result = new ResolvePathResult();
+
+            int source = in.readByte();
+            if (source >= 0) {
+                result.setModuleNameSource(ModuleNameSource.values()[source]);
+            }
+            if (!sameNameExtractor && ResolvePathCache.dependsOnNameExtractor(result)) {
+                return null;
+            }
+            if (in.readBoolean()) {
+                result.setModuleDescriptor(readDescriptor(in));
+            }
+            return result;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            // corrupt or written by an incompatible version, it'll be overwritten
+            return null;
+        }
+    }
+
+    /**
+     * Stores the result for the archive, resolved with module names extracted in-process.
+     *
+     * @param path the archive
+     * @param attributes the attributes of the archive at the moment it was resolved
+     * @param result the result to store
+     */
+    void put(Path path, BasicFileAttributes attributes, ResolvePathResult result) {
+        put(path, attributes, null, result);
+    }
+
+    /**
+     * Stores the result for the archive. Failing to write the entry is ignored, the cache is only an optimization.
+     *
+     * @param path the archive
+     * @param attributes the attributes of the archive at the moment it was resolved
+     * @param forkJdkHome the jdkHome of the forked JVM which extracted the module names, {@code null} when they were
+     *            extracted in-process
+     * @param result the result to store
+     */
+    void put(Path path, BasicFileAttributes attributes, Path forkJdkHome, ResolvePathResult result) {
+        if (result.getModuleDescriptor() != null && result.getModuleDescriptor().depth() != ParseDepth.FULL) {
+            return;
+        }
+
+        Path entry = entryFile(path);
+        Path tmp = null;
+        try {
+            Files.createDirectories(directory);
+
+            tmp = Files.createTempFile(directory, entry.getFileName().toString(), ".tmp");
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(path.toAbsolutePath().toString());
+                out.writeLong(attributes.size());
+                out.writeLong(attributes.lastModifiedTime().toMillis());
+                out.writeUTF(Objects.toString(attributes.fileKey(), ""));
+                out.writeUTF(JavaVersion.JAVA_SPECIFICATION_VERSION.toString());
+                out.writeUTF(nameExtractor(forkJdkHome));
+
+                ModuleNameSource source = result.getModuleNameSource();
+                out.writeByte(source != null ? source.ordinal() : -1);
+
+                JavaModuleDescriptor descriptor = result.getModuleDescriptor();
+                out.writeBoolean(descriptor != null);
+                if (descriptor != null) {
+                    writeDescriptor(out, descriptor);
+                }
+            }
+
+            try {
+                Files.move(tmp, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, entry, StandardCopyOption.REPLACE_EXISTING);
+            }
+            tmp = null;
+        } catch (IOException e) {
+            // noop, next time it will be resolved again
+        } finally {
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException e) {
+                    // noop, we did our best to clean it up
+                }
+            }
+        }
+    }
+
+    private static String nameExtractor(Path forkJdkHome) {
+        return forkJdkHome != null ? forkJdkHome.toAbsolutePath().toString() : "";
+    }
+
+    private Path entryFile(Path path) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] hash = digest.digest(path.toAbsolutePath().toString().getBytes(StandardCharsets.UTF_8));
+
+            StringBuilder name = new StringBuilder(hash.length * 2 + 4);
+            for (byte b : hash) {
+                name.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return directory.resolve(name.append(".bin").toString());
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-1
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void writeDescriptor(DataOutputStream out, JavaModuleDescriptor descriptor) throws IOException {
+        out.writeUTF(descriptor.name());
+        out.writeBoolean(descriptor.isAutomatic());
+
+        out.writeInt(descriptor.requires().size());
+        for (JavaRequires requires : descriptor.requires()) {
+            out.writeBoolean(requires.modifiers().contains(JavaModifier.STATIC));
+            out.writeBoolean(requires.modifiers().contains(JavaModifier.TRANSITIVE));
+            out.writeUTF(requires.name());
+        }
+
+        out.writeInt(descriptor.exports().size());
+        for (JavaExports exports : descriptor.exports()) {
+            out.writeUTF(exports.source());
+            writeStrings(out, exports.targets());
+        }
+
+        writeStrings(out, descriptor.uses());
+
+        out.writeInt(descriptor.provides().size());
+        for (JavaProvides provides : descriptor.provides()) {
+            out.writeUTF(provides.service());
+            writeStrings(out, provides.providers());
+        }
+    }
+
+    private JavaModuleDescriptor readDescriptor(DataInputStream in) throws IOException {
+        String name = names.get(in.readUTF());
+
+        JavaModuleDescriptor.Builder builder =
+                in.readBoolean() ? JavaModuleDescriptor.newAutomaticModule(name) : JavaModuleDescriptor.newModule(name);
+
+        for (int i = in.readInt(); i > 0; i--) {
+            boolean isStatic = in.readBoolean();
+            boolean isTransitive = in.readBoolean();
+            String requires = names.get(in.readUTF());
+            if (isStatic || isTransitive) {
+                Set<JavaModifier> modifiers = EnumSet.noneOf(JavaModifier.class);
+                if (isStatic) {
+                    modifiers.add(JavaModifier.STATIC);
+                }
+                if (isTransitive) {
+                    modifiers.add(JavaModifier.TRANSITIVE);
+                }
+                builder.requires(modifiers, requires);
+            } else {
+                builder.requires(requires);
+            }
+        }
+
+        for (int i = in.readInt(); i > 0; i--) {
+            String source = names.get(in.readUTF());
+            List<String> targets = readStrings(in);
+            if (targets == null) {
+                builder.exports(source);
+            } else {
+                builder.exports(source, new LinkedHashSet<>(targets));
+            }
+        }
+
+        for (String uses : readStrings(in)) {
+            builder.uses(uses);
+        }
+
+        for (int i = in.readInt(); i > 0; i--) {
+            String service = names.get(in.readUTF());
+            builder.provides(service, readStrings(in));
+        }
+
+        return builder.build();
+    }
+
+    private static void writeStrings(DataOutputStream out, Collection<String> values) throws IOException {
+        if (values == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(values.size());
+            for (String value : values) {
+                out.writeUTF(value);
+            }
+        }
+    }
+
+    private List<String> readStrings(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(names.get(in.readUTF()));
+        }
+        return values;
+    }
+}
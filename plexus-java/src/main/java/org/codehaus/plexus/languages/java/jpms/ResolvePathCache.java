@@ -0,0 +1,291 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.codehaus.plexus.languages.java.jpms.JavaModuleDescriptor.JavaExports;
+import org.codehaus.plexus.languages.java.jpms.JavaModuleDescriptor.JavaProvides;
+import org.codehaus.plexus.languages.java.jpms.JavaModuleDescriptor.JavaRequires;
+
+/**
+ * Keeps the resolved results of archives in memory, so the singleton {@link LocationManager} doesn't have to open the
+ * same archive again for every project of a reactor build.
+ * <p>
+ * The cache is bounded by the number of entries and by an estimation of their size in bytes, the least recently used
+ * entries are evicted first. An entry is only returned when the size, last modified time and file key of the archive
+ * still match the moment it was resolved.
+ * </p>
+ * <p>
+ * A module name derived from the filename depends on how it was extracted: in-process or by a forked JVM of the
+ * jdkHome. Such results, and the ones without module name, are kept per way of extracting, see
+ * {@link #dependsOnNameExtractor(ResolvePathResult)}. The other results are shared by all of them.
+ * </p>
+ * <p>
+ * Only completely read module descriptors are kept, so a result serves requests of every {@link ParseDepth}.
+ * </p>
+ *
+ * @since 1.6.1
+ */
+final class ResolvePathCache {
+    static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+
+    // rough per-object costs, only used to bound the cache, not to measure it
+    private static final int ENTRY_OVERHEAD = 192;
+
+    private static final int DESCRIPTOR_OVERHEAD = 256;
+
+    private static final int ELEMENT_OVERHEAD = 64;
+
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private int maxEntries;
+
+    private long maxBytes;
+
+    private long bytes;
+
+    private long hitCount;
+
+    private long missCount;
+
+    private long evictionCount;
+
+    ResolvePathCache(int maxEntries, long maxBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @param path the archive
+     * @param attributes the current attributes of the archive
+     * @return the cached result when module names are extracted in-process, or {@code null} if there is none or if it
+     *         is outdated
+     */
+    ResolvePathResult get(Path path, BasicFileAttributes attributes) {
+        return get(path, attributes, null);
+    }
+
+    /**
+     * @param path the archive
+     * @param attributes the current attributes of the archive
+     * @param forkJdkHome the jdkHome of the forked JVM which extracts the module names, {@code null} when they are
+     *            extracted in-process
+     * @return the cached result, or {@code null} if there is none or if it is outdated
+     */
+    synchronized ResolvePathResult get(Path path, BasicFileAttributes attributes, Path forkJdkHome) {
+        Path absolutePath = path.toAbsolutePath();
+
+        Entry entry = getEntry(new Key(absolutePath, false, null), attributes);
+        if (entry == null) {
+            entry = getEntry(new Key(absolutePath, true, forkJdkHome), attributes);
+        }
+
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+
+        hitCount++;
+        return entry.result;
+    }
+
+    /**
+     * @param path the archive
+     * @param attributes the attributes of the archive at the moment it was resolved
+     * @param result the result to store, resolved with module names extracted in-process
+     */
+    void put(Path path, BasicFileAttributes attributes, ResolvePathResult result) {
+        put(path, attributes, null, result);
+    }
+
+    /**
+     * @param path the archive
+     * @param attributes the attributes of the archive at the moment it was resolved
+     * @param forkJdkHome the jdkHome of the forked JVM which extracted the module names, {@code null} when they were
+     *            extracted in-process
+     * @param result the result to store, ignored when its module descriptor has been read partially
+     */
+    synchronized void put(Path path, BasicFileAttributes attributes, Path forkJdkHome, ResolvePathResult result) {
+        if (maxEntries <= 0 || maxBytes <= 0) {
+            return;
+        }
+        if (result.getModuleDescriptor() != null && result.getModuleDescriptor().depth() != ParseDepth.FULL) {
+            return;
+        }
+
+        boolean dependent = dependsOnNameExtractor(result);
+        Key key = new Key(path.toAbsolutePath(), dependent, dependent ? forkJdkHome : null);
+
+        Entry entry = new Entry(attributes, result, estimateSize(key.path, result));
+
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            bytes -= previous.size;
+        }
+        bytes += entry.size;
+
+        evict();
+    }
+
+    synchronized void setLimits(int maxEntries, long maxBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+
+        evict();
+    }
+
+    synchronized CacheStatistics getStatistics() {
+        return new CacheStatistics(hitCount, missCount, evictionCount, entries.size(), bytes);
+    }
+
+    private void evict() {
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (eldest.hasNext() && (entries.size() > maxEntries || bytes > maxBytes)) {
+            bytes -= eldest.next().size;
+            eldest.remove();
+            evictionCount++;
+        }
+    }
+
+    private Entry getEntry(Key key, BasicFileAttributes attributes) {
+        Entry entry = entries.get(key);
+
+        if (entry != null && !entry.matches(attributes)) {
+            remove(key);
+            entry = null;
+        }
+        return entry;
+    }
+
+    private void remove(Key key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            bytes -= entry.size;
+        }
+    }
+
+    /**
+     * @param result the result of an archive
+     * @return {@code true} if the result depends on how the module name is extracted from the filename, i.e. when the
+     *         name was derived from the filename or when there is no name at all
+     */
+    static boolean dependsOnNameExtractor(ResolvePathResult result) {
+        return result.getModuleNameSource() == null || result.getModuleNameSource() == ModuleNameSource.FILENAME;
+    }
+
+    static long estimateSize(Path path, ResolvePathResult result) {
+        long size = ENTRY_OVERHEAD + 2L * path.toString().length();
+
+        JavaModuleDescriptor descriptor = result.getModuleDescriptor();
+        if (descriptor != null) {
+            size += DESCRIPTOR_OVERHEAD + 2L * descriptor.name().length();
+
+            for (JavaRequires requires : descriptor.requires()) {
+                size += ELEMENT_OVERHEAD + 2L * requires.name().length();
+            }
+            for (JavaExports exports : descriptor.exports()) {
+                size += ELEMENT_OVERHEAD + 2L * exports.source().length();
+                if (exports.targets() != null) {
+                    for (String target : exports.targets()) {
+                        size += ELEMENT_OVERHEAD + 2L * target.length();
+                    }
+                }
+            }
+            for (String uses : descriptor.uses()) {
+                size += ELEMENT_OVERHEAD + 2L * uses.length();
+            }
+            for (JavaProvides provides : descriptor.provides()) {
+                size += ELEMENT_OVERHEAD + 2L * provides.service().length();
+                for (String provider : provides.providers()) {
+                    size += ELEMENT_OVERHEAD + 2L * provider.length();
+                }
+            }
+        }
+        return size;
+    }
+
+    private static final class Key {
+        private final Path path;
+
+        private final boolean dependsOnNameExtractor;
+
+        private final Path forkJdkHome;
+
+        Key(Path path, boolean dependsOnNameExtractor, Path forkJdkHome) {
+            this.path = path;
+            this.dependsOnNameExtractor = dependsOnNameExtractor;
+            this.forkJdkHome = forkJdkHome != null ? forkJdkHome.toAbsolutePath() : null;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, dependsOnNameExtractor, forkJdkHome);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return dependsOnNameExtractor == other.dependsOnNameExtractor
+                    && path.equals(other.path)
+                    && Objects.equals(forkJdkHome, other.forkJdkHome);
+        }
+    }
+
+    private static final class Entry {
+        private final long fileSize;
+
+        private final FileTime lastModifiedTime;
+
+        private final Object fileKey;
+
+        private final ResolvePathResult result;
+
+        private final long size;
+
+        Entry(BasicFileAttributes attributes, ResolvePathResult result, long size) {
+            this.fileSize = attributes.size();
+            this.lastModifiedTime = attributes.lastModifiedTime();
+            this.fileKey = attributes.fileKey();
+            this.result = result;
+            this.size = size;
+        }
+
+        boolean matches(BasicFileAttributes attributes) {
+            return fileSize == attributes.size()
+                    && lastModifiedTime.equals(attributes.lastModifiedTime())
+                    && Objects.equals(fileKey, attributes.fileKey());
+        }
+    }
+}
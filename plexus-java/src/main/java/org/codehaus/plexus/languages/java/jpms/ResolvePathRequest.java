@@ -31,6 +31,8 @@ import java.nio.file.Paths;
 public abstract class ResolvePathRequest<T> {
     private Path jdkHome;
 
+    private boolean forkModuleNameExtractor;
+
     private T path;
 
     private ResolvePathRequest() {}
@@ -75,7 +77,8 @@ public abstract class ResolvePathRequest<T> {
     }
 
     /**
-     * In case the JRE is Java 8 or before, this jdkHome is used to extract the module name.
+     * The JDK to resolve for, its module descriptors may be compiled for a newer Java version than the JRE.
+     * See {@link #setForkModuleNameExtractor(boolean)} to extract the automatic module names with it too.
      *
      * @param jdkHome
      * @return this request
@@ -88,4 +91,27 @@ public abstract class ResolvePathRequest<T> {
     public Path getJdkHome() {
         return jdkHome;
     }
+
+    /**
+     * Automatic module names are derived in-process. When {@code true} and a jdkHome is set, the {@code java}
+     * executable of the jdkHome is used instead, for the rare case its rules differ from this implementation.
+     * The caches of the {@link LocationManager} keep the names derived either way apart, so switching takes effect
+     * immediately.
+     *
+     * @param forkModuleNameExtractor {@code true} to extract the automatic module names with the jdkHome
+     * @return this request
+     * @since 1.6.1
+     */
+    public ResolvePathRequest<T> setForkModuleNameExtractor(boolean forkModuleNameExtractor) {
+        this.forkModuleNameExtractor = forkModuleNameExtractor;
+        return this;
+    }
+
+    /**
+     * @return {@code true} if the automatic module names are extracted with the jdkHome
+     * @since 1.6.1
+     */
+    public boolean isForkModuleNameExtractor() {
+        return forkModuleNameExtractor;
+    }
 }
@@ -0,0 +1,57 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.nio.file.Path;
+
+/**
+ * Emits Java Flight Recorder events while resolving paths, so a recording shows which path elements the time was
+ * spent on.
+ * <p>
+ * The {@code jdk.jfr} API requires Java 11, so this version emits nothing. The multirelease jar replaces it for
+ * Java 11 and later. Every {@code begin} method returns the started event, or {@code null} if no event is emitted,
+ * which must be passed to the matching {@code commit} method.
+ * </p>
+ *
+ * @since 1.6.1
+ */
+final class ResolvePathsEvents {
+    private ResolvePathsEvents() {}
+
+    static Object beginResolvePaths() {
+        return null;
+    }
+
+    static void commitResolvePaths(
+            Object event, int requests, int pathElements, int modulepathElements, int classpathElements) {}
+
+    static Object beginProbe() {
+        return null;
+    }
+
+    static void commitProbe(
+            Object event, Path path, ModuleNameSource source, long archiveSize, boolean cached, boolean failed) {}
+
+    static Object beginForkedExtractor() {
+        return null;
+    }
+
+    static void commitForkedExtractor(Object event, Path jdkHome, int archives, boolean keepAlive) {}
+}
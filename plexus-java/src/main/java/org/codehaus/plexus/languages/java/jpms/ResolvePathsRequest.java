@@ -25,6 +25,7 @@ import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.concurrent.Executor;
 
 /**
  * Contains all information required to analyze the project
@@ -35,6 +36,8 @@ import java.util.Collections;
 public abstract class ResolvePathsRequest<T> {
     private Path jdkHome;
 
+    private boolean forkModuleNameExtractor;
+
     private Path mainModuleDescriptor;
 
     private Collection<T> pathElements;
@@ -47,6 +50,14 @@ public abstract class ResolvePathsRequest<T> {
 
     private boolean includeStatic;
 
+    private Path cacheDirectory;
+
+    private Executor executor;
+
+    private ParseDepth parseDepth = ParseDepth.FULL;
+
+    private boolean collectStatistics;
+
     private ResolvePathsRequest() {}
 
     /**
@@ -160,7 +171,8 @@ public abstract class ResolvePathsRequest<T> {
     }
 
     /**
-     * In case the JRE is Java 8 or before, this jdkHome is used to extract the module name.
+     * The JDK to resolve for, its module descriptors may be compiled for a newer Java version than the JRE.
+     * See {@link #setForkModuleNameExtractor(boolean)} to extract the automatic module names with it too.
      *
      * @param jdkHome
      * @return this request
@@ -174,6 +186,29 @@ public abstract class ResolvePathsRequest<T> {
         return jdkHome;
     }
 
+    /**
+     * Automatic module names are derived in-process. When {@code true} and a jdkHome is set, the {@code java}
+     * executable of the jdkHome is used instead, for the rare case its rules differ from this implementation.
+     * The caches of the {@link LocationManager} keep the names derived either way apart, so switching takes effect
+     * immediately.
+     *
+     * @param forkModuleNameExtractor {@code true} to extract the automatic module names with the jdkHome
+     * @return this request
+     * @since 1.6.1
+     */
+    public ResolvePathsRequest<T> setForkModuleNameExtractor(boolean forkModuleNameExtractor) {
+        this.forkModuleNameExtractor = forkModuleNameExtractor;
+        return this;
+    }
+
+    /**
+     * @return {@code true} if the automatic module names are extracted with the jdkHome
+     * @since 1.6.1
+     */
+    public boolean isForkModuleNameExtractor() {
+        return forkModuleNameExtractor;
+    }
+
     /**
      * The module names that are usually passed with {@code --add-modules}
      *
@@ -226,4 +261,95 @@ public abstract class ResolvePathsRequest<T> {
         this.includeStatic = includeStatic;
         return this;
     }
+
+    /**
+     * Directory to store the resolved module descriptors of archives, so they don't have to be opened again by
+     * subsequent calls, even across builds. Entries are validated against the size and last modified time of the
+     * archive. The directory may be shared by concurrent builds.
+     *
+     * @param cacheDirectory the cache directory, or {@code null} to disable the persistent cache
+     * @return this request
+     * @since 1.6.1
+     */
+    public ResolvePathsRequest<T> setCacheDirectory(T cacheDirectory) {
+        this.cacheDirectory = cacheDirectory != null ? toPath(cacheDirectory) : null;
+        return this;
+    }
+
+    /**
+     *
+     * @return the directory of the persistent cache, or {@code null} if disabled
+     * @since 1.6.1
+     */
+    public Path getCacheDirectory() {
+        return cacheDirectory;
+    }
+
+    /**
+     * Executor to probe the path elements concurrently, which mainly helps for long paths on fast storage.
+     * The result is the same as without executor: the order of the elements is respected and in case of identical
+     * module names the first one still wins.
+     *
+     * @param executor the executor, or {@code null} to probe the path elements one after another
+     * @return this request
+     * @since 1.6.1
+     */
+    public ResolvePathsRequest<T> setExecutor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     *
+     * @return the executor to probe the path elements, or {@code null}
+     * @since 1.6.1
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Reading only the directives required to select the modules saves time and memory on long paths. The
+     * descriptors of the path elements read the skipped directives once they're asked for, so the result is the same.
+     * Service directives are always read when {@link #setIncludeAllProviders(boolean)} is set.
+     *
+     * @param parseDepth how much of the module descriptors of the path elements must be read upfront
+     * @return this request
+     * @since 1.6.1
+     */
+    public ResolvePathsRequest<T> setParseDepth(ParseDepth parseDepth) {
+        this.parseDepth = parseDepth;
+        return this;
+    }
+
+    /**
+     *
+     * @return how much of the module descriptors of the path elements must be read upfront
+     * @since 1.6.1
+     */
+    public ParseDepth getParseDepth() {
+        return parseDepth;
+    }
+
+    /**
+     * Records where the time of the resolution goes, per phase and per path element, see
+     * {@link ResolvePathsResult#getStatistics()}. Without it nothing is measured.
+     *
+     * @param collectStatistics {@code true} to collect statistics
+     * @return this request
+     * @since 1.6.1
+     */
+    public ResolvePathsRequest<T> setCollectStatistics(boolean collectStatistics) {
+        this.collectStatistics = collectStatistics;
+        return this;
+    }
+
+    /**
+     *
+     * @return {@code true} if statistics are collected
+     * @since 1.6.1
+     */
+    public boolean isCollectStatistics() {
+        return collectStatistics;
+    }
 }
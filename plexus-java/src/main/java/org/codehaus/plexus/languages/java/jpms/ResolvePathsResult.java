@@ -21,6 +21,7 @@ package org.codehaus.plexus.languages.java.jpms;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -45,6 +46,12 @@ public class ResolvePathsResult<T> {
 
     private Map<T, Exception> pathExceptions = new HashMap<>();
 
+    private volatile ModuleGraph moduleGraph;
+
+    private ResolvePathsState<T> state;
+
+    private ResolvePathsStatistics<T> statistics;
+
     void setMainModuleDescriptor(JavaModuleDescriptor mainModuleDescriptor) {
         this.mainModuleDescriptor = mainModuleDescriptor;
     }
@@ -112,6 +119,56 @@ public class ResolvePathsResult<T> {
         return pathExceptions;
     }
 
+    /**
+     * The graph of the main module and the named modules of all path elements, whether they belong to the modulepath
+     * or not. It is created the first time it is asked for.
+     *
+     * @return the module graph, never {@code null}
+     * @since 1.6.1
+     */
+    public ModuleGraph getModuleGraph() {
+        ModuleGraph graph = moduleGraph;
+        if (graph == null) {
+            synchronized (this) {
+                graph = moduleGraph;
+                if (graph == null) {
+                    graph = new ModuleGraph(
+                            mainModuleDescriptor,
+                            pathElements != null ? pathElements.values() : Collections.emptyList());
+                    moduleGraph = graph;
+                }
+            }
+        }
+        return graph;
+    }
+
+    void setState(ResolvePathsState<T> state) {
+        this.state = state;
+    }
+
+    /**
+     * @return what the resolution was based on, {@code null} if the result wasn't created by the
+     *         {@link LocationManager}
+     */
+    ResolvePathsState<T> getState() {
+        return state;
+    }
+
+    void setStatistics(ResolvePathsStatistics<T> statistics) {
+        this.statistics = statistics;
+    }
+
+    /**
+     * Where the time of the resolution went, only collected on request.
+     *
+     * @return the statistics, {@code null} if these weren't collected
+     * @since 1.6.1
+     * @see ResolvePathsRequest#setCollectStatistics(boolean)
+     */
+    public ResolvePathsStatistics<T> getStatistics() {
+        return statistics;
+    }
+
     @Override
     public String toString() {
         return "ResolvePathsResult{" + System.lineSeparator() + "mainModuleDescriptor="
@@ -0,0 +1,221 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.codehaus.plexus.languages.java.jpms.JavaModuleDescriptor.JavaRequires;
+
+/**
+ * What a resolution of paths was based on, so a later resolution can reuse the parts which didn't change, see
+ * {@link LocationManager#resolvePaths(ResolvePathsRequest, ResolvePathsResult)}.
+ *
+ * @since 1.6.1
+ */
+final class ResolvePathsState<T> {
+    private final List<Object> probeSettings;
+
+    private final Map<T, ProbedElement> elements;
+
+    private final JavaModuleDescriptor mainModuleDescriptor;
+
+    private final List<String> additionalModules;
+
+    private final boolean includeStatic;
+
+    private final Map<String, JavaModuleDescriptor> availableModules;
+
+    private final Map<String, Set<String>> availableProviders;
+
+    private final ModuleSelector selector;
+
+    /**
+     * @param probeSettings the settings of the request which influence the result of probing a path element
+     * @param elements the probed path elements
+     * @param mainModuleDescriptor the main module, may be {@code null}
+     * @param additionalModules the additional modules, in the order of the request
+     * @param includeStatic the includeStatic of the request
+     * @param availableModules the modules the selection was based on
+     * @param availableProviders the providers the selection was based on
+     * @param selector the selected modules
+     */
+    ResolvePathsState(
+            List<Object> probeSettings,
+            Map<T, ProbedElement> elements,
+            JavaModuleDescriptor mainModuleDescriptor,
+            Collection<String> additionalModules,
+            boolean includeStatic,
+            Map<String, JavaModuleDescriptor> availableModules,
+            Map<String, Set<String>> availableProviders,
+            ModuleSelector selector) {
+        this.probeSettings = probeSettings;
+        this.elements = elements;
+        this.mainModuleDescriptor = mainModuleDescriptor;
+        this.additionalModules = new ArrayList<>(additionalModules);
+        this.includeStatic = includeStatic;
+        this.availableModules = availableModules;
+        this.availableProviders = availableProviders;
+        this.selector = selector;
+    }
+
+    /**
+     * @param probeSettings the settings of the current request
+     * @return the probed path elements, or {@code null} if these were probed with other settings
+     */
+    Map<T, ProbedElement> getElements(List<Object> probeSettings) {
+        return this.probeSettings.equals(probeSettings) ? elements : null;
+    }
+
+    /**
+     * The selection can be reused if nothing it looked at changed: the roots, the descriptors of the selected modules,
+     * whether the modules they require are available and which modules provide the services they use.
+     *
+     * @return the previous selection, or {@code null} if the modules must be selected again
+     */
+    ModuleSelector getSelector(
+            JavaModuleDescriptor mainModuleDescriptor,
+            Collection<String> additionalModules,
+            boolean includeStatic,
+            Map<String, JavaModuleDescriptor> availableModules,
+            Map<String, Set<String>> availableProviders) {
+        if (this.includeStatic != includeStatic
+                || this.availableProviders.isEmpty() != availableProviders.isEmpty()
+                || !this.additionalModules.equals(new ArrayList<>(additionalModules))
+                || !isSameMainModule(mainModuleDescriptor)) {
+            return null;
+        }
+
+        for (String additionalModule : additionalModules) {
+            if (!isSameAvailability(additionalModule, availableModules)) {
+                return null;
+            }
+        }
+
+        if (mainModuleDescriptor != null && !isUnaffected(mainModuleDescriptor, availableModules, availableProviders)) {
+            return null;
+        }
+
+        for (JavaModuleDescriptor previous : this.availableModules.values()) {
+            if (!selector.isSelected(previous.name())) {
+                continue;
+            }
+
+            JavaModuleDescriptor current = availableModules.get(previous.name());
+            if (current == null) {
+                return null;
+            }
+            if (current != previous
+                    && (!current.requires().equals(previous.requires())
+                            || !availableProviders.isEmpty() && !current.uses().equals(previous.uses()))) {
+                return null;
+            }
+            if (!isUnaffected(current, availableModules, availableProviders)) {
+                return null;
+            }
+        }
+        return selector;
+    }
+
+    private boolean isSameMainModule(JavaModuleDescriptor mainModuleDescriptor) {
+        if (this.mainModuleDescriptor == null || mainModuleDescriptor == null) {
+            return this.mainModuleDescriptor == mainModuleDescriptor;
+        }
+        // equals() ignores the services, its provides end up in the providers
+        return this.mainModuleDescriptor.name().equals(mainModuleDescriptor.name())
+                && this.mainModuleDescriptor.requires().equals(mainModuleDescriptor.requires())
+                && this.mainModuleDescriptor.uses().equals(mainModuleDescriptor.uses());
+    }
+
+    private boolean isUnaffected(
+            JavaModuleDescriptor module,
+            Map<String, JavaModuleDescriptor> availableModules,
+            Map<String, Set<String>> availableProviders) {
+        for (JavaRequires requires : module.requires()) {
+            if (!isSameAvailability(requires.name(), availableModules)) {
+                return false;
+            }
+        }
+
+        if (!availableProviders.isEmpty()) {
+            for (String uses : module.uses()) {
+                // the providers are selected in the iteration order of the set
+                if (!Objects.equals(providers(this.availableProviders, uses), providers(availableProviders, uses))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean isSameAvailability(String name, Map<String, JavaModuleDescriptor> availableModules) {
+        return this.availableModules.containsKey(name) == availableModules.containsKey(name);
+    }
+
+    private static List<String> providers(Map<String, Set<String>> availableProviders, String service) {
+        Set<String> providers = availableProviders.get(service);
+        return providers != null ? new ArrayList<>(providers) : null;
+    }
+
+    /**
+     * The outcome of probing a single path element.
+     */
+    static final class ProbedElement {
+        private final PathFingerprint fingerprint;
+
+        private final ResolvePathResult result;
+
+        private final Exception exception;
+
+        ProbedElement(PathFingerprint fingerprint, ResolvePathResult result, Exception exception) {
+            this.fingerprint = fingerprint;
+            this.result = result;
+            this.exception = exception;
+        }
+
+        /**
+         * @param fingerprint the current fingerprint of the path element
+         * @return {@code true} if the path element didn't change since it was probed
+         */
+        boolean matches(PathFingerprint fingerprint) {
+            return this.fingerprint.equals(fingerprint);
+        }
+
+        /**
+         * @return the result of probing the path element
+         * @throws IOException the exception of probing the path element
+         */
+        ResolvePathResult getResult() throws IOException {
+            if (exception instanceof IOException) {
+                throw (IOException) exception;
+            } else if (exception instanceof RuntimeException) {
+                throw (RuntimeException) exception;
+            } else if (exception != null) {
+                throw new IOException(exception);
+            }
+            return result;
+        }
+    }
+}
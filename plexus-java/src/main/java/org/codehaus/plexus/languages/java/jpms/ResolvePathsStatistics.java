@@ -0,0 +1,202 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Where the time of a resolution of paths went, to find out why a build is slow.
+ * <p>
+ * The phases {@link Phase#MODULE_DESCRIPTOR}, {@link Phase#MANIFEST} and {@link Phase#FILENAME} happen per path
+ * element, possibly concurrently, so these are the sum over all path elements. The other phases are wall time.
+ * Path elements served from a cache or reused from a previous result don't spend time in these three phases.
+ * </p>
+ * <p>
+ * The binary parser opens an archive once and reads all it needs while looking for the module descriptor, so opening
+ * the archive is part of {@link Phase#MODULE_DESCRIPTOR}. For an archive without module descriptor this includes
+ * reading its manifest and deriving the module name from its filename, the phases {@link Phase#MANIFEST} and
+ * {@link Phase#FILENAME} then only take the names found by the parser.
+ * </p>
+ *
+ * @since 1.6.1
+ * @see ResolvePathsRequest#setCollectStatistics(boolean)
+ */
+public final class ResolvePathsStatistics<T> {
+    /**
+     * The phases of a resolution.
+     */
+    public enum Phase {
+        /**
+         * Reading the main module descriptor.
+         */
+        MAIN_MODULE_DESCRIPTOR,
+
+        /**
+         * Probing all path elements, including the phases per path element and the forked extractor.
+         */
+        PATH_ELEMENTS,
+
+        /**
+         * Opening the path elements and parsing their module descriptor, including what the parser reads of archives
+         * without module descriptor.
+         */
+        MODULE_DESCRIPTOR,
+
+        /**
+         * Reading the {@code Automatic-Module-Name} of path elements without module descriptor which the parser didn't
+         * read already.
+         */
+        MANIFEST,
+
+        /**
+         * Deriving the module name of path elements from their filename in-process, when the parser didn't derive it
+         * already.
+         */
+        FILENAME,
+
+        /**
+         * Deriving the module names from the filenames with the forked {@code MainClassModuleNameExtractor}.
+         */
+        FORKED_EXTRACTOR,
+
+        /**
+         * Selecting the required modules and dividing the path elements over the modulepath and classpath.
+         */
+        SELECTION
+    }
+
+    private final AtomicLongArray phaseNanos = new AtomicLongArray(Phase.values().length);
+
+    // path elements are probed concurrently, their order is kept by the request
+    private final Map<T, Long> pathElementNanos = new ConcurrentHashMap<>();
+
+    private final Collection<T> pathElements;
+
+    private final Map<ModuleNameSource, Integer> moduleNameSourceCounts = new EnumMap<>(ModuleNameSource.class);
+
+    /**
+     * @param pathElements the path elements of the request, in the order of the request
+     */
+    ResolvePathsStatistics(Collection<T> pathElements) {
+        this.pathElements = pathElements;
+    }
+
+    /**
+     * @return the start of a measurement, {@code 0} if no statistics are collected
+     */
+    static long start(ResolvePathsStatistics<?> statistics) {
+        return statistics != null ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Adds the time since {@code start} to the phase, if statistics are collected.
+     */
+    static void stop(ResolvePathsStatistics<?> statistics, Phase phase, long start) {
+        if (statistics != null) {
+            statistics.phaseNanos.addAndGet(phase.ordinal(), System.nanoTime() - start);
+        }
+    }
+
+    void addPhase(Phase phase, long nanos) {
+        phaseNanos.addAndGet(phase.ordinal(), nanos);
+    }
+
+    void addPathElement(T pathElement, long nanos) {
+        pathElementNanos.merge(pathElement, nanos, Long::sum);
+    }
+
+    void countModuleNameSource(ModuleNameSource source) {
+        moduleNameSourceCounts.merge(source, 1, Integer::sum);
+    }
+
+    /**
+     * Adds the phases of probing path elements which were shared with other resolutions.
+     */
+    void addProbing(ResolvePathsStatistics<?> probing) {
+        for (Phase phase : Phase.values()) {
+            if (phase != Phase.MAIN_MODULE_DESCRIPTOR && phase != Phase.SELECTION) {
+                addPhase(phase, probing.phaseNanos.get(phase.ordinal()));
+            }
+        }
+    }
+
+    /**
+     * @return the time spent on probing the path element in nanoseconds, {@code 0} if it wasn't probed
+     */
+    long getPathElementNanos(Object pathElement) {
+        Long nanos = pathElementNanos.get(pathElement);
+        return nanos != null ? nanos : 0L;
+    }
+
+    /**
+     * @param phase the phase
+     * @return the time spent in the phase
+     */
+    public Duration getDuration(Phase phase) {
+        return Duration.ofNanos(phaseNanos.get(phase.ordinal()));
+    }
+
+    /**
+     * @param pathElement the path element
+     * @return the time spent on probing the path element, {@link Duration#ZERO} if it wasn't probed
+     */
+    public Duration getDuration(T pathElement) {
+        return Duration.ofNanos(getPathElementNanos(pathElement));
+    }
+
+    /**
+     * @return the time spent on probing every path element, in the order of the request
+     */
+    public Map<T, Duration> getPathElementDurations() {
+        Map<T, Duration> durations = new LinkedHashMap<>(pathElementNanos.size() * 4 / 3 + 1);
+        for (T pathElement : pathElements) {
+            Long nanos = pathElementNanos.get(pathElement);
+            if (nanos != null) {
+                durations.put(pathElement, Duration.ofNanos(nanos));
+            }
+        }
+        return Collections.unmodifiableMap(durations);
+    }
+
+    /**
+     * @param source the source of the module name
+     * @return the number of path elements of which the module name came from this source
+     */
+    public int getModuleNameSourceCount(ModuleNameSource source) {
+        return moduleNameSourceCounts.getOrDefault(source, 0);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder phases = new StringBuilder();
+        for (Phase phase : Phase.values()) {
+            phases.append(phases.length() == 0 ? "" : ", ").append(phase).append('=').append(getDuration(phase));
+        }
+        return "ResolvePathsStatistics{" + "phases={" + phases + "}, pathElements=" + pathElementNanos.size()
+                + ", moduleNameSources=" + moduleNameSourceCounts + '}';
+    }
+}
@@ -20,6 +20,7 @@ package org.codehaus.plexus.languages.java.jpms;
  */
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -37,7 +38,8 @@ import com.github.javaparser.ast.modules.ModuleRequiresDirective;
 import com.github.javaparser.ast.modules.ModuleUsesDirective;
 
 /**
- * Extracts information from a source module descriptor.
+ * Extracts information from a source module descriptor. The {@link ModuleDeclarationParser} is tried first, JavaParser
+ * is only used for the sources it doesn't support.
  *
  * @author Robert Scholte
  * @since 1.0.0
@@ -45,33 +47,46 @@ import com.github.javaparser.ast.modules.ModuleUsesDirective;
 class SourceModuleInfoParser {
 
     public JavaModuleDescriptor fromSourcePath(Path modulePath) throws IOException {
-        JavaModuleDescriptor.Builder builder;
+        JavaModuleDescriptor descriptor;
         if (Files.exists(modulePath)) {
-            ModuleDeclaration descriptor = StaticJavaParser.parse(modulePath)
-                    .getModule()
-                    .orElseThrow(() -> new IOException("Module declaration not found in " + modulePath));
+            String source = new String(Files.readAllBytes(modulePath), StandardCharsets.UTF_8);
 
-            builder = JavaModuleDescriptor.newModule(descriptor.getName().asString());
+            descriptor = ModuleDeclarationParser.parse(source);
 
-            for (ModuleDirective directive : descriptor.getDirectives()) {
-                if (directive instanceof ModuleRequiresDirective) {
-                    addRequires(builder, (ModuleRequiresDirective) directive);
-                } else if (directive instanceof ModuleExportsDirective) {
-                    addExports(builder, (ModuleExportsDirective) directive);
-                } else if (directive instanceof ModuleUsesDirective) {
-                    ModuleUsesDirective uses = (ModuleUsesDirective) directive;
-                    builder.uses(uses.getName().asString());
-                } else if (directive instanceof ModuleProvidesDirective) {
-                    ModuleProvidesDirective provides = (ModuleProvidesDirective) directive;
-                    List<String> providers = new ArrayList<>(provides.getWith().size());
-                    for (Name provider : provides.getWith()) {
-                        providers.add(provider.asString());
-                    }
-                    builder.provides(provides.getName().asString(), providers);
-                }
+            if (descriptor == null) {
+                // not supported by the lightweight parser, or not valid at all
+                descriptor = parseWithJavaParser(source, modulePath);
             }
         } else {
-            builder = JavaModuleDescriptor.newAutomaticModule(null);
+            descriptor = JavaModuleDescriptor.newAutomaticModule(null).build();
+        }
+
+        return descriptor;
+    }
+
+    JavaModuleDescriptor parseWithJavaParser(String source, Path modulePath) throws IOException {
+        ModuleDeclaration descriptor = StaticJavaParser.parse(source)
+                .getModule()
+                .orElseThrow(() -> new IOException("Module declaration not found in " + modulePath));
+
+        JavaModuleDescriptor.Builder builder = JavaModuleDescriptor.newModule(descriptor.getName().asString());
+
+        for (ModuleDirective directive : descriptor.getDirectives()) {
+            if (directive instanceof ModuleRequiresDirective) {
+                addRequires(builder, (ModuleRequiresDirective) directive);
+            } else if (directive instanceof ModuleExportsDirective) {
+                addExports(builder, (ModuleExportsDirective) directive);
+            } else if (directive instanceof ModuleUsesDirective) {
+                ModuleUsesDirective uses = (ModuleUsesDirective) directive;
+                builder.uses(uses.getName().asString());
+            } else if (directive instanceof ModuleProvidesDirective) {
+                ModuleProvidesDirective provides = (ModuleProvidesDirective) directive;
+                List<String> providers = new ArrayList<>(provides.getWith().size());
+                for (Name provider : provides.getWith()) {
+                    providers.add(provider.asString());
+                }
+                builder.provides(provides.getName().asString(), providers);
+            }
         }
 
         return builder.build();
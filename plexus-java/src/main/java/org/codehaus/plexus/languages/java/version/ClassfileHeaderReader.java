@@ -0,0 +1,461 @@
+package org.codehaus.plexus.languages.java.version;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+/**
+ * Reads only the header of class files, the magic number and the version. For jars the entries are located with the
+ * central directory, so neither the other entries nor the rest of the class files are read, apart from the manifest
+ * which tells whether the jar is a multi-release jar.
+ * This class is intended to be package-private.
+ *
+ * @since 1.6.1
+ */
+final class ClassfileHeaderReader {
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final int HEADER_LENGTH = 8;
+
+    private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+
+    private static final int END_OF_CENTRAL_DIRECTORY_LENGTH = 22;
+
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY = 0x06064b50;
+
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR = 0x07064b50;
+
+    private static final int ZIP64_LOCATOR_LENGTH = 20;
+
+    private static final int CENTRAL_DIRECTORY_ENTRY = 0x02014b50;
+
+    private static final int CENTRAL_DIRECTORY_ENTRY_LENGTH = 46;
+
+    private static final int LOCAL_HEADER = 0x04034b50;
+
+    private static final int LOCAL_HEADER_LENGTH = 30;
+
+    private static final int STORED = 0;
+
+    private static final int DEFLATED = 8;
+
+    private static final int ZIP64_EXTRA = 0x0001;
+
+    private static final long ZIP64_MAGIC_VALUE = 0xFFFFFFFFL;
+
+    private static final byte[] CLASS_SUFFIX = ".class".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] MANIFEST_NAME = JarFile.MANIFEST_NAME.getBytes(StandardCharsets.US_ASCII);
+
+    // enough for the local header, the name, the usual extra fields and the start of the data
+    private static final int LOCAL_READ_LENGTH = 512;
+
+    /**
+     * Receives the version of every class file.
+     */
+    interface Visitor {
+        /**
+         * @param name the name of the class file, relative to the jar or directory, always with {@code /}
+         * @param version the version of the class file
+         * @return {@code true} to continue, {@code false} to stop reading
+         */
+        boolean visit(String name, JavaClassfileVersion version);
+
+        /**
+         * Called for the manifest of a jar, which may come before or after the class files.
+         *
+         * @param manifest the manifest
+         */
+        default void visitManifest(Manifest manifest) {}
+    }
+
+    private ClassfileHeaderReader() {}
+
+    /**
+     * @param path a jar or a directory of class files
+     * @param visitor receives every class file, entries which aren't class files at all are skipped
+     * @throws IOException if the jar or directory couldn't be read
+     */
+    static void read(Path path, Visitor visitor) throws IOException {
+        if (Files.isDirectory(path)) {
+            readDirectory(path, visitor);
+        } else {
+            readJar(path, visitor);
+        }
+    }
+
+    private static void readDirectory(Path directory, Visitor visitor) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+
+        try (Stream<Path> files = Files.walk(directory)) {
+            Iterator<Path> iterator = files.iterator();
+            while (iterator.hasNext()) {
+                Path file = iterator.next();
+                if (!file.getFileName().toString().endsWith(".class") || !Files.isRegularFile(file)) {
+                    continue;
+                }
+
+                header.clear();
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    while (header.hasRemaining() && channel.read(header) >= 0) {
+                        // read until the header is complete or the file ends
+                    }
+                }
+
+                JavaClassfileVersion version = parseHeader(header.array(), header.position());
+                if (version != null) {
+                    String name = directory.relativize(file).toString().replace('\\', '/');
+                    if (!visitor.visit(name, version)) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private static void readJar(Path jar, Visitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(jar, StandardOpenOption.READ)) {
+            long size = channel.size();
+
+            // the end of central directory record is followed by a comment of at most 65535 bytes
+            int tailLength = (int) Math.min(size, END_OF_CENTRAL_DIRECTORY_LENGTH + 0xFFFF);
+            ByteBuffer tail = read(channel, size - tailLength, tailLength);
+
+            int eocd = -1;
+            for (int index = tailLength - END_OF_CENTRAL_DIRECTORY_LENGTH; index >= 0; index--) {
+                if (tail.getInt(index) == END_OF_CENTRAL_DIRECTORY) {
+                    eocd = index;
+                    break;
+                }
+            }
+            if (eocd < 0) {
+                throw new ZipException("Not a jar, end of central directory not found: " + jar);
+            }
+
+            long eocdPosition = size - tailLength + eocd;
+            long entries = tail.getShort(eocd + 10) & 0xFFFF;
+            long directorySize = tail.getInt(eocd + 12) & 0xFFFFFFFFL;
+            long directoryOffset = tail.getInt(eocd + 16) & 0xFFFFFFFFL;
+            long directoryPosition = eocdPosition - directorySize;
+
+            if (eocdPosition >= ZIP64_LOCATOR_LENGTH
+                    && (entries == 0xFFFF
+                            || directorySize == ZIP64_MAGIC_VALUE
+                            || directoryOffset == ZIP64_MAGIC_VALUE)) {
+                ByteBuffer locator = read(channel, eocdPosition - ZIP64_LOCATOR_LENGTH, ZIP64_LOCATOR_LENGTH);
+                if (locator.getInt(0) == ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR) {
+                    long zip64Position = locator.getLong(8);
+                    ByteBuffer zip64 = read(channel, zip64Position, 56);
+                    if (zip64.getInt(0) != ZIP64_END_OF_CENTRAL_DIRECTORY) {
+                        throw new ZipException("Invalid zip64 end of central directory: " + jar);
+                    }
+                    entries = zip64.getLong(32);
+                    directorySize = zip64.getLong(40);
+                    directoryOffset = zip64.getLong(48);
+                    directoryPosition = zip64Position - directorySize;
+                }
+            }
+
+            if (directorySize > Integer.MAX_VALUE || directoryPosition < 0) {
+                throw new ZipException("Invalid central directory: " + jar);
+            }
+
+            // the offsets are relative to the start of the zip, which isn't the start of the file when prefixed
+            long base = directoryPosition - directoryOffset;
+
+            ByteBuffer directory = read(channel, directoryPosition, (int) directorySize);
+
+            Inflater inflater = null;
+            try {
+                int position = 0;
+                for (long entry = 0; entry < entries; entry++) {
+                    if (directory.getInt(position) != CENTRAL_DIRECTORY_ENTRY) {
+                        throw new ZipException("Invalid central directory entry: " + jar);
+                    }
+                    int method = directory.getShort(position + 10) & 0xFFFF;
+                    long compressedSize = directory.getInt(position + 20) & 0xFFFFFFFFL;
+                    long uncompressedSize = directory.getInt(position + 24) & 0xFFFFFFFFL;
+                    int nameLength = directory.getShort(position + 28) & 0xFFFF;
+                    int extraLength = directory.getShort(position + 30) & 0xFFFF;
+                    int commentLength = directory.getShort(position + 32) & 0xFFFF;
+                    long localOffset = directory.getInt(position + 42) & 0xFFFFFFFFL;
+
+                    int namePosition = position + CENTRAL_DIRECTORY_ENTRY_LENGTH;
+                    position = namePosition + nameLength + extraLength + commentLength;
+
+                    boolean manifest = equalsIgnoreCase(directory, namePosition, nameLength, MANIFEST_NAME);
+                    if (!manifest && !endsWith(directory, namePosition, nameLength, CLASS_SUFFIX)) {
+                        continue;
+                    }
+
+                    if (uncompressedSize == ZIP64_MAGIC_VALUE
+                            || compressedSize == ZIP64_MAGIC_VALUE
+                            || localOffset == ZIP64_MAGIC_VALUE) {
+                        long[] values = {uncompressedSize, compressedSize, localOffset};
+                        readZip64Extra(directory, namePosition + nameLength, extraLength, values);
+                        uncompressedSize = values[0];
+                        compressedSize = values[1];
+                        localOffset = values[2];
+                    }
+
+                    int length = HEADER_LENGTH;
+                    if (manifest) {
+                        if (uncompressedSize > Integer.MAX_VALUE) {
+                            throw new ZipException("Manifest too large: " + jar);
+                        }
+                        length = (int) uncompressedSize;
+                    }
+
+                    byte[] header;
+                    if (method == STORED) {
+                        header = readStored(channel, base + localOffset, compressedSize, length);
+                    } else if (method == DEFLATED) {
+                        if (inflater == null) {
+                            inflater = new Inflater(true);
+                        }
+                        header = readDeflated(channel, base + localOffset, compressedSize, length, inflater);
+                    } else {
+                        // unsupported compression, can't be loaded as class either
+                        continue;
+                    }
+
+                    if (manifest) {
+                        visitor.visitManifest(new Manifest(new ByteArrayInputStream(header)));
+                        continue;
+                    }
+
+                    JavaClassfileVersion version = parseHeader(header, header.length);
+                    if (version != null) {
+                        byte[] name = new byte[nameLength];
+                        for (int index = 0; index < nameLength; index++) {
+                            name[index] = directory.get(namePosition + index);
+                        }
+                        if (!visitor.visit(new String(name, StandardCharsets.UTF_8), version)) {
+                            return;
+                        }
+                    }
+                }
+            } catch (IndexOutOfBoundsException e) {
+                throw new ZipException("Truncated central directory: " + jar);
+            } finally {
+                if (inflater != null) {
+                    inflater.end();
+                }
+            }
+        }
+    }
+
+    private static boolean endsWith(ByteBuffer buffer, int position, int length, byte[] suffix) {
+        if (length < suffix.length) {
+            return false;
+        }
+        int start = position + length - suffix.length;
+        for (int index = 0; index < suffix.length; index++) {
+            if (buffer.get(start + index) != suffix[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean equalsIgnoreCase(ByteBuffer buffer, int position, int length, byte[] ascii) {
+        if (length != ascii.length) {
+            return false;
+        }
+        for (int index = 0; index < length; index++) {
+            byte b = buffer.get(position + index);
+            if (b != ascii[index] && Character.toUpperCase((char) b) != Character.toUpperCase((char) ascii[index])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Replaces the values which don't fit in 32 bits by those of the zip64 extra field, in the order of the field.
+     */
+    private static void readZip64Extra(ByteBuffer directory, int position, int length, long[] values) {
+        int end = position + length;
+        while (position + 4 <= end) {
+            int id = directory.getShort(position) & 0xFFFF;
+            int size = directory.getShort(position + 2) & 0xFFFF;
+            if (id == ZIP64_EXTRA) {
+                int field = position + 4;
+                for (int index = 0; index < values.length && field + 8 <= position + 4 + size; index++) {
+                    if (values[index] == ZIP64_MAGIC_VALUE) {
+                        values[index] = directory.getLong(field);
+                        field += 8;
+                    }
+                }
+                return;
+            }
+            position += 4 + size;
+        }
+    }
+
+    /**
+     * @return the position of the data of the entry, given the first bytes read at the local header
+     */
+    private static long dataPosition(ByteBuffer local, long localPosition) throws ZipException {
+        if (local.limit() < LOCAL_HEADER_LENGTH || local.getInt(0) != LOCAL_HEADER) {
+            throw new ZipException("Invalid local header at " + localPosition);
+        }
+        int nameLength = local.getShort(26) & 0xFFFF;
+        int extraLength = local.getShort(28) & 0xFFFF;
+        return localPosition + LOCAL_HEADER_LENGTH + nameLength + extraLength;
+    }
+
+    /**
+     * @return the first {@code length} bytes of the entry, less if the entry is shorter
+     */
+    private static byte[] readStored(FileChannel channel, long localPosition, long size, int length)
+            throws IOException {
+        ByteBuffer local = read(channel, localPosition, LOCAL_READ_LENGTH);
+        long dataPosition = dataPosition(local, localPosition);
+
+        length = (int) Math.min(size, length);
+
+        int offset = (int) (dataPosition - localPosition);
+        ByteBuffer data;
+        if (offset + length <= local.limit()) {
+            local.position(offset);
+            data = local;
+        } else {
+            data = read(channel, dataPosition, length);
+            length = data.limit();
+        }
+
+        byte[] header = new byte[length];
+        data.get(header);
+        return header;
+    }
+
+    /**
+     * @return the first {@code length} bytes of the entry, less if the entry is shorter
+     */
+    private static byte[] readDeflated(
+            FileChannel channel, long localPosition, long compressedSize, int length, Inflater inflater)
+            throws IOException {
+        ByteBuffer local = read(channel, localPosition, LOCAL_READ_LENGTH);
+        long dataPosition = dataPosition(local, localPosition);
+
+        byte[] header = new byte[length];
+        int inflated = 0;
+
+        inflater.reset();
+        try {
+            byte[] input = new byte[LOCAL_READ_LENGTH];
+            int offset = (int) (dataPosition - localPosition);
+            long remaining = compressedSize;
+
+            // start with what has already been read along with the local header
+            int available = (int) Math.max(0, Math.min(local.limit() - offset, remaining));
+            for (int index = 0; index < available; index++) {
+                input[index] = local.get(offset + index);
+            }
+            long next = dataPosition + available;
+            remaining -= available;
+            inflater.setInput(input, 0, available);
+
+            while (inflated < length) {
+                int count = inflater.inflate(header, inflated, length - inflated);
+                inflated += count;
+                if (count == 0) {
+                    if (inflater.finished() || inflater.needsDictionary() || remaining <= 0) {
+                        break;
+                    }
+                    if (inflater.needsInput()) {
+                        int chunkLength = (int) Math.min(input.length, remaining);
+                        ByteBuffer chunk = read(channel, next, chunkLength);
+                        chunkLength = chunk.limit();
+                        if (chunkLength == 0) {
+                            break;
+                        }
+                        chunk.get(input, 0, chunkLength);
+                        next += chunkLength;
+                        remaining -= chunkLength;
+                        inflater.setInput(input, 0, chunkLength);
+                    }
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new ZipException("Invalid deflated data at " + localPosition + ": " + e.getMessage());
+        }
+
+        if (inflated < length) {
+            byte[] truncated = new byte[inflated];
+            System.arraycopy(header, 0, truncated, 0, inflated);
+            return truncated;
+        }
+        return header;
+    }
+
+    /**
+     * @return up to {@code length} bytes at the position, less at the end of the file
+     */
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * @return the version, or {@code null} if the bytes aren't the start of a class file
+     */
+    private static JavaClassfileVersion parseHeader(byte[] bytes, int length) {
+        if (length < HEADER_LENGTH) {
+            return null;
+        }
+        int magic = ((bytes[0] & 0xFF) << 24)
+                | ((bytes[1] & 0xFF) << 16)
+                | ((bytes[2] & 0xFF) << 8)
+                | (bytes[3] & 0xFF);
+        if (magic != MAGIC) {
+            return null;
+        }
+        int minor = ((bytes[4] & 0xFF) << 8) | (bytes[5] & 0xFF);
+        int major = ((bytes[6] & 0xFF) << 8) | (bytes[7] & 0xFF);
+        if (major < 45) {
+            return null;
+        }
+        return JavaClassfileVersion.valueOf(major, minor);
+    }
+}
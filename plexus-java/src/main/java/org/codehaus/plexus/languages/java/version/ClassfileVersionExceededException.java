@@ -0,0 +1,68 @@
+package org.codehaus.plexus.languages.java.version;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+/**
+ * Thrown by the {@link ClassfileVersionScanner} as soon as a class file exceeds the maximum Java version.
+ *
+ * @since 1.6.1
+ * @see ClassfileVersionScanner#setMaximumJavaVersion(JavaVersion)
+ */
+public class ClassfileVersionExceededException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final Path path;
+
+    private final String classfile;
+
+    private final JavaClassfileVersion version;
+
+    ClassfileVersionExceededException(Path path, String classfile, JavaClassfileVersion version, JavaVersion maximum) {
+        super(path + " contains " + classfile + " compiled for Java " + version.javaVersion() + ", which exceeds Java "
+                + maximum);
+        this.path = path;
+        this.classfile = classfile;
+        this.version = version;
+    }
+
+    /**
+     * @return the jar or directory
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return the name of the class file, relative to the jar or directory
+     */
+    public String getClassfile() {
+        return classfile;
+    }
+
+    /**
+     * @return the version of the class file
+     */
+    public JavaClassfileVersion getVersion() {
+        return version;
+    }
+}
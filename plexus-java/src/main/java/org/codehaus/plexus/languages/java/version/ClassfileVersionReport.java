@@ -0,0 +1,116 @@
+package org.codehaus.plexus.languages.java.version;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.NavigableMap;
+import java.util.SortedMap;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+/**
+ * The class file versions found in a jar or directory. The histogram counts every class file, including the versioned
+ * entries of a multi-release jar, use {@link #getMaximum(JavaVersion)} for the class files a runtime actually loads.
+ *
+ * @since 1.6.1
+ * @see ClassfileVersionScanner
+ */
+public final class ClassfileVersionReport {
+    private final Path path;
+
+    private final SortedMap<JavaClassfileVersion, Integer> histogram;
+
+    private final int classfileCount;
+
+    // the maximum from a release on, for multi-release jars only
+    private final NavigableMap<Integer, JavaClassfileVersion> releaseMaximums;
+
+    ClassfileVersionReport(
+            Path path,
+            SortedMap<JavaClassfileVersion, Integer> histogram,
+            NavigableMap<Integer, JavaClassfileVersion> releaseMaximums) {
+        this.path = path;
+        this.histogram = Collections.unmodifiableSortedMap(histogram);
+        this.releaseMaximums = releaseMaximums;
+
+        int count = 0;
+        for (int classfiles : histogram.values()) {
+            count += classfiles;
+        }
+        this.classfileCount = count;
+    }
+
+    /**
+     * @return the jar or directory
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return the highest class file version, or {@code null} if there are no class files
+     */
+    public JavaClassfileVersion getMaximum() {
+        return histogram.isEmpty() ? null : histogram.lastKey();
+    }
+
+    /**
+     * The highest class file version a runtime of the Java version loads. For a multi-release jar only the entries
+     * selected for that release are taken into account, see {@link MultiReleaseVersions}, for other jars and
+     * directories this is the same as {@link #getMaximum()}.
+     *
+     * @param javaVersion the Java version of the runtime
+     * @return the highest class file version, or {@code null} if there are no class files
+     */
+    public JavaClassfileVersion getMaximum(JavaVersion javaVersion) {
+        if (releaseMaximums == null) {
+            return getMaximum();
+        }
+        return releaseMaximums
+                .floorEntry(MultiReleaseVersions.release(javaVersion))
+                .getValue();
+    }
+
+    /**
+     * @return {@code true} if this is a multi-release jar
+     */
+    public boolean isMultiRelease() {
+        return releaseMaximums != null;
+    }
+
+    /**
+     * @return the number of class files per version, from the lowest to the highest version
+     */
+    public SortedMap<JavaClassfileVersion, Integer> getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * @return the number of class files
+     */
+    public int getClassfileCount() {
+        return classfileCount;
+    }
+
+    @Override
+    public String toString() {
+        return "ClassfileVersionReport{" + "path=" + path + ", histogram=" + histogram
+                + (releaseMaximums != null ? ", releaseMaximums=" + releaseMaximums : "") + '}';
+    }
+}
@@ -0,0 +1,293 @@
+package org.codehaus.plexus.languages.java.version;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.jar.Manifest;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+/**
+ * Reports the class file versions of jars and directories, for example to find the highest bytecode level on a
+ * classpath before choosing {@code --release}. Only the first 8 bytes of every class file are read, the entries of a
+ * jar are located with its central directory. The jars and directories are scanned in parallel.
+ * For multi-release jars the maximum of every release is computed along, see
+ * {@link ClassfileVersionReport#getMaximum(JavaVersion)}.
+ *
+ * <pre>
+ * Map&lt;Path, ClassfileVersionReport&gt; reports = new ClassfileVersionScanner()
+ *         .setMaximumJavaVersion(JavaVersion.parse("11"))
+ *         .scan(classpath);
+ * </pre>
+ *
+ * @since 1.6.1
+ */
+public final class ClassfileVersionScanner {
+    static final Comparator<JavaClassfileVersion> VERSION_ORDER = Comparator.comparingInt(
+                    JavaClassfileVersion::majorVersion)
+            .thenComparingInt(JavaClassfileVersion::minorVersion);
+
+    private Executor executor = ForkJoinPool.commonPool();
+
+    private JavaVersion maximumJavaVersion;
+
+    private int maximumMajorVersion = Integer.MAX_VALUE;
+
+    private int maximumRelease = Integer.MAX_VALUE;
+
+    /**
+     * @param executor the executor to scan the jars and directories with, by default the common pool
+     * @return this scanner
+     */
+    public ClassfileVersionScanner setExecutor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Stops scanning as soon as a class file exceeds the Java version, {@link #scan(Collection)} then throws a
+     * {@link ClassfileVersionExceededException}. Versioned entries of multi-release jars for a later release are
+     * ignored, the runtime doesn't load them.
+     *
+     * @param maximumJavaVersion the highest allowed Java version, or {@code null} to scan everything
+     * @return this scanner
+     */
+    public ClassfileVersionScanner setMaximumJavaVersion(JavaVersion maximumJavaVersion) {
+        this.maximumJavaVersion = maximumJavaVersion;
+        if (maximumJavaVersion != null) {
+            this.maximumRelease = MultiReleaseVersions.release(maximumJavaVersion);
+            this.maximumMajorVersion = maximumRelease + 44;
+        } else {
+            this.maximumRelease = Integer.MAX_VALUE;
+            this.maximumMajorVersion = Integer.MAX_VALUE;
+        }
+        return this;
+    }
+
+    /**
+     * @param path a jar or directory
+     * @return the report of the jar or directory
+     * @throws ClassfileVersionExceededException if a class file exceeds the maximum Java version
+     * @throws IOException if the jar or directory couldn't be read
+     */
+    public ClassfileVersionReport scan(Path path) throws IOException {
+        return scan(Collections.singletonList(path)).get(path);
+    }
+
+    /**
+     * @param paths the jars and directories
+     * @return the report per jar or directory, in the order of the paths
+     * @throws ClassfileVersionExceededException if a class file exceeds the maximum Java version
+     * @throws IOException if a jar or directory couldn't be read
+     */
+    public Map<Path, ClassfileVersionReport> scan(Collection<Path> paths) throws IOException {
+        AtomicReference<ClassfileVersionExceededException> exceeded = new AtomicReference<>();
+
+        List<CompletableFuture<ClassfileVersionReport>> futures = new ArrayList<>(paths.size());
+        for (Path path : paths) {
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> {
+                        try {
+                            return scan(path, exceeded);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    },
+                    executor));
+        }
+
+        Map<Path, ClassfileVersionReport> reports = new LinkedHashMap<>(paths.size());
+        IOException failure = null;
+        for (CompletableFuture<ClassfileVersionReport> future : futures) {
+            try {
+                ClassfileVersionReport report = future.join();
+                reports.put(report.getPath(), report);
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof UncheckedIOException) {
+                    if (failure == null) {
+                        failure = ((UncheckedIOException) e.getCause()).getCause();
+                    }
+                } else if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                } else if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                } else {
+                    throw e;
+                }
+            }
+        }
+
+        if (exceeded.get() != null) {
+            throw exceeded.get();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return reports;
+    }
+
+    private ClassfileVersionReport scan(Path path, AtomicReference<ClassfileVersionExceededException> exceeded)
+            throws IOException {
+        Collector collector = new Collector(path, exceeded);
+
+        if (exceeded.get() == null) {
+            ClassfileHeaderReader.read(path, collector);
+        }
+
+        return new ClassfileVersionReport(path, collector.histogram, collector.releaseMaximums());
+    }
+
+    /**
+     * Collects the versions of a single jar or directory. The versions per entry name are only kept as long as the
+     * jar may be a multi-release jar, usually the manifest is the first entry and they aren't kept at all.
+     */
+    private final class Collector implements ClassfileHeaderReader.Visitor {
+        private final Path path;
+
+        private final AtomicReference<ClassfileVersionExceededException> exceeded;
+
+        private final SortedMap<JavaClassfileVersion, Integer> histogram = new TreeMap<>(VERSION_ORDER);
+
+        private final Map<String, JavaClassfileVersion> baseVersions = new HashMap<>();
+
+        private final Map<String, NavigableMap<Integer, JavaClassfileVersion>> versionedVersions = new HashMap<>();
+
+        // null as long as the manifest hasn't been read
+        private Boolean multiRelease;
+
+        Collector(Path path, AtomicReference<ClassfileVersionExceededException> exceeded) {
+            this.path = path;
+            this.exceeded = exceeded;
+            if (Files.isDirectory(path)) {
+                multiRelease = false;
+            }
+        }
+
+        @Override
+        public boolean visit(String name, JavaClassfileVersion version) {
+            int release = MultiReleaseVersions.releaseOf(name);
+
+            if (version.majorVersion() > maximumMajorVersion && release <= maximumRelease) {
+                exceeded.compareAndSet(
+                        null, new ClassfileVersionExceededException(path, name, version, maximumJavaVersion));
+            }
+            if (exceeded.get() != null) {
+                return false;
+            }
+
+            histogram.merge(version, 1, Integer::sum);
+
+            if (!Boolean.FALSE.equals(multiRelease)) {
+                if (release == MultiReleaseVersions.BASE_RELEASE) {
+                    baseVersions.put(name, version);
+                } else if (release != MultiReleaseVersions.IGNORED_RELEASE) {
+                    versionedVersions
+                            .computeIfAbsent(MultiReleaseVersions.unversionedName(name), n -> new TreeMap<>())
+                            .put(release, version);
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void visitManifest(Manifest manifest) {
+            multiRelease = MultiReleaseVersions.isMultiRelease(manifest);
+            if (!multiRelease) {
+                baseVersions.clear();
+                versionedVersions.clear();
+            }
+        }
+
+        /**
+         * @return the maximum from every release on, with the versioned entries replacing the base entries, or
+         *         {@code null} if this isn't a multi-release jar
+         */
+        NavigableMap<Integer, JavaClassfileVersion> releaseMaximums() {
+            if (!Boolean.TRUE.equals(multiRelease)) {
+                return null;
+            }
+
+            SortedMap<JavaClassfileVersion, Integer> baseHistogram = new TreeMap<>(VERSION_ORDER);
+            for (JavaClassfileVersion version : baseVersions.values()) {
+                baseHistogram.merge(version, 1, Integer::sum);
+            }
+
+            NavigableMap<Integer, JavaClassfileVersion> maximums = new TreeMap<>();
+            maximums.put(MultiReleaseVersions.BASE_RELEASE, baseHistogram.isEmpty() ? null : baseHistogram.lastKey());
+
+            SortedSet<Integer> releases = new TreeSet<>();
+            for (NavigableMap<Integer, JavaClassfileVersion> versions : versionedVersions.values()) {
+                releases.addAll(versions.keySet());
+            }
+
+            for (int release : releases) {
+                SortedMap<JavaClassfileVersion, Integer> visible = new TreeMap<>(baseHistogram);
+                JavaClassfileVersion maximum = null;
+
+                for (Map.Entry<String, NavigableMap<Integer, JavaClassfileVersion>> versioned :
+                        versionedVersions.entrySet()) {
+                    Map.Entry<Integer, JavaClassfileVersion> selected =
+                            versioned.getValue().floorEntry(release);
+                    if (selected == null) {
+                        continue;
+                    }
+
+                    JavaClassfileVersion replaced = baseVersions.get(versioned.getKey());
+                    if (replaced != null) {
+                        visible.computeIfPresent(replaced, (version, count) -> count == 1 ? null : count - 1);
+                    }
+                    maximum = max(maximum, selected.getValue());
+                }
+
+                maximums.put(release, max(maximum, visible.isEmpty() ? null : visible.lastKey()));
+            }
+            return maximums;
+        }
+    }
+
+    private static JavaClassfileVersion max(JavaClassfileVersion first, JavaClassfileVersion second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+        return VERSION_ORDER.compare(first, second) >= 0 ? first : second;
+    }
+}
@@ -32,9 +32,29 @@ import java.nio.file.Path;
  * @author Jorge Solórzano
  */
 public final class JavaClassfileVersion {
+    private static final int MIN_CANONICAL_MAJOR = 45;
+
+    private static final int MAX_CANONICAL_MAJOR = 84;
+
+    private static final int PREVIEW_MINOR = 65535;
+
+    // shared instances of the realistic class file versions, with and without preview features
+    private static final JavaClassfileVersion[] CANONICAL_VERSIONS =
+            new JavaClassfileVersion[MAX_CANONICAL_MAJOR - MIN_CANONICAL_MAJOR + 1];
+
+    private static final JavaClassfileVersion[] CANONICAL_PREVIEW_VERSIONS =
+            new JavaClassfileVersion[MAX_CANONICAL_MAJOR - MIN_CANONICAL_MAJOR + 1];
+
+    static {
+        for (int major = MIN_CANONICAL_MAJOR; major <= MAX_CANONICAL_MAJOR; major++) {
+            CANONICAL_VERSIONS[major - MIN_CANONICAL_MAJOR] = new JavaClassfileVersion(major, 0);
+            CANONICAL_PREVIEW_VERSIONS[major - MIN_CANONICAL_MAJOR] = new JavaClassfileVersion(major, PREVIEW_MINOR);
+        }
+    }
 
     private final int major;
     private final int minor;
+    private final JavaVersion javaVersion;
 
     JavaClassfileVersion(int major, int minor) {
         if (major < 45) {
@@ -42,6 +62,25 @@ public final class JavaClassfileVersion {
         }
         this.major = major;
         this.minor = minor;
+
+        int javaVer = major - 44;
+        this.javaVersion = JavaVersion.parse(javaVer < 9 ? "1." + javaVer : Integer.toString(javaVer));
+    }
+
+    /**
+     * @param major the major version
+     * @param minor the minor version
+     * @return the shared instance for realistic versions, otherwise a new one
+     */
+    static JavaClassfileVersion valueOf(int major, int minor) {
+        if (major >= MIN_CANONICAL_MAJOR && major <= MAX_CANONICAL_MAJOR) {
+            if (minor == 0) {
+                return CANONICAL_VERSIONS[major - MIN_CANONICAL_MAJOR];
+            } else if (minor == PREVIEW_MINOR) {
+                return CANONICAL_PREVIEW_VERSIONS[major - MIN_CANONICAL_MAJOR];
+            }
+        }
+        return new JavaClassfileVersion(major, minor);
     }
 
     /**
@@ -87,10 +126,7 @@ public final class JavaClassfileVersion {
      * @return JavaVersion based on the major version of the class file.
      */
     public JavaVersion javaVersion() {
-        int javaVer = major - 44;
-        String javaVersion = javaVer < 9 ? "1." + javaVer : Integer.toString(javaVer);
-
-        return JavaVersion.parse(javaVersion);
+        return javaVersion;
     }
 
     /**
@@ -117,7 +153,7 @@ public final class JavaClassfileVersion {
      * @return {@code true} if the classfile use preview features.
      */
     public boolean isPreview() {
-        return minor == 65535;
+        return minor == PREVIEW_MINOR;
     }
 
     /**
@@ -47,7 +47,7 @@ final class JavaClassfileVersionParser {
             }
             int minor = data.readUnsignedShort();
             int major = data.readUnsignedShort();
-            return new JavaClassfileVersion(major, minor);
+            return JavaClassfileVersion.valueOf(major, minor);
         } catch (IOException ex) {
             throw new UncheckedIOException(ex);
         }
@@ -1,9 +1,9 @@
 package org.codehaus.plexus.languages.java.version;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.StringTokenizer;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /*
  * Licensed to the Apache Software Foundation (ASF) under one
@@ -33,6 +33,9 @@ import java.util.regex.Pattern;
  * @see <a href="http://openjdk.java.net/jeps/322">JEP 322: Time-Based Release Versioning</a>
  */
 public class JavaVersion implements Comparable<JavaVersion> {
+    // shared instances of the realistic versions, must be initialized before the constants below
+    private static final Map<String, JavaVersion> CANONICAL_VERSIONS = canonicalVersions();
+
     /**
      * Represents the System property {@code java.specification.version}
      */
@@ -44,79 +47,139 @@ public class JavaVersion implements Comparable<JavaVersion> {
      */
     public static final JavaVersion JAVA_VERSION = parse(System.getProperty("java.version"));
 
-    private static final Pattern startingDigits = Pattern.compile("(\\d+)(.*)");
-
     private final String rawVersion;
 
     private final boolean isMajor;
 
+    // per dot-separated segment: the first number, -1 if there's none, and what follows that number
+    private final int[] segmentValues;
+
+    private final int[] suffixRates;
+
+    private final String[] suffixes;
+
+    // the result of asMajor(), only for versions starting with "1."
+    private JavaVersion major;
+
     private JavaVersion(String rawVersion, boolean isMajor) {
         this.rawVersion = rawVersion;
         this.isMajor = isMajor;
+
+        // same segments as rawVersion.split("\\."): trailing empty segments are dropped, unless there's no dot at all
+        int segments = 1;
+        int end = rawVersion.length();
+        for (int index = 0; index < rawVersion.length(); index++) {
+            if (rawVersion.charAt(index) == '.') {
+                segments++;
+            }
+        }
+        if (segments > 1) {
+            while (end > 0 && rawVersion.charAt(end - 1) == '.') {
+                end--;
+                segments--;
+            }
+            if (end == 0) {
+                segments = 0;
+            }
+        }
+
+        segmentValues = new int[segments];
+        suffixRates = new int[segments];
+        suffixes = new String[segments];
+
+        int start = 0;
+        for (int segment = 0; segment < segments; segment++) {
+            int dot = rawVersion.indexOf('.', start);
+            int segmentEnd = dot >= 0 && dot < end ? dot : end;
+
+            int digits = start;
+            while (digits < segmentEnd && !isDigit(rawVersion.charAt(digits))) {
+                digits++;
+            }
+
+            String suffix;
+            if (digits < segmentEnd) {
+                long value = 0;
+                int index = digits;
+                while (index < segmentEnd && isDigit(rawVersion.charAt(index))) {
+                    value = Math.min(value * 10 + (rawVersion.charAt(index) - '0'), Integer.MAX_VALUE);
+                    index++;
+                }
+                segmentValues[segment] = (int) value;
+                suffix = rawVersion.substring(index, segmentEnd);
+            } else {
+                segmentValues[segment] = -1;
+                suffix = rawVersion.substring(start, segmentEnd);
+            }
+            suffixRates[segment] = suffixRate(suffix);
+            suffixes[segment] = suffix;
+
+            start = segmentEnd + 1;
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
     }
 
     /**
-     * Lazy parse the version-scheme.
-     * Actual parsing is done when calling {@link #compareTo(JavaVersion)}
+     * Parse the version-scheme.
+     * The version is split into its numeric segments once, so comparing versions doesn't allocate anything.
      *
      * @param s the version string, never {@code null}
      * @return the version wrapped in a JavaVersion
      */
     public static JavaVersion parse(String s) {
-        return new JavaVersion(s, !s.startsWith("1."));
+        JavaVersion version = CANONICAL_VERSIONS.get(s);
+        if (version == null) {
+            version = new JavaVersion(s, !s.startsWith("1."));
+        }
+        return version;
+    }
+
+    private static Map<String, JavaVersion> canonicalVersions() {
+        Map<String, JavaVersion> versions = new HashMap<>(128);
+        for (int feature = 1; feature <= 40; feature++) {
+            String value = Integer.toString(feature);
+            versions.put(value, new JavaVersion(value, true));
+        }
+        for (int feature = 0; feature <= 8; feature++) {
+            String value = "1." + feature;
+            JavaVersion version = new JavaVersion(value, false);
+            version.major = versions.get(Integer.toString(feature));
+            versions.put(value, version);
+        }
+        return versions;
     }
 
     @Override
     public int compareTo(JavaVersion other) {
-        String[] thisSegments = this.rawVersion.split("\\.");
-        String[] otherSegments = other.rawVersion.split("\\.");
-
-        int minSegments = Math.min(thisSegments.length, otherSegments.length);
+        int minSegments = Math.min(segmentValues.length, other.segmentValues.length);
 
         for (int index = 0; index < minSegments; index++) {
-            Matcher thisMatcher = startingDigits.matcher(thisSegments[index]);
-
-            int thisValue;
-
-            if (thisMatcher.find()) {
-                thisValue = Integer.parseInt(thisMatcher.group(1));
-            } else {
-                thisValue = -1;
-            }
-
-            Matcher otherMatcher = startingDigits.matcher(otherSegments[index]);
-
-            int otherValue;
-
-            if (otherMatcher.find()) {
-                otherValue = Integer.parseInt(otherMatcher.group(1));
-            } else {
-                otherValue = -1;
-            }
-
-            int compareValue = Integer.compare(thisValue, otherValue);
+            int compareValue = Integer.compare(segmentValues[index], other.segmentValues[index]);
 
             if (compareValue != 0) {
                 return compareValue;
             }
 
-            compareValue = suffixRate(thisMatcher.group(2)) - suffixRate(otherMatcher.group(2));
+            compareValue = suffixRates[index] - other.suffixRates[index];
             if (compareValue != 0) {
                 return compareValue;
             }
 
             // works for now, but needs improvement
-            compareValue = thisMatcher.group(2).compareTo(otherMatcher.group(2));
+            compareValue = suffixes[index].compareTo(other.suffixes[index]);
 
             if (compareValue != 0) {
                 return compareValue;
             }
         }
 
-        return (thisSegments.length - otherSegments.length);
+        return (segmentValues.length - other.segmentValues.length);
     }
 
-    private int suffixRate(String suffix) {
+    private static int suffixRate(String suffix) {
         if ("-ea".equals(suffix)) {
             return -100;
         } else if ("".equals(suffix)) {
@@ -169,11 +232,19 @@ public class JavaVersion implements Comparable<JavaVersion> {
     /**
      * If original version starts with {@code "1."}, then remove this part from the version
      *
-     * @return a new JavaVersion if version has to be changed, otherwise return itself
+     * @return the major JavaVersion if version has to be changed, otherwise return itself
      */
     public JavaVersion asMajor() {
         if (!isMajor) {
-            return new JavaVersion(rawVersion.substring(2), true);
+            // racy but harmless, both threads would compute an equal instance
+            JavaVersion major = this.major;
+            if (major == null) {
+                String value = rawVersion.substring(2);
+                // only shift once, also if the remainder starts with "1." again
+                major = value.startsWith("1.") ? new JavaVersion(value, true) : parse(value);
+                this.major = major;
+            }
+            return major;
         } else {
             return this;
         }
@@ -0,0 +1,103 @@
+package org.codehaus.plexus.languages.java.version;
+
+import java.util.jar.Manifest;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+/**
+ * The rules to select the entries of a multi-release jar, as defined by the
+ * <a href="https://openjdk.org/jeps/238">JEP 238</a> and implemented by {@code java.util.jar.JarFile}.
+ * A runtime of release R sees the entry {@code META-INF/versions/N/name} with the highest N between 9 and R instead
+ * of {@code name}, but only if the manifest has {@code Multi-Release: true}.
+ *
+ * @since 1.6.1
+ */
+public final class MultiReleaseVersions {
+    /**
+     * The directory of the versioned entries.
+     */
+    public static final String VERSIONS_PREFIX = "META-INF/versions/";
+
+    /**
+     * The first release supporting multi-release jars, lower versioned entries are ignored.
+     */
+    public static final int FIRST_RELEASE = 9;
+
+    /**
+     * The release of entries which aren't versioned.
+     */
+    public static final int BASE_RELEASE = 0;
+
+    /**
+     * The release of versioned entries which are never selected, because the version is invalid.
+     */
+    public static final int IGNORED_RELEASE = -1;
+
+    private MultiReleaseVersions() {}
+
+    /**
+     * @param manifest the manifest of the jar, may be {@code null}
+     * @return {@code true} if the manifest has {@code Multi-Release: true}
+     */
+    public static boolean isMultiRelease(Manifest manifest) {
+        return manifest != null && "true".equalsIgnoreCase(manifest.getMainAttributes().getValue("Multi-Release"));
+    }
+
+    /**
+     * @param javaVersion the Java version of the runtime
+     * @return the release, like 8 for 1.8 and 11 for 11.0.2
+     */
+    public static int release(JavaVersion javaVersion) {
+        return Integer.parseInt(javaVersion.asMajor().getValue(1));
+    }
+
+    /**
+     * @param name the name of a jar entry
+     * @return N for {@code META-INF/versions/N/name}, {@link #BASE_RELEASE} if the entry isn't versioned or
+     *         {@link #IGNORED_RELEASE} if N isn't a release from {@link #FIRST_RELEASE} on
+     */
+    public static int releaseOf(String name) {
+        if (!name.startsWith(VERSIONS_PREFIX)) {
+            return BASE_RELEASE;
+        }
+        int index = name.indexOf('/', VERSIONS_PREFIX.length());
+        if (index == -1) {
+            return IGNORED_RELEASE;
+        }
+        int release;
+        try {
+            release = Integer.parseInt(name.substring(VERSIONS_PREFIX.length(), index));
+        } catch (NumberFormatException e) {
+            return IGNORED_RELEASE;
+        }
+        return release >= FIRST_RELEASE ? release : IGNORED_RELEASE;
+    }
+
+    /**
+     * @param name the name of a jar entry
+     * @return the name the entry replaces, or the name itself if it isn't versioned
+     */
+    public static String unversionedName(String name) {
+        if (releaseOf(name) <= BASE_RELEASE) {
+            return name;
+        }
+        return name.substring(name.indexOf('/', VERSIONS_PREFIX.length()) + 1);
+    }
+}
@@ -0,0 +1,47 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A round trip to the JVM of another jdkHome to derive module names from filenames.
+ *
+ * @since 1.6.1
+ */
+@Name("org.codehaus.plexus.languages.java.ForkedExtractor")
+@Label("Forked Module Name Extractor")
+@Category({"Plexus", "Java Modules"})
+@Description("Deriving module names from filenames with the JVM of another jdkHome")
+class ForkedExtractorEvent extends Event {
+    @Label("JDK Home")
+    String jdkHome;
+
+    @Label("Archives")
+    int archives;
+
+    @Label("Kept Alive")
+    @Description("Whether the JVM is kept running for subsequent round trips")
+    boolean keepAlive;
+}
@@ -0,0 +1,58 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Finding the module name of a single path element.
+ *
+ * @since 1.6.1
+ */
+@Name("org.codehaus.plexus.languages.java.ProbePathElement")
+@Label("Probe Path Element")
+@Category({"Plexus", "Java Modules"})
+@Description("Finding the module name of a jar or output directory")
+class ProbePathElementEvent extends Event {
+    @Label("Path")
+    String path;
+
+    @Label("Module Name Source")
+    String moduleNameSource;
+
+    @Label("Archive Size")
+    @Description("The size of the jar on disk, 0 for an output directory. Only its central directory, module "
+            + "descriptor and manifest are read")
+    @DataAmount
+    long archiveSize;
+
+    @Label("Cached")
+    @Description("Whether the module name came from the cache instead of the path element")
+    boolean cached;
+
+    @Label("Failed")
+    @Description("Whether probing the path element threw an exception")
+    boolean failed;
+}
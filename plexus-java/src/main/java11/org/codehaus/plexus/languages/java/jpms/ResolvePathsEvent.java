@@ -0,0 +1,49 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A call of {@link LocationManager#resolvePaths(ResolvePathsRequest)} or one of its variants.
+ *
+ * @since 1.6.1
+ */
+@Name("org.codehaus.plexus.languages.java.ResolvePaths")
+@Label("Resolve Paths")
+@Category({"Plexus", "Java Modules"})
+@Description("Resolving the modulepath and classpath of one or more requests")
+class ResolvePathsEvent extends Event {
+    @Label("Requests")
+    int requests;
+
+    @Label("Path Elements")
+    int pathElements;
+
+    @Label("Modulepath Elements")
+    int modulepathElements;
+
+    @Label("Classpath Elements")
+    int classpathElements;
+}
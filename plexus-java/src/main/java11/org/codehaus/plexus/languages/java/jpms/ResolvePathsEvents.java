@@ -0,0 +1,135 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Emits Java Flight Recorder events while resolving paths, so a recording shows which path elements the time was
+ * spent on.
+ * <p>
+ * Every {@code begin} method returns the started event, or {@code null} if no event is emitted, which must be passed
+ * to the matching {@code commit} method. Events are only filled in if the recording asks for them.
+ * </p>
+ * <p>
+ * No event is created before Flight Recorder is initialized: loading the first event class initializes its metadata,
+ * which would otherwise take longer than a single resolution in a fresh JVM.
+ * </p>
+ *
+ * @since 1.6.1
+ */
+final class ResolvePathsEvents {
+    private static final boolean AVAILABLE = isAvailable();
+
+    private ResolvePathsEvents() {}
+
+    /**
+     * The {@code jdk.jfr} module might not be part of the runtime. The module descriptor is compiled for Java 9, so it
+     * can't require it, instead the module reads it once it turns out to be there.
+     */
+    private static boolean isAvailable() {
+        Module module = ResolvePathsEvents.class.getModule();
+        ModuleLayer layer = module.getLayer() != null ? module.getLayer() : ModuleLayer.boot();
+
+        Optional<Module> jfr = layer.findModule("jdk.jfr");
+        if (jfr.isPresent()) {
+            module.addReads(jfr.get());
+        }
+        return jfr.isPresent();
+    }
+
+    private static boolean isEnabled() {
+        return AVAILABLE && FlightRecorder.isInitialized();
+    }
+
+    static Object beginResolvePaths() {
+        if (!isEnabled()) {
+            return null;
+        }
+        ResolvePathsEvent event = new ResolvePathsEvent();
+        event.begin();
+        return event;
+    }
+
+    static void commitResolvePaths(
+            Object event, int requests, int pathElements, int modulepathElements, int classpathElements) {
+        if (event != null) {
+            ResolvePathsEvent resolvePathsEvent = (ResolvePathsEvent) event;
+            resolvePathsEvent.end();
+            if (resolvePathsEvent.shouldCommit()) {
+                resolvePathsEvent.requests = requests;
+                resolvePathsEvent.pathElements = pathElements;
+                resolvePathsEvent.modulepathElements = modulepathElements;
+                resolvePathsEvent.classpathElements = classpathElements;
+                resolvePathsEvent.commit();
+            }
+        }
+    }
+
+    static Object beginProbe() {
+        if (!isEnabled()) {
+            return null;
+        }
+        ProbePathElementEvent event = new ProbePathElementEvent();
+        event.begin();
+        return event;
+    }
+
+    static void commitProbe(
+            Object event, Path path, ModuleNameSource source, long archiveSize, boolean cached, boolean failed) {
+        if (event != null) {
+            ProbePathElementEvent probeEvent = (ProbePathElementEvent) event;
+            probeEvent.end();
+            if (probeEvent.shouldCommit()) {
+                probeEvent.path = path.toString();
+                probeEvent.moduleNameSource = source != null ? source.name() : null;
+                probeEvent.archiveSize = archiveSize;
+                probeEvent.cached = cached;
+                probeEvent.failed = failed;
+                probeEvent.commit();
+            }
+        }
+    }
+
+    static Object beginForkedExtractor() {
+        if (!isEnabled()) {
+            return null;
+        }
+        ForkedExtractorEvent event = new ForkedExtractorEvent();
+        event.begin();
+        return event;
+    }
+
+    static void commitForkedExtractor(Object event, Path jdkHome, int archives, boolean keepAlive) {
+        if (event != null) {
+            ForkedExtractorEvent extractorEvent = (ForkedExtractorEvent) event;
+            extractorEvent.end();
+            if (extractorEvent.shouldCommit()) {
+                extractorEvent.jdkHome = String.valueOf(jdkHome);
+                extractorEvent.archives = archives;
+                extractorEvent.keepAlive = keepAlive;
+                extractorEvent.commit();
+            }
+        }
+    }
+}
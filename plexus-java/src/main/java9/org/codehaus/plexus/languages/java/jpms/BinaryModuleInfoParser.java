@@ -22,7 +22,9 @@ package org.codehaus.plexus.languages.java.jpms;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.module.ModuleDescriptor;
+import java.util.ArrayList;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.codehaus.plexus.languages.java.jpms.JavaModuleDescriptor.Builder;
@@ -32,7 +34,7 @@ class BinaryModuleInfoParser extends AbstractBinaryModuleInfoParser {
     JavaModuleDescriptor parse(InputStream in) throws IOException {
         ModuleDescriptor descriptor = ModuleDescriptor.read(in);
 
-        Builder builder = JavaModuleDescriptor.newModule(descriptor.name());
+        Builder builder = JavaModuleDescriptor.newModule(names.get(descriptor.name()));
 
         for (ModuleDescriptor.Requires requires : descriptor.requires()) {
             if (requires.modifiers().contains(ModuleDescriptor.Requires.Modifier.STATIC)
@@ -48,26 +50,34 @@ class BinaryModuleInfoParser extends AbstractBinaryModuleInfoParser {
                             org.codehaus.plexus.languages.java.jpms.JavaModuleDescriptor.JavaRequires.JavaModifier
                                     .TRANSITIVE);
                 }
-                builder.requires(modifiers, requires.name());
+                builder.requires(modifiers, names.get(requires.name()));
             } else {
-                builder.requires(requires.name());
+                builder.requires(names.get(requires.name()));
             }
         }
 
         for (ModuleDescriptor.Exports exports : descriptor.exports()) {
             if (exports.targets().isEmpty()) {
-                builder.exports(exports.source());
+                builder.exports(names.get(exports.source()));
             } else {
-                builder.exports(exports.source(), exports.targets());
+                Set<String> targets = new LinkedHashSet<>();
+                for (String target : exports.targets()) {
+                    targets.add(names.get(target));
+                }
+                builder.exports(names.get(exports.source()), targets);
             }
         }
 
         for (String uses : descriptor.uses()) {
-            builder.uses(uses);
+            builder.uses(names.get(uses));
         }
 
         for (ModuleDescriptor.Provides provides : descriptor.provides()) {
-            builder.provides(provides.service(), provides.providers());
+            List<String> providers = new ArrayList<>(provides.providers().size());
+            for (String provider : provides.providers()) {
+                providers.add(names.get(provider));
+            }
+            builder.provides(names.get(provides.service()), providers);
         }
 
         return builder.build();
@@ -19,10 +19,16 @@ package org.codehaus.plexus.languages.java.jpms;
  * under the License.
  */
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.lang.module.FindException;
 import java.lang.module.ModuleFinder;
 import java.lang.module.ModuleReference;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Optional;
@@ -42,12 +48,43 @@ import java.util.Set;
  * The result is a properties-file written ot the StdOut, having the jar path as key and the module name as value.<br>
  * Any exception is written to the StdErr.
  * </p>
+ * <p>
+ * With {@code --worker} as only argument the process keeps running: every line read from the StdIn is a path to a
+ * jar, for which a line with the module name is written to the StdOut, or an empty line if there is none.
+ * The process stops at the end of the StdIn.
+ * </p>
  *
  * @author Robert Scholte
  * @since 1.0.0
  */
 public class CmdModuleNameExtractor {
     public static void main(String[] args) {
+        // no lambdas or extra methods here, both implementations must keep the same methods
+        if (args.length == 1 && "--worker".equals(args[0])) {
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+                    Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+                String path;
+                while ((path = in.readLine()) != null) {
+                    String moduleName;
+                    try {
+                        moduleName = getModuleName(Paths.get(path));
+                    } catch (Exception e) {
+                        moduleName = null;
+                    }
+                    out.write(moduleName != null ? moduleName : "");
+                    out.write('\n');
+
+                    // answer as soon as all pending paths are handled
+                    if (!in.ready()) {
+                        out.flush();
+                    }
+                }
+            } catch (IOException e) {
+                System.exit(1);
+            }
+            return;
+        }
+
         Properties properties = new Properties();
 
         for (String path : args) {
@@ -0,0 +1,104 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.codehaus.plexus.languages.java.jpms.JavaModuleDescriptor.JavaRequires.JavaModifier;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ArraySetTest {
+    @Test
+    void keepsOrderAndDropsDuplicates() {
+        Set<String> set = ArraySet.copyOf(Arrays.asList("c", "a", "b", "a", "c"));
+
+        assertThat(set).containsExactly("c", "a", "b");
+        assertThat(set).isEqualTo(new HashSet<>(Arrays.asList("a", "b", "c")));
+        assertThat(set.hashCode()).isEqualTo(new HashSet<>(Arrays.asList("a", "b", "c")).hashCode());
+        assertThat(set).doesNotContain("d", null);
+    }
+
+    @Test
+    void largeSet() {
+        List<String> elements = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            elements.add("p" + i);
+        }
+
+        Set<String> set = ArraySet.copyOf(new LinkedHashSet<>(elements));
+
+        assertThat(set).containsExactlyElementsOf(elements);
+        for (String element : elements) {
+            assertThat(set.contains(element)).isTrue();
+        }
+        assertThat(set.contains("p100")).isFalse();
+        assertThat(set).isEqualTo(new HashSet<>(elements)).isNotEqualTo(new HashSet<>(elements.subList(1, 100)));
+    }
+
+    @Test
+    void smallSets() {
+        assertThat(ArraySet.copyOf(Collections.emptyList())).isEmpty();
+        assertThat(ArraySet.copyOf(Collections.singleton("a"))).containsExactly("a");
+
+        Set<String> set = ArraySet.copyOf(Arrays.asList("a", "b"));
+        assertThat(ArraySet.copyOf(set)).isSameAs(set);
+    }
+
+    @Test
+    void immutable() {
+        Set<String> set = ArraySet.copyOf(Arrays.asList("a", "b"));
+
+        assertThatThrownBy(() -> set.add("c")).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> set.remove("a")).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> set.iterator().remove()).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void moduleDescriptorIsImmutable() {
+        Set<String> targets = new LinkedHashSet<>(Arrays.asList("b", "c"));
+        JavaModuleDescriptor.Builder builder = JavaModuleDescriptor.newModule("a")
+                .requires(EnumSet.of(JavaModifier.TRANSITIVE, JavaModifier.STATIC), "b")
+                .exports("a.api", targets);
+        JavaModuleDescriptor descriptor = builder.build();
+
+        targets.add("d");
+        builder.requires("c");
+
+        assertThat(descriptor.requires()).hasSize(1);
+        assertThat(descriptor.requires().iterator().next().modifiers())
+                .isEqualTo(EnumSet.of(JavaModifier.STATIC, JavaModifier.TRANSITIVE));
+        assertThat(descriptor.exports().iterator().next().targets()).containsExactly("b", "c");
+        assertThat(descriptor).isEqualTo(JavaModuleDescriptor.newModule("a")
+                .requires(EnumSet.of(JavaModifier.STATIC, JavaModifier.TRANSITIVE), "b")
+                .exports("a.api", new HashSet<>(Arrays.asList("c", "b")))
+                .build());
+        assertThatThrownBy(() -> descriptor.requires().clear()).isInstanceOf(UnsupportedOperationException.class);
+    }
+}
@@ -0,0 +1,172 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnJre;
+import org.junit.jupiter.api.condition.JRE;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the in-process {@link AutomaticModuleNameExtractor} with the {@code ModuleFinder} of the running JRE.
+ */
+@DisabledOnJre(value = JRE.JAVA_8, disabledReason = "Requires Java 9+ Module System")
+class AutomaticModuleNameConformanceTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void sameAsModuleFinder() throws Exception {
+        Map<Path, Path> jars = new LinkedHashMap<>();
+
+        // filenames
+        for (String fileName : new String[] {
+            "foo.jar",
+            "foo-bar.jar",
+            "foo-bar-1.0.jar",
+            "foo_bar-1.0-SNAPSHOT.jar",
+            "foo..bar.jar",
+            "-foo-.jar",
+            ".foo.jar",
+            "foo-1.jar",
+            "foo-1x.jar",
+            "foo-bar-2.jar",
+            "foo-1.0-.jar",
+            "foo-1.0+build.jar",
+            "foo-1..jar",
+            "foo-bar-v1.0.jar",
+            "a-b-c-1.2.3-4.jar",
+            "java-util-1.0.jar",
+            "101-1.0.jar",
+            "1foo.jar",
+            "class-1.0.jar",
+            "foo.class.jar",
+            "foo-class.jar",
+            "_-1.0.jar",
+            "foo._.jar",
+            "-1.0.jar",
+            "foo$bar.jar"
+        }) {
+            add(jars, fileName, null, Collections.singletonMap("foo/Foo.class", ""));
+        }
+
+        // content
+        add(jars, "empty.jar", null, Collections.emptyMap());
+        add(jars, "toplevel.jar", null, Collections.singletonMap("Foo.class", ""));
+        add(jars, "toplevelresource.jar", null, Collections.singletonMap("foo.properties", ""));
+        add(jars, "invalidpackage.jar", null, Collections.singletonMap("1foo/Foo.class", ""));
+        add(jars, "keywordpackage.jar", null, Collections.singletonMap("foo/int/Foo.class", ""));
+
+        Map<String, String> services = new LinkedHashMap<>();
+        services.put("foo/Foo.class", "");
+        services.put("META-INF/services/foo.Spi", "# comment\nfoo.Impl # trailing comment\n\n  foo.Other  \n");
+        add(jars, "services.jar", null, services);
+
+        services = new LinkedHashMap<>();
+        services.put("foo/Foo.class", "");
+        services.put("META-INF/services/foo.Spi", "bar.Impl\n");
+        add(jars, "providerpackage.jar", null, services);
+
+        services = new LinkedHashMap<>();
+        services.put("foo/Foo.class", "");
+        services.put("META-INF/services/foo.Spi", "foo.1Impl\n");
+        add(jars, "providername.jar", null, services);
+
+        services = new LinkedHashMap<>();
+        services.put("foo/Foo.class", "");
+        services.put("META-INF/services/foo-spi", "bar.Impl\n");
+        services.put("META-INF/services/foo/Spi", "bar.Impl\n");
+        services.put("META-INF/services/foo.Spi.class", "bar.Impl\n");
+        add(jars, "invalidservices.jar", null, services);
+
+        // manifest
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().putValue("Automatic-Module-Name", "org.example.foo");
+        add(jars, "named-1.0.jar", manifest, Collections.singletonMap("foo/Foo.class", ""));
+        add(jars, "namedtoplevel-1.0.jar", manifest, Collections.singletonMap("Foo.class", ""));
+
+        manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().putValue("Automatic-Module-Name", "org.example-foo");
+        add(jars, "invalidname-1.0.jar", manifest, Collections.singletonMap("foo/Foo.class", ""));
+
+        // multirelease
+        manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().putValue("Multi-Release", "true");
+
+        Map<String, String> versioned = new LinkedHashMap<>();
+        versioned.put("foo/Foo.class", "");
+        versioned.put("META-INF/versions/9/Foo.class", "");
+        add(jars, "mrtoplevel-1.0.jar", manifest, versioned);
+        add(jars, "notmrtoplevel-1.0.jar", null, versioned);
+
+        versioned = new LinkedHashMap<>();
+        versioned.put("foo/Foo.class", "");
+        versioned.put("META-INF/versions/9/bar/Bar.class", "");
+        versioned.put("META-INF/versions/9/META-INF/services/foo.Spi", "bar.Impl\n");
+        versioned.put("META-INF/versions/9999/Foo.class", "");
+        add(jars, "mrservices-1.0.jar", manifest, versioned);
+
+        Map<Path, String> expected =
+                new MainClassModuleNameExtractor(Paths.get(System.getProperty("java.home"))).extract(jars);
+
+        AutomaticModuleNameExtractor extractor = new AutomaticModuleNameExtractor();
+        for (Path jar : jars.keySet()) {
+            assertThat(extractor.extract(jar))
+                    .as(jar.getFileName().toString())
+                    .isEqualTo(expected.get(jar));
+        }
+    }
+
+    private void add(Map<Path, Path> jars, String fileName, Manifest manifest, Map<String, String> entries)
+            throws IOException {
+        Path jar = tempDir.resolve(jars.size() + "/" + fileName);
+        Files.createDirectories(jar.getParent());
+
+        try (OutputStream out = Files.newOutputStream(jar);
+                JarOutputStream jarOut =
+                        manifest != null ? new JarOutputStream(out, manifest) : new JarOutputStream(out)) {
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                jarOut.putNextEntry(new ZipEntry(entry.getKey()));
+                jarOut.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+                jarOut.closeEntry();
+            }
+        }
+        jars.put(jar, jar);
+    }
+}
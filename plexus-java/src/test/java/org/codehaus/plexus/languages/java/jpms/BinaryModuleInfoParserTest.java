@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Collections;
@@ -93,6 +94,49 @@ class BinaryModuleInfoParserTest {
         assertNull(descriptor);
     }
 
+    @Test
+    void classicJarProbe() throws Exception {
+        Path jar = Paths.get("src/test/test-data/jar.manifest.with/plexus-java-1.0.0-SNAPSHOT.jar");
+
+        assertNull(parser.getModuleDescriptor(jar));
+
+        JarProbe probe = parser.getProbe(jar);
+        assertNotNull(probe);
+        assertFalse(probe.isMultiRelease());
+        assertEquals("org.codehaus.plexus.languages.java", probe.getAutomaticModuleName());
+    }
+
+    @Test
+    void classicJarProbeWithoutManifestName() throws Exception {
+        Path jar = Paths.get("src/test/test-data/jar.empty/plexus-java-1.0.0-SNAPSHOT.jar");
+
+        assertNull(parser.getModuleDescriptor(jar));
+
+        JarProbe probe = parser.getProbe(jar);
+        assertNotNull(probe);
+        assertNull(probe.getAutomaticModuleName());
+        assertEquals("plexus.java", probe.getFilenameModuleName());
+    }
+
+    @Test
+    void unsupportedJarProbe() throws Exception {
+        Path jar = Paths.get("src/test/test-data/jar.unsupported/jdom-1.0.jar");
+
+        assertNull(parser.getModuleDescriptor(jar));
+
+        JarProbe probe = parser.getProbe(jar);
+        assertNotNull(probe);
+        assertThrows(IllegalArgumentException.class, probe::getFilenameModuleName);
+    }
+
+    @Test
+    void descriptorJarHasNoProbe() throws Exception {
+        Path jar = Paths.get("src/test/test-data/jar.descriptor/asm-6.0_BETA.jar");
+
+        assertNotNull(parser.getModuleDescriptor(jar));
+        assertNull(parser.getProbe(jar));
+    }
+
     @Test
     void outputDirectoryDescriptor() throws Exception {
         JavaModuleDescriptor descriptor =
@@ -0,0 +1,170 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import org.codehaus.plexus.languages.java.version.JavaVersion;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ClassFileModuleInfoParserTest {
+    private final ClassFileModuleInfoParser parser = new ClassFileModuleInfoParser();
+
+    @ParameterizedTest
+    @MethodSource("provideModulePaths")
+    void sameAsAsm(Path modulePath) throws Exception {
+        JavaVersion jdkVersion = JavaVersion.parse("17");
+
+        JavaModuleDescriptor expected = new AsmModuleInfoParser().getModuleDescriptor(modulePath, jdkVersion);
+        JavaModuleDescriptor actual = parser.getModuleDescriptor(modulePath, jdkVersion);
+
+        assertThat(actual).isEqualTo(expected);
+        if (expected != null) {
+            assertThat(actual.uses()).isEqualTo(expected.uses());
+            assertThat(actual.provides()).isEqualTo(expected.provides());
+        }
+    }
+
+    static Stream<Path> provideModulePaths() {
+        return Stream.of(
+                Paths.get("src/test/test-data/jar.descriptor/asm-6.0_BETA.jar"),
+                Paths.get("src/test/test-data/jar.mr.descriptor/jloadr-1.0-SNAPSHOT.jar"),
+                Paths.get("src/test/test-data/jmod.descriptor/first-jmod-1.0-SNAPSHOT.jmod"),
+                Paths.get("src/test/test-data/dir.descriptor/out"),
+                Paths.get("src/test/test-data/dir.descriptor.requires/out"),
+                Paths.get("src/test/test-data/dir.descriptor.uses/out"),
+                Paths.get("src/test/test-data/jar.service/threeten-extra-1.4.jar"),
+                Paths.get("src/test/test-data/jar.tests/plexus-java-1.0.0-SNAPSHOT.jar"));
+    }
+
+    @Test
+    void requiresOnly() throws Exception {
+        Path jar = Paths.get("src/test/test-data/jar.service/threeten-extra-1.4.jar");
+        JavaModuleDescriptor full = parser.getModuleDescriptor(jar);
+
+        JavaModuleDescriptor descriptor =
+                parser.getModuleDescriptor(jar, JavaVersion.JAVA_SPECIFICATION_VERSION, ParseDepth.REQUIRES);
+
+        assertThat(descriptor.depth()).isEqualTo(ParseDepth.REQUIRES);
+        assertThat(descriptor.name()).isEqualTo(full.name());
+        assertThat(descriptor.requires()).isEqualTo(full.requires());
+        assertThat(descriptor.toString()).contains("depth=REQUIRES").doesNotContain("exports=", "provides=");
+        assertThat(descriptor.depth()).isEqualTo(ParseDepth.REQUIRES);
+
+        // the skipped directives are read once asked for
+        assertThat(descriptor.provides()).isEqualTo(full.provides());
+        assertThat(descriptor.depth()).isEqualTo(ParseDepth.FULL);
+        assertThat(descriptor).isEqualTo(full).hasToString(full.toString());
+    }
+
+    @Test
+    void requiresAndServices() throws Exception {
+        Path jar = Paths.get("src/test/test-data/jar.service/threeten-extra-1.4.jar");
+        JavaModuleDescriptor full = parser.getModuleDescriptor(jar);
+
+        JavaModuleDescriptor descriptor = parser.getModuleDescriptor(
+                jar, JavaVersion.JAVA_SPECIFICATION_VERSION, ParseDepth.REQUIRES_AND_SERVICES);
+
+        assertThat(descriptor.provides()).isNotEmpty().isEqualTo(full.provides());
+        assertThat(descriptor.uses()).isEqualTo(full.uses());
+        assertThat(descriptor.depth()).isEqualTo(ParseDepth.REQUIRES_AND_SERVICES);
+
+        assertThat(descriptor.exports()).isEqualTo(full.exports());
+        assertThat(descriptor.depth()).isEqualTo(ParseDepth.FULL);
+    }
+
+    @Test
+    void partialEqualsComplete() throws Exception {
+        Path jar = Paths.get("src/test/test-data/jar.service/threeten-extra-1.4.jar");
+        JavaModuleDescriptor full = parser.getModuleDescriptor(jar);
+
+        JavaModuleDescriptor descriptor =
+                parser.getModuleDescriptor(jar, JavaVersion.JAVA_SPECIFICATION_VERSION, ParseDepth.REQUIRES);
+
+        assertThat(descriptor).isEqualTo(full).hasSameHashCodeAs(full);
+        assertThat(full).isEqualTo(descriptor);
+    }
+
+    @Test
+    void skippedDirectivesAfterArchiveIsGone(@TempDir Path tempDir) throws Exception {
+        Path jar = tempDir.resolve("threeten-extra-1.4.jar");
+        Files.copy(Paths.get("src/test/test-data/jar.service/threeten-extra-1.4.jar"), jar);
+        JavaModuleDescriptor full = parser.getModuleDescriptor(jar);
+
+        JavaModuleDescriptor descriptor =
+                parser.getModuleDescriptor(jar, JavaVersion.JAVA_SPECIFICATION_VERSION, ParseDepth.REQUIRES);
+        Files.delete(jar);
+
+        assertThat(descriptor.exports()).isEqualTo(full.exports());
+        assertThat(descriptor.provides()).isEqualTo(full.provides());
+        assertThat(descriptor.depth()).isEqualTo(ParseDepth.FULL);
+    }
+
+    @Test
+    void truncated() throws Exception {
+        byte[] bytes = Files.readAllBytes(Paths.get("src/test/test-data/dir.descriptor.uses/out/module-info.class"));
+
+        // attributes after the Module attribute are never read, so only cut before or within it
+        for (int length : new int[] {0, 4, 10, bytes.length / 2}) {
+            try (InputStream in = new ByteArrayInputStream(Arrays.copyOf(bytes, length))) {
+                assertThrows(IOException.class, () -> parser.parse(in));
+            }
+        }
+    }
+
+    @Test
+    void truncatedSkippedDirectives() throws Exception {
+        byte[] bytes = Files.readAllBytes(Paths.get("src/test/test-data/dir.descriptor.uses/out/module-info.class"));
+
+        // the skipped directives are checked upfront, decoding them later must not fail
+        for (int length = 0; length < bytes.length; length++) {
+            ByteBuffer truncated = ByteBuffer.wrap(Arrays.copyOf(bytes, length));
+            try {
+                parser.parse(truncated.duplicate(), ParseDepth.FULL);
+            } catch (IOException e) {
+                for (ParseDepth depth : new ParseDepth[] {ParseDepth.REQUIRES, ParseDepth.REQUIRES_AND_SERVICES}) {
+                    assertThrows(IOException.class, () -> parser.parse(truncated.duplicate(), depth));
+                }
+            }
+        }
+    }
+
+    @Test
+    void notAModule() throws Exception {
+        try (InputStream in =
+                Files.newInputStream(Paths.get("src/test/test-data/classfile.version/helloworld-17.class"))) {
+            assertThrows(IOException.class, () -> parser.parse(in));
+        }
+    }
+}
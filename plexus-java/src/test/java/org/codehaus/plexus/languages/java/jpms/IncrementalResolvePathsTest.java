@@ -0,0 +1,172 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class IncrementalResolvePathsTest {
+    private static final Path TEST_DATA = Paths.get("src/test/test-data");
+
+    @TempDir
+    Path tempDir;
+
+    private ModuleInfoParser binaryParser;
+
+    private LocationManager locationManager;
+
+    private Path descriptorDir;
+
+    private Path manifestDir;
+
+    private Path jar;
+
+    @BeforeEach
+    void onSetup() throws Exception {
+        binaryParser = spy(new ClassFileModuleInfoParser());
+        locationManager = new LocationManager() {
+            @Override
+            ModuleInfoParser getBinaryModuleInfoParser(Path jdkHome) {
+                return binaryParser;
+            }
+        };
+
+        descriptorDir = Files.createDirectories(tempDir.resolve("descriptor"));
+        Files.copy(
+                TEST_DATA.resolve("dir.descriptor/out/module-info.class"), descriptorDir.resolve("module-info.class"));
+
+        manifestDir = tempDir.resolve("manifest");
+        Files.createDirectories(manifestDir.resolve("META-INF"));
+        Files.copy(
+                TEST_DATA.resolve("dir.manifest.with/out/META-INF/MANIFEST.MF"),
+                manifestDir.resolve("META-INF/MANIFEST.MF"));
+
+        jar = TEST_DATA.resolve("jar.descriptor/asm-6.0_BETA.jar");
+    }
+
+    @Test
+    void unchangedPathElementsAreReused() throws Exception {
+        ResolvePathsResult<Path> first = locationManager.resolvePaths(request());
+        ResolvePathsResult<Path> second = locationManager.resolvePaths(request(), first);
+
+        verify(binaryParser, times(1)).getModuleDescriptor(descriptorDir);
+        assertSameAsFullResolution(second);
+        assertThat(second.getPathElements()).isEqualTo(first.getPathElements());
+        assertThat(second.getModulepathElements()).containsOnlyKeys(manifestDir);
+    }
+
+    @Test
+    void changedModuleDescriptorIsProbedAgain() throws Exception {
+        ResolvePathsResult<Path> first = locationManager.resolvePaths(request());
+
+        Path moduleInfo = descriptorDir.resolve("module-info.class");
+        FileTime lastModified = Files.getLastModifiedTime(moduleInfo);
+        Files.copy(
+                TEST_DATA.resolve("dir.descriptor.requires/out/module-info.class"),
+                moduleInfo,
+                StandardCopyOption.REPLACE_EXISTING);
+        Files.setLastModifiedTime(moduleInfo, FileTime.fromMillis(lastModified.toMillis() + 2000));
+
+        ResolvePathsResult<Path> second = locationManager.resolvePaths(request(), first);
+
+        verify(binaryParser, times(2)).getModuleDescriptor(descriptorDir);
+        assertSameAsFullResolution(second);
+        assertThat(second.getPathElements().get(descriptorDir).name()).isEqualTo("mod.req.modifiers");
+    }
+
+    @Test
+    void removedManifestChangesSelection() throws Exception {
+        ResolvePathsResult<Path> first = locationManager.resolvePaths(request());
+        assertThat(first.getModulepathElements()).containsOnlyKeys(manifestDir);
+
+        Files.delete(manifestDir.resolve("META-INF/MANIFEST.MF"));
+
+        ResolvePathsResult<Path> second = locationManager.resolvePaths(request(), first);
+
+        assertSameAsFullResolution(second);
+        assertThat(second.getPathElements().get(manifestDir)).isNull();
+        assertThat(second.getModulepathElements()).isEmpty();
+        assertThat(second.getClasspathElements()).containsExactly(descriptorDir, manifestDir, jar);
+    }
+
+    @Test
+    void changedRequestSelectsAgain() throws Exception {
+        ResolvePathsResult<Path> first = locationManager.resolvePaths(request());
+
+        ResolvePathsResult<Path> second = locationManager.resolvePaths(
+                request().setModuleDescriptor(JavaModuleDescriptor.newModule("base")
+                        .requires("org.objectweb.asm")
+                        .build()),
+                first);
+
+        verify(binaryParser, times(1)).getModuleDescriptor(descriptorDir);
+        assertThat(second.getModulepathElements()).containsOnlyKeys(jar);
+        assertThat(second.getClasspathElements()).containsExactly(descriptorDir, manifestDir);
+    }
+
+    @Test
+    void otherParseDepthProbesAgain() throws Exception {
+        ResolvePathsResult<Path> first = locationManager.resolvePaths(request());
+
+        ResolvePathsResult<Path> second =
+                locationManager.resolvePaths(request().setParseDepth(ParseDepth.REQUIRES), first);
+
+        verify(binaryParser, times(1)).getModuleDescriptor(descriptorDir);
+        verify(binaryParser, times(1)).getModuleDescriptor(eq(descriptorDir), any(), eq(ParseDepth.REQUIRES));
+        assertThat(second.getPathElements()).isEqualTo(first.getPathElements());
+    }
+
+    @Test
+    void withoutPrevious() throws Exception {
+        ResolvePathsResult<Path> result = locationManager.resolvePaths(request(), null);
+
+        assertSameAsFullResolution(result);
+    }
+
+    private ResolvePathsRequest<Path> request() {
+        return ResolvePathsRequest.ofPaths(descriptorDir, manifestDir, jar)
+                .setModuleDescriptor(JavaModuleDescriptor.newModule("base")
+                        .requires("auto.by.manifest")
+                        .build());
+    }
+
+    private void assertSameAsFullResolution(ResolvePathsResult<Path> result) throws Exception {
+        ResolvePathsResult<Path> full = new LocationManager().resolvePaths(request());
+
+        assertThat(result.getPathElements()).containsExactlyEntriesOf(full.getPathElements());
+        assertThat(result.getModulepathElements()).containsExactlyEntriesOf(full.getModulepathElements());
+        assertThat(result.getClasspathElements()).containsExactlyElementsOf(full.getClasspathElements());
+        assertThat(result.getPathExceptions()).isEqualTo(full.getPathExceptions());
+    }
+}
@@ -0,0 +1,125 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.codehaus.plexus.languages.java.jpms.SyntheticPathGenerator.Kind;
+import org.codehaus.plexus.languages.java.jpms.SyntheticPathGenerator.SyntheticPath;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocationManagerStressTest {
+    private static final int PATH_ELEMENTS = 2000;
+
+    @TempDir
+    static Path tempDir;
+
+    private static SyntheticPath path;
+
+    @BeforeAll
+    static void generate() throws Exception {
+        path = new SyntheticPathGenerator(tempDir)
+                .setWeight(Kind.SIGNED_JAR, 5)
+                .setWeight(Kind.JMOD, 2)
+                .generate(PATH_ELEMENTS);
+    }
+
+    @Test
+    void everyKindIsGenerated() {
+        for (Kind kind : Kind.values()) {
+            assertThat(path.getPathElements(kind)).as(kind.name()).isNotEmpty();
+        }
+    }
+
+    @Test
+    void resolvePaths() throws Exception {
+        assertResolved(new LocationManager().resolvePaths(request()));
+    }
+
+    @Test
+    void resolvePathsConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            assertResolved(new LocationManager().resolvePaths(request().setExecutor(executor)));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void resolvePathsFromCache() throws Exception {
+        LocationManager locationManager = new LocationManager();
+        locationManager.resolvePaths(request());
+
+        assertResolved(locationManager.resolvePaths(request()));
+    }
+
+    private static ResolvePathsRequest<Path> request() {
+        JavaModuleDescriptor.Builder main = JavaModuleDescriptor.newModule("org.example.main");
+        for (int index = 9; index < PATH_ELEMENTS; index += 10) {
+            main.requires(SyntheticPathGenerator.name(index));
+        }
+        return ResolvePathsRequest.ofPaths(path.getPathElements()).setModuleDescriptor(main.build());
+    }
+
+    private static void assertResolved(ResolvePathsResult<Path> result) {
+        assertThat(result.getPathElements()).hasSize(PATH_ELEMENTS);
+        assertThat(result.getPathExceptions()).containsOnlyKeys(path.getPathElements(Kind.JMOD));
+        assertThat(result.getModulepathElements()).hasSizeGreaterThan(PATH_ELEMENTS / 10);
+
+        for (Map.Entry<Path, JavaModuleDescriptor> element : result.getPathElements().entrySet()) {
+            Path pathElement = element.getKey();
+            Kind kind = path.getKind(pathElement);
+            if (kind == Kind.JMOD) {
+                assertThat(element.getValue()).as(pathElement.toString()).isNull();
+                continue;
+            }
+
+            assertThat(element.getValue()).as(pathElement.toString()).isNotNull();
+            assertThat(element.getValue().name())
+                    .as(pathElement.toString())
+                    .isEqualTo(path.getDescriptor(pathElement).name());
+            assertThat(element.getValue().isAutomatic()).as(pathElement.toString()).isEqualTo(!kind.isExplicit());
+            if (kind.isExplicit()) {
+                assertThat(element.getValue().requires())
+                        .as(pathElement.toString())
+                        .isEqualTo(path.getDescriptor(pathElement).requires());
+            }
+
+            ModuleNameSource source = result.getModulepathElements().get(pathElement);
+            if (source != null) {
+                assertThat(source).as(pathElement.toString()).isEqualTo(kind.getModuleNameSource());
+            }
+        }
+
+        for (Path pathElement : result.getModulepathElements().keySet()) {
+            assertThat(result.getClasspathElements()).doesNotContain(pathElement);
+        }
+        assertThat(result.getModulepathElements().size() + result.getClasspathElements().size())
+                .isEqualTo(PATH_ELEMENTS);
+    }
+}
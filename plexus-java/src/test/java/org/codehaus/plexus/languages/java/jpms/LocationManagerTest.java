@@ -20,19 +20,29 @@ package org.codehaus.plexus.languages.java.jpms;
  */
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.codehaus.plexus.languages.java.jpms.JavaModuleDescriptor.JavaRequires.JavaModifier;
+import org.codehaus.plexus.languages.java.jpms.ResolvePathsStatistics.Phase;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class LocationManagerTest {
@@ -485,6 +495,36 @@ class LocationManagerTest {
         assertThat(result.getPathExceptions()).isEmpty();
     }
 
+    @Test
+    void moduleGraph() throws Exception {
+        Path moduleA = Paths.get("src/test/test-data/mock/module-info.java"); // some file called module-info.java
+        Path moduleB = Paths.get("src/test/test-data/mock/jar0.jar"); // any existing file
+        Path moduleC = Paths.get("src/test/test-data/mock/jar1.jar"); // any existing file
+        ResolvePathsRequest<Path> request =
+                ResolvePathsRequest.ofPaths(moduleB, moduleC).setMainModuleDescriptor(moduleA);
+
+        when(sourceParser.fromSourcePath(moduleA))
+                .thenReturn(JavaModuleDescriptor.newModule("moduleA")
+                        .requires("moduleB")
+                        .build());
+        when(asmParser.getModuleDescriptor(moduleB))
+                .thenReturn(JavaModuleDescriptor.newModule("moduleB")
+                        .requires(Collections.singleton(JavaModifier.STATIC), "moduleC")
+                        .build());
+        when(asmParser.getModuleDescriptor(moduleC))
+                .thenReturn(JavaModuleDescriptor.newModule("moduleC").build());
+
+        ResolvePathsResult<Path> result = locationManager.resolvePaths(request);
+
+        // moduleC isn't on the modulepath, but still part of the graph
+        assertThat(result.getClasspathElements()).containsExactly(moduleC);
+        ModuleGraph graph = result.getModuleGraph();
+        assertThat(graph.getModules()).containsExactly("moduleA", "moduleB", "moduleC");
+        assertThat(graph.getTransitiveRequires("moduleA")).containsExactly("moduleB", "moduleC");
+        assertThat(graph.getRequiredBy("moduleC")).containsExactly("moduleB");
+        assertThat(result.getModuleGraph()).isSameAs(graph);
+    }
+
     @Test
     void directStatic() throws Exception {
         Path moduleA = Paths.get("src/test/test-data/mock/module-info.java"); // some file called module-info.java
@@ -634,4 +674,147 @@ class LocationManagerTest {
         ResolvePathsResult<Path> result = locationManager.resolvePaths(request);
         assertThat(result.getModulepathElements()).containsOnlyKeys(moduleB, moduleC, moduleD);
     }
+
+    @Test
+    void concurrentProbingKeepsPathOrder() throws Exception {
+        Path jar0 = Paths.get("src/test/test-data/mock/jar0.jar");
+        Path jar1 = Paths.get("src/test/test-data/mock/jar1.jar");
+        Path jar2 = Paths.get("src/test/test-data/mock/jar2.jar");
+        when(asmParser.getModuleDescriptor(jar0))
+                .thenReturn(JavaModuleDescriptor.newModule("same").build());
+        when(asmParser.getModuleDescriptor(jar1))
+                .thenReturn(JavaModuleDescriptor.newModule("same").build());
+        when(asmParser.getModuleDescriptor(jar2)).thenThrow(new IOException("broken"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            ResolvePathsResult<Path> result = locationManager.resolvePaths(
+                    ResolvePathsRequest.ofPaths(jar0, jar1, jar2)
+                            .setAdditionalModules(Collections.singletonList("same"))
+                            .setExecutor(executor));
+
+            assertThat(result.getPathElements()).containsOnlyKeys(jar0, jar1, jar2);
+            assertThat(result.getModulepathElements()).containsOnlyKeys(jar0);
+            assertThat(result.getClasspathElements()).containsExactly(jar2);
+            assertThat(result.getPathExceptions()).containsOnlyKeys(jar1, jar2);
+            assertThat(result.getPathExceptions().get(jar2)).isInstanceOf(IOException.class);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void resolvePathElements() throws Exception {
+        Path jar0 = Paths.get("src/test/test-data/mock/jar0.jar");
+        Path jar1 = Paths.get("src/test/test-data/mock/jar1.jar");
+        Path jar2 = Paths.get("src/test/test-data/mock/jar2.jar");
+        when(asmParser.getModuleDescriptor(jar0))
+                .thenReturn(JavaModuleDescriptor.newModule("jar0").build());
+        when(asmParser.getModuleDescriptor(jar1)).thenThrow(new IOException("broken"));
+        when(asmParser.getModuleDescriptor(jar2))
+                .thenReturn(JavaModuleDescriptor.newModule("jar2").build());
+
+        Map<Path, Exception> pathExceptions = new HashMap<>();
+        Map<Path, ResolvePathResult> results =
+                locationManager.resolvePathElements(ResolvePathsRequest.ofPaths(jar2, jar1, jar0), pathExceptions);
+
+        assertThat(results.keySet()).containsExactly(jar2, jar1, jar0);
+        assertThat(results.get(jar0).getModuleDescriptor().name()).isEqualTo("jar0");
+        assertThat(results.get(jar0).getModuleNameSource()).isEqualTo(ModuleNameSource.MODULEDESCRIPTOR);
+        assertThat(results.get(jar1)).isNull();
+        assertThat(results.get(jar2).getModuleDescriptor().name()).isEqualTo("jar2");
+        assertThat(pathExceptions).containsOnlyKeys(jar1);
+        assertThat(pathExceptions.get(jar1)).isInstanceOf(IOException.class).hasMessage("broken");
+    }
+
+    @Test
+    void switchForkModuleNameExtractor() throws Exception {
+        Path jar = Paths.get("src/test/test-data/jar.empty/plexus-java-1.0.0-SNAPSHOT.jar");
+        Path jdkHome = Paths.get(System.getProperty("java.home"));
+
+        LocationManager locationManager = new LocationManager();
+
+        ResolvePathsRequest<Path> inProcess =
+                ResolvePathsRequest.ofPaths(jar).setJdkHome(jdkHome).setCollectStatistics(true);
+        ResolvePathsRequest<Path> forked = ResolvePathsRequest.ofPaths(jar)
+                .setJdkHome(jdkHome)
+                .setForkModuleNameExtractor(true)
+                .setCollectStatistics(true);
+
+        ResolvePathsResult<Path> first = locationManager.resolvePaths(inProcess);
+        ResolvePathsResult<Path> second = locationManager.resolvePaths(forked);
+
+        assertThat(first.getPathElements().get(jar).name()).isEqualTo("plexus.java");
+        assertThat(first.getStatistics().getDuration(Phase.FORKED_EXTRACTOR)).isEqualTo(Duration.ZERO);
+        // the name derived in-process isn't reused
+        assertThat(second.getPathElements().get(jar).name()).isEqualTo("plexus.java");
+        assertThat(second.getStatistics().getDuration(Phase.FORKED_EXTRACTOR)).isGreaterThan(Duration.ZERO);
+        assertThat(locationManager.getCacheStatistics().getHitCount()).isZero();
+
+        // both are cached now
+        ResolvePathsResult<Path> third = locationManager.resolvePaths(inProcess);
+        ResolvePathsResult<Path> fourth = locationManager.resolvePaths(forked);
+
+        assertThat(third.getPathElements().get(jar).name()).isEqualTo("plexus.java");
+        assertThat(fourth.getPathElements().get(jar).name()).isEqualTo("plexus.java");
+        assertThat(fourth.getStatistics().getDuration(Phase.FORKED_EXTRACTOR)).isEqualTo(Duration.ZERO);
+        assertThat(locationManager.getCacheStatistics().getHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    void parseDepthDoesntChangeResult() throws Exception {
+        List<Path> paths = Arrays.asList(
+                Paths.get("src/test/test-data/jar.descriptor/asm-6.0_BETA.jar"),
+                Paths.get("src/test/test-data/jar.service/threeten-extra-1.4.jar"),
+                Paths.get("src/test/test-data/dir.descriptor.requires/out"));
+        JavaModuleDescriptor descriptor = JavaModuleDescriptor.newModule("base")
+                .requires("org.objectweb.asm")
+                .uses("java.time.chrono.Chronology")
+                .build();
+
+        ResolvePathsResult<Path> full = new LocationManager()
+                .resolvePaths(ResolvePathsRequest.ofPaths(paths)
+                        .setModuleDescriptor(descriptor)
+                        .setIncludeAllProviders(true));
+        ResolvePathsResult<Path> requires = new LocationManager()
+                .resolvePaths(ResolvePathsRequest.ofPaths(paths)
+                        .setModuleDescriptor(descriptor)
+                        .setIncludeAllProviders(true)
+                        .setParseDepth(ParseDepth.REQUIRES));
+
+        assertThat(requires.getModulepathElements()).hasSize(2).isEqualTo(full.getModulepathElements());
+        assertThat(requires.getClasspathElements()).isEqualTo(full.getClasspathElements());
+        assertThat(requires.getPathElements().values())
+                .extracting(JavaModuleDescriptor::depth)
+                .containsOnly(ParseDepth.REQUIRES_AND_SERVICES);
+        assertThat(requires.getPathElements()).isEqualTo(full.getPathElements());
+    }
+
+    @Test
+    void resolveManyRequests() throws Exception {
+        Path dir = Paths.get("src/test/test-data/dir.descriptor/out");
+        Path jar = Paths.get("src/test/test-data/mock/jar0.jar");
+        when(asmParser.getModuleDescriptor(dir))
+                .thenReturn(JavaModuleDescriptor.newModule("dir").build());
+        when(asmParser.getModuleDescriptor(jar))
+                .thenReturn(JavaModuleDescriptor.newModule("jar0").requires("dir").build());
+
+        ResolvePathsRequest<Path> first = ResolvePathsRequest.ofPaths(dir, jar)
+                .setModuleDescriptor(
+                        JavaModuleDescriptor.newModule("base").requires("jar0").build());
+        ResolvePathsRequest<Path> second = ResolvePathsRequest.ofPaths(jar, dir.toAbsolutePath())
+                .setModuleDescriptor(
+                        JavaModuleDescriptor.newModule("base").requires("dir").build());
+
+        List<ResolvePathsResult<Path>> results = locationManager.resolvePaths(Arrays.asList(first, second));
+
+        // the absolute path is the same path element
+        verify(asmParser, times(1)).getModuleDescriptor(dir);
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0).getModulepathElements()).containsOnlyKeys(dir, jar);
+        assertThat(results.get(0).getClasspathElements()).isEmpty();
+        assertThat(results.get(1).getPathElements()).containsOnlyKeys(jar, dir.toAbsolutePath());
+        assertThat(results.get(1).getModulepathElements()).containsOnlyKeys(dir.toAbsolutePath());
+        assertThat(results.get(1).getClasspathElements()).containsExactly(jar);
+    }
 }
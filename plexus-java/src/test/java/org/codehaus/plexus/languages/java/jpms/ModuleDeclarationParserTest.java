@@ -0,0 +1,114 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Stream;
+
+import org.codehaus.plexus.languages.java.jpms.JavaModuleDescriptor.JavaRequires;
+import org.codehaus.plexus.languages.java.jpms.JavaModuleDescriptor.JavaRequires.JavaModifier;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ModuleDeclarationParserTest {
+    @TempDir
+    Path tempDir;
+
+    @ParameterizedTest
+    @MethodSource("provideSources")
+    void sameAsJavaParser(String source) throws Exception {
+        JavaModuleDescriptor expected = new SourceModuleInfoParser().parseWithJavaParser(source, null);
+
+        JavaModuleDescriptor descriptor = ModuleDeclarationParser.parse(source);
+
+        assertThat(descriptor).isEqualTo(expected);
+        assertThat(descriptor.uses()).isEqualTo(expected.uses());
+        assertThat(descriptor.provides()).isEqualTo(expected.provides());
+    }
+
+    static Stream<String> provideSources() throws Exception {
+        return Stream.of(
+                new String(
+                        Files.readAllBytes(Paths.get("src/test/test-data/src.dir/module-info.java")),
+                        StandardCharsets.UTF_8),
+                new String(
+                        Files.readAllBytes(Paths.get("src/test/test-data/annotated-type-argument/module-info.java")),
+                        StandardCharsets.UTF_8),
+                "module a {}",
+                "\uFEFFmodule bom { }",
+                "module // comment\n m /* comment */ . n { requires\tstatic /**/ transitive a . b ; }",
+                "import java.sql.Driver;\n"
+                        + "import static a.B.*;\n"
+                        + "/** doc */\n"
+                        + "@Deprecated(since = \"9\", forRemoval = true)\n"
+                        + "@SuppressWarnings({\"a\", \"b)\"})\n"
+                        + "module x {\n"
+                        + "    requires transitive;\n"
+                        + "    requires java.sql;\n"
+                        + "    uses Driver;\n"
+                        + "    provides Driver with x.Impl, x.Other;\n"
+                        + "    opens x.p;\n"
+                        + "    opens x.q to y, z;\n"
+                        + "}",
+                "@foo.Bar(value = {1, 2}, c = 'x', d = '\\'') open module q {}");
+    }
+
+    @Test
+    void restrictedKeywordAsModuleName() {
+        // JavaParser fails on this one
+        JavaModuleDescriptor descriptor = ModuleDeclarationParser.parse("module a { requires static transitive; }");
+
+        assertThat(descriptor.requires()).extracting(JavaRequires::name).containsExactly("transitive");
+        assertThat(descriptor.requires().iterator().next().modifiers()).containsExactly(JavaModifier.STATIC);
+    }
+
+    @ParameterizedTest
+    @ValueSource(
+            strings = {
+                "module \\u0061 {}",
+                "module a { requires b }",
+                "module a {} class B {}",
+                "class A {}",
+                "module a { requires b; /* unterminated",
+                "@A(\"\"\"\n  text block\n  \"\"\") module a {}"
+            })
+    void unsupported(String source) {
+        assertThat(ModuleDeclarationParser.parse(source)).isNull();
+    }
+
+    @Test
+    void fallbackToJavaParser() throws Exception {
+        String source = "module \\u0061.b { requires c; }";
+        Path moduleInfo = Files.write(tempDir.resolve("module-info.java"), source.getBytes(StandardCharsets.UTF_8));
+
+        JavaModuleDescriptor descriptor = new SourceModuleInfoParser().fromSourcePath(moduleInfo);
+
+        assertThat(descriptor).isEqualTo(new SourceModuleInfoParser().parseWithJavaParser(source, moduleInfo));
+        assertThat(descriptor.requires()).extracting(JavaRequires::name).containsExactly("c");
+    }
+}
@@ -0,0 +1,128 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.codehaus.plexus.languages.java.jpms.JavaModuleDescriptor.JavaRequires.JavaModifier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ModuleGraphTest {
+    private ModuleGraph graph;
+
+    @BeforeEach
+    void onSetup() {
+        JavaModuleDescriptor main = JavaModuleDescriptor.newModule("main")
+                .requires("java.base")
+                .requires("a")
+                .requires(EnumSet.of(JavaModifier.STATIC), "e")
+                .uses("s.Service")
+                .build();
+        JavaModuleDescriptor a = JavaModuleDescriptor.newModule("a")
+                .requires(EnumSet.of(JavaModifier.TRANSITIVE), "b")
+                .build();
+        JavaModuleDescriptor b = JavaModuleDescriptor.newModule("b")
+                .requires(EnumSet.of(JavaModifier.TRANSITIVE), "c")
+                .requires("d")
+                .build();
+        JavaModuleDescriptor c = JavaModuleDescriptor.newModule("c").build();
+        JavaModuleDescriptor d = JavaModuleDescriptor.newModule("d").build();
+        JavaModuleDescriptor e = JavaModuleDescriptor.newModule("e").build();
+        JavaModuleDescriptor f = JavaModuleDescriptor.newModule("f")
+                .requires("a")
+                .provides("s.Service$Nested", Collections.singletonList("f.Provider"))
+                .build();
+        // the first module with a name wins
+        JavaModuleDescriptor otherA = JavaModuleDescriptor.newModule("a").build();
+
+        graph = new ModuleGraph(main, Arrays.asList(a, null, b, c, d, e, f, otherA));
+    }
+
+    @Test
+    void modules() {
+        assertThat(graph.getModules()).containsExactly("main", "a", "b", "c", "d", "e", "f");
+        assertThat(graph.contains("java.base")).isFalse();
+        assertThat(graph.getModuleDescriptor("a").requires()).hasSize(1);
+        assertThat(graph.getModuleDescriptor("java.base")).isNull();
+    }
+
+    @Test
+    void requires() {
+        // modules which aren't part of the graph are left out
+        assertThat(graph.getRequires("main")).containsExactly("a", "e");
+        assertThat(graph.getRequires("c")).isEmpty();
+        assertThat(graph.getRequires("unknown")).isEmpty();
+    }
+
+    @Test
+    void transitiveRequires() {
+        assertThat(graph.getTransitiveRequires("main")).containsExactly("a", "b", "c", "d", "e");
+        assertThat(graph.getTransitiveRequires("f")).containsExactly("a", "b", "c", "d");
+        assertThat(graph.getTransitiveRequires("f")).isSameAs(graph.getTransitiveRequires("f"));
+    }
+
+    @Test
+    void requiredBy() {
+        assertThat(graph.getRequiredBy("a")).containsExactly("main", "f");
+        assertThat(graph.getRequiredBy("main")).isEmpty();
+    }
+
+    @Test
+    void readableModules() {
+        // d isn't required transitively by b
+        assertThat(graph.getReadableModules("main")).containsExactly("a", "b", "c", "e");
+        assertThat(graph.getReadableModules("b")).containsExactly("c", "d");
+        assertThat(graph.getReadableModules("c")).isEmpty();
+        assertThat(graph.getReadableModules("main")).isSameAs(graph.getReadableModules("main"));
+    }
+
+    @Test
+    void providers() {
+        assertThat(graph.getProviders("s.Service.Nested")).containsExactly("f");
+        assertThat(graph.getProviders("s.Other")).isEmpty();
+    }
+
+    @Test
+    void cyclicRequires() {
+        ModuleGraph cyclic = new ModuleGraph(
+                null,
+                Arrays.asList(
+                        JavaModuleDescriptor.newModule("x").requires("y").build(),
+                        JavaModuleDescriptor.newModule("y").requires("x").build()));
+
+        assertThat(cyclic.getTransitiveRequires("x")).containsExactly("x", "y");
+    }
+
+    @Test
+    void unmodifiable() {
+        Set<String> modules = graph.getTransitiveRequires("main");
+
+        assertThat(modules.contains("b")).isTrue();
+        assertThat(modules.contains("f")).isFalse();
+        assertThatThrownBy(() -> modules.add("f")).isInstanceOf(UnsupportedOperationException.class);
+    }
+}
@@ -0,0 +1,103 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnJre;
+import org.junit.jupiter.api.condition.JRE;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisabledOnJre(value = JRE.JAVA_8, disabledReason = "Requires Java 9+ Module System")
+class ModuleNameExtractorWorkerTest {
+    private final Path jar = Paths.get("src/test/test-data/jar.empty/plexus-java-1.0.0-SNAPSHOT.jar");
+
+    private final ModuleNameExtractorWorker worker =
+            new ModuleNameExtractorWorker(Paths.get(System.getProperty("java.home")), 60_000);
+
+    @AfterEach
+    void stopWorker() {
+        worker.stop();
+    }
+
+    @Test
+    void reuseProcess() throws Exception {
+        assertThat(worker.extract(Collections.singletonMap("a", jar))).containsEntry("a", "plexus.java");
+
+        Process process = worker.getProcess();
+        assertThat(process).isNotNull();
+
+        assertThat(worker.extract(Collections.singletonMap("b", jar))).containsEntry("b", "plexus.java");
+        assertThat(worker.getProcess()).isSameAs(process);
+    }
+
+    @Test
+    void moreThanOneChunk() throws Exception {
+        Path unsupported = Paths.get("src/test/test-data/jar.unsupported/jdom-1.0.jar");
+
+        Map<Integer, Path> files = new LinkedHashMap<>();
+        for (int i = 0; i < 250; i++) {
+            files.put(i, i % 2 == 0 ? jar : unsupported);
+        }
+
+        Map<Integer, String> moduleNames = worker.extract(files);
+
+        assertThat(moduleNames).hasSize(250);
+        assertThat(moduleNames.get(0)).isEqualTo("plexus.java");
+        assertThat(moduleNames.get(1)).isNull();
+        assertThat(moduleNames.get(248)).isEqualTo("plexus.java");
+        assertThat(moduleNames.get(249)).isNull();
+    }
+
+    @Test
+    void recoverFromCrash() throws Exception {
+        worker.extract(Collections.singletonMap("a", jar));
+
+        Process process = worker.getProcess();
+        process.destroyForcibly().waitFor();
+
+        assertThat(worker.extract(Collections.singletonMap("b", jar))).containsEntry("b", "plexus.java");
+        assertThat(worker.getProcess()).isNotSameAs(process);
+    }
+
+    @Test
+    void stopWhenIdle() throws Exception {
+        ModuleNameExtractorWorker idleWorker =
+                new ModuleNameExtractorWorker(Paths.get(System.getProperty("java.home")), 100);
+        try {
+            idleWorker.extract(Collections.singletonMap("a", jar));
+
+            long timeout = System.currentTimeMillis() + 10_000;
+            while (idleWorker.getProcess() != null && System.currentTimeMillis() < timeout) {
+                Thread.sleep(50);
+            }
+            assertThat(idleWorker.getProcess()).isNull();
+        } finally {
+            idleWorker.stop();
+        }
+    }
+}
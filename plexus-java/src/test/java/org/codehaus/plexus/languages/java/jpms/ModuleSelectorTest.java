@@ -0,0 +1,230 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.codehaus.plexus.languages.java.jpms.JavaModuleDescriptor.JavaRequires;
+import org.codehaus.plexus.languages.java.jpms.JavaModuleDescriptor.JavaRequires.JavaModifier;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ModuleSelectorTest {
+    @Test
+    void staticRequires() {
+        Map<String, JavaModuleDescriptor> modules = new HashMap<>();
+        modules.put(
+                "a",
+                JavaModuleDescriptor.newModule("a")
+                        .requires(EnumSet.of(JavaModifier.STATIC), "b")
+                        .requires(EnumSet.of(JavaModifier.STATIC, JavaModifier.TRANSITIVE), "c")
+                        .build());
+        modules.put("b", JavaModuleDescriptor.newModule("b").build());
+        modules.put("c", JavaModuleDescriptor.newModule("c").build());
+        modules.put(
+                "d",
+                JavaModuleDescriptor.newModule("d")
+                        .requires(EnumSet.of(JavaModifier.STATIC), "e")
+                        .build());
+        modules.put("e", JavaModuleDescriptor.newModule("e").build());
+
+        ModuleSelector selector = new ModuleSelector(modules, Collections.emptyMap(), false);
+        selector.selectMainModule(JavaModuleDescriptor.newModule("main").requires("a").build());
+        // additional modules are roots, like the main module
+        selector.selectModule("d");
+
+        assertThat(selector.isSelected("a")).isTrue();
+        assertThat(selector.isSelected("b")).isFalse();
+        assertThat(selector.isSelected("c")).isTrue();
+        assertThat(selector.isSelected("d")).isTrue();
+        assertThat(selector.isSelected("e")).isTrue();
+        assertThat(selector.isSelected("main")).isFalse();
+        assertThat(selector.selectedCount()).isEqualTo(4);
+    }
+
+    @Test
+    void longRequiresChain() {
+        int length = 100_000;
+
+        Map<String, JavaModuleDescriptor> modules = new HashMap<>();
+        for (int i = 0; i < length; i++) {
+            modules.put(
+                    "m" + i,
+                    JavaModuleDescriptor.newModule("m" + i)
+                            .requires(EnumSet.of(JavaModifier.TRANSITIVE), "m" + (i + 1))
+                            .build());
+        }
+
+        ModuleSelector selector = new ModuleSelector(modules, Collections.emptyMap(), false);
+        selector.selectModule("m0");
+
+        assertThat(selector.selectedCount()).isEqualTo(length);
+    }
+
+    @Test
+    void sameAsRecursiveSelection() {
+        Random random = new Random(0);
+
+        for (int graph = 0; graph < 2000; graph++) {
+            int size = 1 + random.nextInt(30);
+            int services = random.nextInt(4);
+
+            Map<String, JavaModuleDescriptor> modules = new LinkedHashMap<>();
+            Map<String, Set<String>> providers = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                JavaModuleDescriptor.Builder builder = JavaModuleDescriptor.newModule("m" + i);
+                for (int requires = random.nextInt(5); requires > 0; requires--) {
+                    // some of them aren't available
+                    builder.requires(randomModifiers(random), "m" + random.nextInt(size + 3));
+                }
+                if (services > 0 && random.nextInt(3) == 0) {
+                    builder.uses("s" + random.nextInt(services));
+                }
+                if (services > 0 && random.nextInt(4) == 0) {
+                    String service = "s" + random.nextInt(services);
+                    builder.provides(service, Collections.singletonList("p.Provider"));
+                    providers.computeIfAbsent(service, s -> new HashSet<>()).add("m" + i);
+                }
+                modules.put("m" + i, builder.build());
+            }
+
+            JavaModuleDescriptor.Builder mainBuilder = JavaModuleDescriptor.newModule("main");
+            for (int requires = random.nextInt(4); requires > 0; requires--) {
+                mainBuilder.requires(randomModifiers(random), "m" + random.nextInt(size));
+            }
+            if (services > 0 && random.nextBoolean()) {
+                mainBuilder.uses("s0");
+            }
+            JavaModuleDescriptor mainModule = mainBuilder.build();
+
+            List<String> additionalModules = new ArrayList<>();
+            for (int additional = random.nextInt(3); additional > 0; additional--) {
+                additionalModules.add("m" + random.nextInt(size + 2));
+            }
+
+            boolean includeStatic = random.nextInt(4) == 0;
+
+            Set<String> expected = new HashSet<>();
+            expected.add(mainModule.name());
+            selectRequires(mainModule, modules, providers, expected, true, true, includeStatic);
+            for (String additionalModule : additionalModules) {
+                selectModule(additionalModule, modules, providers, expected, true, includeStatic);
+            }
+
+            ModuleSelector selector = new ModuleSelector(modules, providers, includeStatic);
+            selector.selectMainModule(mainModule);
+            for (String additionalModule : additionalModules) {
+                selector.selectModule(additionalModule);
+            }
+
+            for (String name : modules.keySet()) {
+                assertThat(selector.isSelected(name))
+                        .as("%s of graph %d", name, graph)
+                        .isEqualTo(expected.contains(name));
+            }
+        }
+    }
+
+    private static Set<JavaModifier> randomModifiers(Random random) {
+        Set<JavaModifier> modifiers = EnumSet.noneOf(JavaModifier.class);
+        if (random.nextInt(3) == 0) {
+            modifiers.add(JavaModifier.STATIC);
+        }
+        if (random.nextInt(3) == 0) {
+            modifiers.add(JavaModifier.TRANSITIVE);
+        }
+        return modifiers;
+    }
+
+    // the recursive selection the LocationManager used before, as reference
+
+    private static void selectRequires(
+            JavaModuleDescriptor module,
+            Map<String, JavaModuleDescriptor> availableModules,
+            Map<String, Set<String>> availableProviders,
+            Set<String> namedModules,
+            boolean isRootModule,
+            boolean includeAsTransitive,
+            boolean includeStatic) {
+        for (JavaRequires requires : module.requires()) {
+            if (isRootModule
+                    || includeStatic
+                    || includeAsTransitive
+                    || !requires.modifiers().contains(JavaModifier.STATIC)
+                    || requires.modifiers().contains(JavaModifier.TRANSITIVE)) {
+                selectModule(
+                        requires.name(),
+                        availableModules,
+                        availableProviders,
+                        namedModules,
+                        includeStatic,
+                        includeStatic);
+            }
+        }
+
+        for (String uses : module.uses()) {
+            for (String providerModule : availableProviders.getOrDefault(uses, Collections.emptySet())) {
+                JavaModuleDescriptor requiredModule = availableModules.get(providerModule);
+
+                if (requiredModule != null && namedModules.add(providerModule)) {
+                    selectRequires(
+                            requiredModule,
+                            availableModules,
+                            availableProviders,
+                            namedModules,
+                            false,
+                            includeAsTransitive,
+                            includeStatic);
+                }
+            }
+        }
+    }
+
+    private static void selectModule(
+            String module,
+            Map<String, JavaModuleDescriptor> availableModules,
+            Map<String, Set<String>> availableProviders,
+            Set<String> namedModules,
+            boolean includeTransitive,
+            boolean includeStatic) {
+        JavaModuleDescriptor requiredModule = availableModules.get(module);
+
+        if (requiredModule != null && namedModules.add(module)) {
+            selectRequires(
+                    requiredModule,
+                    availableModules,
+                    availableProviders,
+                    namedModules,
+                    false,
+                    includeTransitive,
+                    includeStatic);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NamePoolTest {
+    private final NamePool pool = new NamePool();
+
+    @Test
+    void samePooledInstance() {
+        String name = pool.get(new String("java.base"));
+
+        assertThat(pool.get(new String("java.base"))).isSameAs(name);
+        assertThat(pool.get(new String("java.sql"))).isEqualTo("java.sql").isNotSameAs(name);
+        assertThat(pool.get(null)).isNull();
+    }
+
+    @Test
+    void fromInternalName() {
+        String name = pool.getFromInternalName("java/sql/Driver");
+
+        assertThat(name).isEqualTo("java.sql.Driver");
+        assertThat(pool.getFromInternalName("java/sql/Driver")).isSameAs(name);
+        assertThat(pool.get(new String("java.sql.Driver"))).isSameAs(name);
+    }
+
+    @Test
+    void replacesOnCollision() {
+        NamePool single = new NamePool(1);
+
+        String first = single.get(new String("a"));
+        String second = single.get(new String("b"));
+
+        assertThat(single.get(new String("b"))).isSameAs(second);
+        assertThat(single.get(new String("a"))).isEqualTo(first).isNotSameAs(first);
+    }
+
+    @Test
+    void sharedByParsers() throws Exception {
+        Path jar = Paths.get("src/test/test-data/jar.service/threeten-extra-1.4.jar");
+
+        JavaModuleDescriptor first = new ClassFileModuleInfoParser(pool).getModuleDescriptor(jar);
+        JavaModuleDescriptor second = new ClassFileModuleInfoParser(pool).getModuleDescriptor(jar);
+
+        assertThat(second).isEqualTo(first);
+        assertThat(second.name()).isSameAs(first.name());
+        assertThat(second.requires().iterator().next().name())
+                .isSameAs(first.requires().iterator().next().name());
+        assertThat(second.exports().iterator().next().source())
+                .isSameAs(first.exports().iterator().next().source());
+        assertThat(second.provides().iterator().next().service())
+                .isSameAs(first.provides().iterator().next().service());
+    }
+}
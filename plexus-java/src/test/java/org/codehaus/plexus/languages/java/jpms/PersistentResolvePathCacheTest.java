@@ -0,0 +1,178 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.codehaus.plexus.languages.java.jpms.JavaModuleDescriptor.JavaRequires.JavaModifier;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PersistentResolvePathCacheTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void roundTrip() throws Exception {
+        Path jar = Files.write(tempDir.resolve("a.jar"), new byte[] {1, 2, 3});
+        BasicFileAttributes attributes = Files.readAttributes(jar, BasicFileAttributes.class);
+
+        JavaModuleDescriptor descriptor = JavaModuleDescriptor.newModule("a")
+                .requires("java.base")
+                .requires(new HashSet<>(Arrays.asList(JavaModifier.STATIC, JavaModifier.TRANSITIVE)), "b")
+                .exports("a.api")
+                .exports("a.spi", Collections.singleton("c"))
+                .uses("a.spi.Service")
+                .provides("a.spi.Service", Arrays.asList("a.impl.First", "a.impl.Second"))
+                .build();
+
+        PersistentResolvePathCache cache = new PersistentResolvePathCache(tempDir.resolve("cache"));
+        cache.put(
+                jar,
+                attributes,
+                new ResolvePathResult()
+                        .setModuleDescriptor(descriptor)
+                        .setModuleNameSource(ModuleNameSource.MODULEDESCRIPTOR));
+
+        // a new instance, like a subsequent build would use
+        ResolvePathResult result = new PersistentResolvePathCache(tempDir.resolve("cache")).get(jar, attributes);
+
+        assertThat(result).isNotNull();
+        assertThat(result.getModuleNameSource()).isEqualTo(ModuleNameSource.MODULEDESCRIPTOR);
+        assertThat(result.getModuleDescriptor()).isEqualTo(descriptor);
+        assertThat(result.getModuleDescriptor().uses()).isEqualTo(descriptor.uses());
+        assertThat(result.getModuleDescriptor().provides()).isEqualTo(descriptor.provides());
+    }
+
+    @Test
+    void withoutModuleName() throws Exception {
+        Path jar = Files.write(tempDir.resolve("a.jar"), new byte[] {1, 2, 3});
+        BasicFileAttributes attributes = Files.readAttributes(jar, BasicFileAttributes.class);
+
+        PersistentResolvePathCache cache = new PersistentResolvePathCache(tempDir.resolve("cache"));
+        cache.put(jar, attributes, new ResolvePathResult());
+
+        ResolvePathResult result = cache.get(jar, attributes);
+
+        assertThat(result).isNotNull();
+        assertThat(result.getModuleDescriptor()).isNull();
+        assertThat(result.getModuleNameSource()).isNull();
+    }
+
+    @Test
+    void changedInPlace() throws Exception {
+        Path jar = Files.write(tempDir.resolve("a.jar"), new byte[] {1, 2, 3});
+        BasicFileAttributes attributes = Files.readAttributes(jar, BasicFileAttributes.class);
+
+        PersistentResolvePathCache cache = new PersistentResolvePathCache(tempDir.resolve("cache"));
+        cache.put(
+                jar,
+                attributes,
+                new ResolvePathResult()
+                        .setModuleDescriptor(
+                                JavaModuleDescriptor.newAutomaticModule("a").build())
+                        .setModuleNameSource(ModuleNameSource.MANIFEST));
+
+        Files.setLastModifiedTime(
+                jar, FileTime.fromMillis(attributes.lastModifiedTime().toMillis() + 2000));
+
+        assertThat(cache.get(jar, Files.readAttributes(jar, BasicFileAttributes.class)))
+                .isNull();
+    }
+
+    @Test
+    void filenameModuleNameOfOtherNameExtractor() throws Exception {
+        Path jar = Files.write(tempDir.resolve("a.jar"), new byte[] {1, 2, 3});
+        BasicFileAttributes attributes = Files.readAttributes(jar, BasicFileAttributes.class);
+        Path jdkHome = tempDir.resolve("jdk");
+
+        PersistentResolvePathCache cache = new PersistentResolvePathCache(tempDir.resolve("cache"));
+        cache.put(
+                jar,
+                attributes,
+                new ResolvePathResult()
+                        .setModuleDescriptor(
+                                JavaModuleDescriptor.newAutomaticModule("a").build())
+                        .setModuleNameSource(ModuleNameSource.FILENAME));
+
+        assertThat(cache.get(jar, attributes, jdkHome)).isNull();
+        assertThat(cache.get(jar, attributes).getModuleDescriptor().name()).isEqualTo("a");
+
+        cache.put(jar, attributes, jdkHome, new ResolvePathResult());
+
+        assertThat(cache.get(jar, attributes)).isNull();
+        assertThat(cache.get(jar, attributes, jdkHome).getModuleDescriptor()).isNull();
+    }
+
+    @Test
+    void manifestModuleNameOfOtherNameExtractor() throws Exception {
+        Path jar = Files.write(tempDir.resolve("a.jar"), new byte[] {1, 2, 3});
+        BasicFileAttributes attributes = Files.readAttributes(jar, BasicFileAttributes.class);
+
+        PersistentResolvePathCache cache = new PersistentResolvePathCache(tempDir.resolve("cache"));
+        cache.put(
+                jar,
+                attributes,
+                new ResolvePathResult()
+                        .setModuleDescriptor(
+                                JavaModuleDescriptor.newAutomaticModule("a").build())
+                        .setModuleNameSource(ModuleNameSource.MANIFEST));
+
+        assertThat(cache.get(jar, attributes, tempDir.resolve("jdk")).getModuleDescriptor().name())
+                .isEqualTo("a");
+    }
+
+    @Test
+    void unknownEntry() throws Exception {
+        Path jar = Files.write(tempDir.resolve("a.jar"), new byte[] {1, 2, 3});
+
+        PersistentResolvePathCache cache = new PersistentResolvePathCache(tempDir.resolve("cache"));
+
+        assertThat(cache.get(jar, Files.readAttributes(jar, BasicFileAttributes.class)))
+                .isNull();
+    }
+
+    @Test
+    void resolvePathsUsesCache() throws Exception {
+        Path jar = Paths.get("src/test/test-data/jar.descriptor/asm-6.0_BETA.jar");
+        Path cacheDirectory = tempDir.resolve("cache");
+
+        LocationManager locationManager = new LocationManager();
+        ResolvePathsResult<Path> first = locationManager.resolvePaths(
+                ResolvePathsRequest.ofPaths(jar).setCacheDirectory(cacheDirectory));
+
+        assertThat(cacheDirectory.toFile().list()).hasSize(1);
+
+        ResolvePathsResult<Path> second = locationManager.resolvePaths(
+                ResolvePathsRequest.ofPaths(jar).setCacheDirectory(cacheDirectory));
+
+        assertThat(second.getPathElements()).isEqualTo(first.getPathElements());
+        assertThat(second.getPathElements().get(jar).name()).isEqualTo("org.objectweb.asm");
+    }
+}
@@ -0,0 +1,229 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResolvePathCacheTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void hitAndMiss() throws Exception {
+        Path jar = Files.write(tempDir.resolve("a.jar"), new byte[] {1, 2, 3});
+        BasicFileAttributes attributes = Files.readAttributes(jar, BasicFileAttributes.class);
+
+        ResolvePathCache cache = new ResolvePathCache(10, Long.MAX_VALUE);
+        assertThat(cache.get(jar, attributes)).isNull();
+
+        ResolvePathResult result = automatic("a");
+        cache.put(jar, attributes, result);
+
+        assertThat(cache.get(jar, attributes)).isSameAs(result);
+
+        CacheStatistics statistics = cache.getStatistics();
+        assertThat(statistics.getHitCount()).isEqualTo(1);
+        assertThat(statistics.getMissCount()).isEqualTo(1);
+        assertThat(statistics.getEvictionCount()).isZero();
+        assertThat(statistics.getEntryCount()).isEqualTo(1);
+        assertThat(statistics.getEstimatedBytes()).isPositive();
+    }
+
+    @Test
+    void changedInPlace() throws Exception {
+        Path jar = Files.write(tempDir.resolve("a.jar"), new byte[] {1, 2, 3});
+        BasicFileAttributes attributes = Files.readAttributes(jar, BasicFileAttributes.class);
+
+        ResolvePathCache cache = new ResolvePathCache(10, Long.MAX_VALUE);
+        cache.put(jar, attributes, automatic("a"));
+
+        Files.setLastModifiedTime(
+                jar, FileTime.fromMillis(attributes.lastModifiedTime().toMillis() + 2000));
+
+        assertThat(cache.get(jar, Files.readAttributes(jar, BasicFileAttributes.class)))
+                .isNull();
+        assertThat(cache.getStatistics().getEntryCount()).isZero();
+        assertThat(cache.getStatistics().getEstimatedBytes()).isZero();
+    }
+
+    @Test
+    void evictLeastRecentlyUsedEntry() throws Exception {
+        Path a = Files.write(tempDir.resolve("a.jar"), new byte[] {1});
+        Path b = Files.write(tempDir.resolve("b.jar"), new byte[] {2});
+        Path c = Files.write(tempDir.resolve("c.jar"), new byte[] {3});
+
+        ResolvePathCache cache = new ResolvePathCache(2, Long.MAX_VALUE);
+        cache.put(a, Files.readAttributes(a, BasicFileAttributes.class), automatic("a"));
+        cache.put(b, Files.readAttributes(b, BasicFileAttributes.class), automatic("b"));
+
+        // touch a, so b becomes the eldest
+        assertThat(cache.get(a, Files.readAttributes(a, BasicFileAttributes.class)))
+                .isNotNull();
+
+        cache.put(c, Files.readAttributes(c, BasicFileAttributes.class), automatic("c"));
+
+        assertThat(cache.get(b, Files.readAttributes(b, BasicFileAttributes.class)))
+                .isNull();
+        assertThat(cache.get(a, Files.readAttributes(a, BasicFileAttributes.class)))
+                .isNotNull();
+        assertThat(cache.get(c, Files.readAttributes(c, BasicFileAttributes.class)))
+                .isNotNull();
+        assertThat(cache.getStatistics().getEvictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void boundedByEstimatedBytes() throws Exception {
+        Path a = Files.write(tempDir.resolve("a.jar"), new byte[] {1});
+        Path b = Files.write(tempDir.resolve("b.jar"), new byte[] {2});
+
+        long entrySize = ResolvePathCache.estimateSize(a.toAbsolutePath(), automatic("a"));
+
+        ResolvePathCache cache = new ResolvePathCache(10, entrySize + entrySize / 2);
+        cache.put(a, Files.readAttributes(a, BasicFileAttributes.class), automatic("a"));
+        cache.put(b, Files.readAttributes(b, BasicFileAttributes.class), automatic("b"));
+
+        assertThat(cache.getStatistics().getEntryCount()).isEqualTo(1);
+        assertThat(cache.getStatistics().getEvictionCount()).isEqualTo(1);
+        assertThat(cache.get(b, Files.readAttributes(b, BasicFileAttributes.class)))
+                .isNotNull();
+    }
+
+    @Test
+    void disabled() throws Exception {
+        Path jar = Files.write(tempDir.resolve("a.jar"), new byte[] {1, 2, 3});
+        BasicFileAttributes attributes = Files.readAttributes(jar, BasicFileAttributes.class);
+
+        ResolvePathCache cache = new ResolvePathCache(0, 0);
+        cache.put(jar, attributes, automatic("a"));
+
+        assertThat(cache.get(jar, attributes)).isNull();
+    }
+
+    @Test
+    void filenameModuleNamePerNameExtractor() throws Exception {
+        Path jar = Files.write(tempDir.resolve("a.jar"), new byte[] {1, 2, 3});
+        BasicFileAttributes attributes = Files.readAttributes(jar, BasicFileAttributes.class);
+        Path jdkHome = tempDir.resolve("jdk");
+
+        ResolvePathResult inProcess = new ResolvePathResult()
+                .setModuleDescriptor(JavaModuleDescriptor.newAutomaticModule("a").build())
+                .setModuleNameSource(ModuleNameSource.FILENAME);
+        ResolvePathResult forked = new ResolvePathResult();
+
+        ResolvePathCache cache = new ResolvePathCache(10, Long.MAX_VALUE);
+        cache.put(jar, attributes, inProcess);
+
+        assertThat(cache.get(jar, attributes, jdkHome)).isNull();
+
+        cache.put(jar, attributes, jdkHome, forked);
+
+        assertThat(cache.get(jar, attributes)).isSameAs(inProcess);
+        assertThat(cache.get(jar, attributes, jdkHome)).isSameAs(forked);
+        assertThat(cache.get(jar, attributes, tempDir.resolve("other-jdk"))).isNull();
+    }
+
+    @Test
+    void otherResultsSharedByNameExtractors() throws Exception {
+        Path jar = Files.write(tempDir.resolve("a.jar"), new byte[] {1, 2, 3});
+        BasicFileAttributes attributes = Files.readAttributes(jar, BasicFileAttributes.class);
+
+        ResolvePathResult result = automatic("a");
+
+        ResolvePathCache cache = new ResolvePathCache(10, Long.MAX_VALUE);
+        cache.put(jar, attributes, result);
+
+        assertThat(cache.get(jar, attributes, tempDir.resolve("jdk"))).isSameAs(result);
+    }
+
+    @Test
+    void locationManagerReusesResult() throws Exception {
+        Path jar = Paths.get("src/test/test-data/jar.descriptor/asm-6.0_BETA.jar");
+
+        LocationManager locationManager = new LocationManager();
+
+        ResolvePathResult first = locationManager.resolvePath(ResolvePathRequest.ofPath(jar));
+        ResolvePathResult second = locationManager.resolvePath(ResolvePathRequest.ofPath(jar));
+
+        assertThat(second).isSameAs(first);
+        assertThat(locationManager.getCacheStatistics().getHitCount()).isEqualTo(1);
+        assertThat(locationManager.getCacheStatistics().getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    void partialDescriptorNotCached() throws Exception {
+        Path jar = Files.write(tempDir.resolve("a.jar"), new byte[] {1, 2, 3});
+        BasicFileAttributes attributes = Files.readAttributes(jar, BasicFileAttributes.class);
+
+        ResolvePathCache cache = new ResolvePathCache(10, Long.MAX_VALUE);
+        cache.put(
+                jar,
+                attributes,
+                new ResolvePathResult()
+                        .setModuleDescriptor(JavaModuleDescriptor.newModule("a")
+                                .depth(ParseDepth.REQUIRES)
+                                .build())
+                        .setModuleNameSource(ModuleNameSource.MODULEDESCRIPTOR));
+
+        assertThat(cache.get(jar, attributes)).isNull();
+        assertThat(cache.getStatistics().getEntryCount()).isZero();
+    }
+
+    @Test
+    void locationManagerCompleteAfterPartial() throws Exception {
+        Path jar = Paths.get("src/test/test-data/jar.service/threeten-extra-1.4.jar");
+
+        LocationManager locationManager = new LocationManager();
+
+        JavaModuleDescriptor partial = locationManager
+                .resolvePaths(ResolvePathsRequest.ofPaths(jar).setParseDepth(ParseDepth.REQUIRES))
+                .getPathElements()
+                .get(jar);
+        JavaModuleDescriptor full =
+                locationManager.resolvePaths(ResolvePathsRequest.ofPaths(jar)).getPathElements().get(jar);
+
+        assertThat(partial.depth()).isEqualTo(ParseDepth.REQUIRES);
+        assertThat(full.depth()).isEqualTo(ParseDepth.FULL);
+        assertThat(locationManager.getCacheStatistics().getHitCount()).isZero();
+
+        // the complete result serves any depth
+        JavaModuleDescriptor again = locationManager
+                .resolvePaths(ResolvePathsRequest.ofPaths(jar).setParseDepth(ParseDepth.REQUIRES))
+                .getPathElements()
+                .get(jar);
+
+        assertThat(again).isSameAs(full);
+        assertThat(locationManager.getCacheStatistics().getHitCount()).isEqualTo(1);
+    }
+
+    private static ResolvePathResult automatic(String name) {
+        return new ResolvePathResult()
+                .setModuleDescriptor(JavaModuleDescriptor.newAutomaticModule(name).build())
+                .setModuleNameSource(ModuleNameSource.MANIFEST);
+    }
+}
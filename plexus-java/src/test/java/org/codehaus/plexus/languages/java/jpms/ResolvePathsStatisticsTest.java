@@ -0,0 +1,92 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import org.codehaus.plexus.languages.java.jpms.ResolvePathsStatistics.Phase;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResolvePathsStatisticsTest {
+    private static final Path DESCRIPTOR_JAR = Paths.get("src/test/test-data/jar.descriptor/asm-6.0_BETA.jar");
+
+    private static final Path MANIFEST_JAR =
+            Paths.get("src/test/test-data/jar.manifest.with/plexus-java-1.0.0-SNAPSHOT.jar");
+
+    private static final Path FILENAME_JAR = Paths.get("src/test/test-data/jar.empty/plexus-java-1.0.0-SNAPSHOT.jar");
+
+    @Test
+    void notCollectedByDefault() throws Exception {
+        ResolvePathsResult<Path> result =
+                new LocationManager().resolvePaths(ResolvePathsRequest.ofPaths(DESCRIPTOR_JAR, MANIFEST_JAR));
+
+        assertThat(result.getStatistics()).isNull();
+    }
+
+    @Test
+    void collectStatistics() throws Exception {
+        ResolvePathsRequest<Path> request = ResolvePathsRequest.ofPaths(DESCRIPTOR_JAR, MANIFEST_JAR, FILENAME_JAR)
+                .setCollectStatistics(true);
+
+        ResolvePathsStatistics<Path> statistics = new LocationManager().resolvePaths(request).getStatistics();
+
+        assertThat(statistics).isNotNull();
+        assertThat(statistics.getModuleNameSourceCount(ModuleNameSource.MODULEDESCRIPTOR)).isEqualTo(1);
+        assertThat(statistics.getModuleNameSourceCount(ModuleNameSource.MANIFEST)).isEqualTo(1);
+        assertThat(statistics.getModuleNameSourceCount(ModuleNameSource.FILENAME)).isEqualTo(1);
+        assertThat(statistics.getPathElementDurations()).containsOnlyKeys(DESCRIPTOR_JAR, MANIFEST_JAR, FILENAME_JAR);
+        assertThat(statistics.getDuration(DESCRIPTOR_JAR)).isPositive();
+        assertThat(statistics.getDuration(Phase.PATH_ELEMENTS)).isPositive();
+        assertThat(statistics.getDuration(Phase.MODULE_DESCRIPTOR)).isPositive();
+        assertThat(statistics.getDuration(Phase.FORKED_EXTRACTOR)).isEqualTo(Duration.ZERO);
+    }
+
+    @Test
+    void pathElementDurationsInRequestOrder() throws Exception {
+        ResolvePathsRequest<Path> request = ResolvePathsRequest.ofPaths(FILENAME_JAR, DESCRIPTOR_JAR, MANIFEST_JAR)
+                .setCollectStatistics(true);
+
+        ResolvePathsStatistics<Path> statistics = new LocationManager().resolvePaths(request).getStatistics();
+
+        assertThat(statistics.getPathElementDurations().keySet())
+                .containsExactly(FILENAME_JAR, DESCRIPTOR_JAR, MANIFEST_JAR);
+    }
+
+    @Test
+    void collectStatisticsPerRequest() throws Exception {
+        List<ResolvePathsResult<Path>> results = new LocationManager()
+                .resolvePaths(Arrays.asList(
+                        ResolvePathsRequest.ofPaths(DESCRIPTOR_JAR, MANIFEST_JAR).setCollectStatistics(true),
+                        ResolvePathsRequest.ofPaths(DESCRIPTOR_JAR, FILENAME_JAR)));
+
+        ResolvePathsStatistics<Path> statistics = results.get(0).getStatistics();
+
+        assertThat(statistics.getPathElementDurations()).containsOnlyKeys(DESCRIPTOR_JAR, MANIFEST_JAR);
+        assertThat(statistics.getModuleNameSourceCount(ModuleNameSource.MODULEDESCRIPTOR)).isEqualTo(1);
+        assertThat(statistics.getModuleNameSourceCount(ModuleNameSource.FILENAME)).isZero();
+        assertThat(results.get(1).getStatistics()).isNull();
+    }
+}
@@ -0,0 +1,226 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.Signature;
+import java.util.Base64;
+import java.util.Map;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+/**
+ * Writes jars signed like {@code jarsigner} does, with a self-signed certificate, so the verification of signed jars
+ * can be part of tests and benchmarks without a keystore or the {@code jarsigner} tool. Only what the verification of
+ * the JDK reads is written: SHA-256 digests of the entries in the manifest, the signature file and a PKCS #7 signature
+ * block without signed attributes.
+ */
+final class SelfSignedJarSigner {
+    private static final byte[] SHA256_WITH_RSA = oid(1, 2, 840, 113549, 1, 1, 11);
+
+    private static final byte[] RSA_ENCRYPTION = oid(1, 2, 840, 113549, 1, 1, 1);
+
+    private static final byte[] SHA256 = oid(2, 16, 840, 1, 101, 3, 4, 2, 1);
+
+    private static final byte[] SIGNED_DATA = oid(1, 2, 840, 113549, 1, 7, 2);
+
+    private static final byte[] DATA = oid(1, 2, 840, 113549, 1, 7, 1);
+
+    private static final byte[] COMMON_NAME = oid(2, 5, 4, 3);
+
+    private static final BigInteger SERIAL_NUMBER = BigInteger.ONE;
+
+    private final KeyPair keyPair;
+
+    private final byte[] name;
+
+    private final byte[] certificate;
+
+    SelfSignedJarSigner() throws GeneralSecurityException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        keyPair = generator.generateKeyPair();
+
+        name = sequence(set(sequence(COMMON_NAME, der(0x0C, "Synthetic Signer".getBytes(StandardCharsets.UTF_8)))));
+
+        byte[] tbsCertificate = sequence(
+                integer(SERIAL_NUMBER),
+                algorithm(SHA256_WITH_RSA),
+                name,
+                sequence(utcTime("200101000000Z"), utcTime("491231235959Z")),
+                name,
+                keyPair.getPublic().getEncoded());
+
+        certificate = sequence(tbsCertificate, algorithm(SHA256_WITH_RSA), bitString(sign(tbsCertificate)));
+    }
+
+    /**
+     * Writes a signed jar.
+     *
+     * @param out the jar
+     * @param mainAttributes the main attributes of the manifest, besides {@code Manifest-Version}
+     * @param entries the entries of the jar, in order, key = name, value = content, names can't be longer than 60
+     *            characters, these aren't wrapped in the manifest
+     */
+    void write(OutputStream out, Map<String, String> mainAttributes, Map<String, byte[]> entries)
+            throws IOException, GeneralSecurityException {
+        StringBuilder manifest = new StringBuilder("Manifest-Version: 1.0\r\n");
+        for (Map.Entry<String, String> attribute : mainAttributes.entrySet()) {
+            manifest.append(attribute.getKey()).append(": ").append(attribute.getValue()).append("\r\n");
+        }
+        manifest.append("\r\n");
+
+        StringBuilder signatureFile = new StringBuilder();
+        for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+            String section = "Name: " + entry.getKey() + "\r\nSHA-256-Digest: " + digest(entry.getValue()) + "\r\n\r\n";
+            manifest.append(section);
+
+            signatureFile
+                    .append("Name: ")
+                    .append(entry.getKey())
+                    .append("\r\nSHA-256-Digest: ")
+                    .append(digest(section.getBytes(StandardCharsets.UTF_8)))
+                    .append("\r\n\r\n");
+        }
+
+        byte[] manifestBytes = manifest.toString().getBytes(StandardCharsets.UTF_8);
+
+        byte[] signatureFileBytes = ("Signature-Version: 1.0\r\nSHA-256-Digest-Manifest: " + digest(manifestBytes)
+                        + "\r\nCreated-By: plexus-java tests\r\n\r\n" + signatureFile)
+                .getBytes(StandardCharsets.UTF_8);
+
+        try (JarOutputStream jar = new JarOutputStream(out)) {
+            putEntry(jar, "META-INF/MANIFEST.MF", manifestBytes);
+            putEntry(jar, "META-INF/SIGNER.SF", signatureFileBytes);
+            putEntry(jar, "META-INF/SIGNER.RSA", signatureBlock(signatureFileBytes));
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                putEntry(jar, entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private byte[] signatureBlock(byte[] signatureFile) throws GeneralSecurityException {
+        byte[] signerInfo = sequence(
+                integer(BigInteger.ONE),
+                sequence(name, integer(SERIAL_NUMBER)),
+                algorithm(SHA256),
+                algorithm(RSA_ENCRYPTION),
+                der(0x04, sign(signatureFile)));
+
+        byte[] signedData = sequence(
+                integer(BigInteger.ONE),
+                set(algorithm(SHA256)),
+                sequence(DATA),
+                der(0xA0, certificate),
+                set(signerInfo));
+
+        return sequence(SIGNED_DATA, der(0xA0, signedData));
+    }
+
+    private byte[] sign(byte[] data) throws GeneralSecurityException {
+        Signature signature = Signature.getInstance("SHA256withRSA");
+        signature.initSign(keyPair.getPrivate());
+        signature.update(data);
+        return signature.sign();
+    }
+
+    private static void putEntry(JarOutputStream jar, String name, byte[] content) throws IOException {
+        jar.putNextEntry(new ZipEntry(name));
+        jar.write(content);
+        jar.closeEntry();
+    }
+
+    private static String digest(byte[] data) throws GeneralSecurityException {
+        return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(data));
+    }
+
+    private static byte[] algorithm(byte[] oid) {
+        return sequence(oid, new byte[] {0x05, 0x00});
+    }
+
+    private static byte[] integer(BigInteger value) {
+        return der(0x02, value.toByteArray());
+    }
+
+    private static byte[] bitString(byte[] value) {
+        byte[] content = new byte[value.length + 1];
+        System.arraycopy(value, 0, content, 1, value.length);
+        return der(0x03, content);
+    }
+
+    private static byte[] utcTime(String value) {
+        return der(0x17, value.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static byte[] oid(int... arcs) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(40 * arcs[0] + arcs[1]);
+        for (int i = 2; i < arcs.length; i++) {
+            int arc = arcs[i];
+            int shift = 28;
+            while (shift > 0 && (arc >>> shift) == 0) {
+                shift -= 7;
+            }
+            for (; shift > 0; shift -= 7) {
+                out.write(0x80 | ((arc >>> shift) & 0x7F));
+            }
+            out.write(arc & 0x7F);
+        }
+        return der(0x06, out.toByteArray());
+    }
+
+    private static byte[] sequence(byte[]... contents) {
+        return der(0x30, contents);
+    }
+
+    private static byte[] set(byte[]... contents) {
+        return der(0x31, contents);
+    }
+
+    private static byte[] der(int tag, byte[]... contents) {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        for (byte[] bytes : contents) {
+            content.write(bytes, 0, bytes.length);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(tag);
+        int length = content.size();
+        if (length < 0x80) {
+            out.write(length);
+        } else {
+            int lengthBytes = length < 0x100 ? 1 : length < 0x10000 ? 2 : 3;
+            out.write(0x80 | lengthBytes);
+            for (int i = lengthBytes - 1; i >= 0; i--) {
+                out.write(length >>> (8 * i));
+            }
+        }
+        out.write(content.toByteArray(), 0, length);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,563 @@
+package org.codehaus.plexus.languages.java.jpms;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.codehaus.plexus.languages.java.jpms.JavaModuleDescriptor.JavaExports;
+import org.codehaus.plexus.languages.java.jpms.JavaModuleDescriptor.JavaProvides;
+import org.codehaus.plexus.languages.java.jpms.JavaModuleDescriptor.JavaRequires;
+import org.codehaus.plexus.languages.java.jpms.JavaModuleDescriptor.JavaRequires.JavaModifier;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.ModuleVisitor;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * Generates large synthetic paths in a directory, to see how resolving scales without network access.
+ * <p>
+ * Every path element gets a module named {@code org.example.m<index>}, of a {@link Kind} drawn from the configured
+ * mix. Explicit modules require the module before them {@code transitive}, which makes chains of
+ * {@link #setChainLength(int)} modules, and sometimes another earlier module, half of these {@code static}. A part of
+ * them provides or uses one of a few services. The same seed and settings always generate the same path.
+ * </p>
+ *
+ * <pre>
+ * SyntheticPath path = new SyntheticPathGenerator(directory)
+ *         .setWeight(Kind.SIGNED_JAR, 10)
+ *         .generate(10_000);
+ * locationManager.resolvePaths(ResolvePathsRequest.ofPaths(path.getPathElements()));
+ * </pre>
+ */
+final class SyntheticPathGenerator {
+    /**
+     * The kinds of path elements.
+     */
+    enum Kind {
+        /**
+         * A jar with a {@code module-info.class}.
+         */
+        MODULAR_JAR(ModuleNameSource.MODULEDESCRIPTOR),
+
+        /**
+         * A multi release jar with the {@code module-info.class} in {@code META-INF/versions/9}.
+         */
+        MULTI_RELEASE_JAR(ModuleNameSource.MODULEDESCRIPTOR),
+
+        /**
+         * A signed jar with a {@code module-info.class}.
+         */
+        SIGNED_JAR(ModuleNameSource.MODULEDESCRIPTOR),
+
+        /**
+         * A jar with an {@code Automatic-Module-Name} in its manifest.
+         */
+        AUTOMATIC_MODULE_NAME_JAR(ModuleNameSource.MANIFEST),
+
+        /**
+         * A jar of which the module name is derived from the filename.
+         */
+        FILENAME_JAR(ModuleNameSource.FILENAME),
+
+        /**
+         * An output directory with a {@code module-info.class}.
+         */
+        DIRECTORY(ModuleNameSource.MODULEDESCRIPTOR),
+
+        /**
+         * A jmod, which {@link LocationManager#resolvePaths(ResolvePathsRequest)} doesn't accept.
+         */
+        JMOD(null);
+
+        private final ModuleNameSource moduleNameSource;
+
+        Kind(ModuleNameSource moduleNameSource) {
+            this.moduleNameSource = moduleNameSource;
+        }
+
+        /**
+         * @return where {@link LocationManager} gets the module name from, {@code null} if it doesn't accept it
+         */
+        ModuleNameSource getModuleNameSource() {
+            return moduleNameSource;
+        }
+
+        boolean isExplicit() {
+            return moduleNameSource == ModuleNameSource.MODULEDESCRIPTOR || this == JMOD;
+        }
+    }
+
+    private static final byte[] CLASS_FILE = {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 0, 0, 0, 52};
+
+    private final Path directory;
+
+    private final Map<Kind, Integer> weights = new EnumMap<>(Kind.class);
+
+    private long seed = 0;
+
+    private int chainLength = 20;
+
+    private int packages = 3;
+
+    private int classes = 10;
+
+    private int services = 5;
+
+    private int providerPercentage = 5;
+
+    private int userPercentage = 5;
+
+    private SelfSignedJarSigner signer;
+
+    /**
+     * @param directory the directory to generate the path elements in, it must exist
+     */
+    SyntheticPathGenerator(Path directory) {
+        this.directory = directory;
+
+        weights.put(Kind.MODULAR_JAR, 30);
+        weights.put(Kind.MULTI_RELEASE_JAR, 5);
+        weights.put(Kind.SIGNED_JAR, 2);
+        weights.put(Kind.AUTOMATIC_MODULE_NAME_JAR, 25);
+        weights.put(Kind.FILENAME_JAR, 30);
+        weights.put(Kind.DIRECTORY, 8);
+        weights.put(Kind.JMOD, 0);
+    }
+
+    /**
+     * @param kind the kind of path elements
+     * @param weight the relative share of this kind, {@code 0} to leave it out
+     * @return this generator
+     */
+    SyntheticPathGenerator setWeight(Kind kind, int weight) {
+        weights.put(kind, weight);
+        return this;
+    }
+
+    /**
+     * Generates only path elements of these kinds, with equal weights.
+     *
+     * @param kinds the kinds of path elements
+     * @return this generator
+     */
+    SyntheticPathGenerator setKinds(Kind... kinds) {
+        for (Kind kind : Kind.values()) {
+            weights.put(kind, 0);
+        }
+        for (Kind kind : kinds) {
+            weights.put(kind, 1);
+        }
+        return this;
+    }
+
+    SyntheticPathGenerator setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * @param chainLength the number of modules in a chain of {@code requires transitive}
+     * @return this generator
+     */
+    SyntheticPathGenerator setChainLength(int chainLength) {
+        this.chainLength = chainLength;
+        return this;
+    }
+
+    /**
+     * @param packages the number of exported packages per explicit module
+     * @return this generator
+     */
+    SyntheticPathGenerator setPackages(int packages) {
+        this.packages = packages;
+        return this;
+    }
+
+    /**
+     * @param classes the number of class files per path element, besides the module descriptor
+     * @return this generator
+     */
+    SyntheticPathGenerator setClasses(int classes) {
+        this.classes = classes;
+        return this;
+    }
+
+    /**
+     * @param services the number of distinct services
+     * @param providerPercentage the percentage of explicit modules providing a service
+     * @param userPercentage the percentage of explicit modules using a service
+     * @return this generator
+     */
+    SyntheticPathGenerator setServices(int services, int providerPercentage, int userPercentage) {
+        this.services = services;
+        this.providerPercentage = providerPercentage;
+        this.userPercentage = userPercentage;
+        return this;
+    }
+
+    /**
+     * @param pathElements the number of path elements
+     * @return the generated path
+     * @throws IOException if the path elements can't be written
+     */
+    SyntheticPath generate(int pathElements) throws IOException {
+        Random random = new Random(seed);
+
+        List<Kind> kinds = new ArrayList<>();
+        List<Integer> cumulativeWeights = new ArrayList<>();
+        int totalWeight = 0;
+        for (Map.Entry<Kind, Integer> weight : weights.entrySet()) {
+            if (weight.getValue() > 0) {
+                totalWeight += weight.getValue();
+                kinds.add(weight.getKey());
+                cumulativeWeights.add(totalWeight);
+            }
+        }
+        if (totalWeight == 0) {
+            throw new IllegalStateException("At least one kind of path element must have a weight");
+        }
+
+        SyntheticPath path = new SyntheticPath(pathElements);
+
+        for (int index = 0; index < pathElements; index++) {
+            int draw = random.nextInt(totalWeight);
+            int kindIndex = 0;
+            while (draw >= cumulativeWeights.get(kindIndex)) {
+                kindIndex++;
+            }
+            Kind kind = kinds.get(kindIndex);
+
+            JavaModuleDescriptor descriptor = kind.isExplicit()
+                    ? explicitModule(index, random)
+                    : JavaModuleDescriptor.newAutomaticModule(name(index)).build();
+
+            path.add(write(index, kind, descriptor), kind, descriptor);
+        }
+        return path;
+    }
+
+    static String name(int index) {
+        return "org.example.m" + index;
+    }
+
+    private JavaModuleDescriptor explicitModule(int index, Random random) {
+        // like the parsers do, list the mandated java.base
+        JavaModuleDescriptor.Builder builder =
+                JavaModuleDescriptor.newModule(name(index)).requires("java.base");
+
+        if (index % chainLength != 0) {
+            builder.requires(EnumSet.of(JavaModifier.TRANSITIVE), name(index - 1));
+        }
+        if (index > 1 && random.nextInt(3) == 0) {
+            Set<JavaModifier> modifiers =
+                    random.nextBoolean() ? EnumSet.of(JavaModifier.STATIC) : EnumSet.noneOf(JavaModifier.class);
+            builder.requires(modifiers, name(random.nextInt(index - 1)));
+        }
+
+        for (int p = 0; p < packages; p++) {
+            builder.exports(packageName(index, p));
+        }
+
+        if (services > 0) {
+            if (random.nextInt(100) < providerPercentage) {
+                builder.provides(
+                        service(random.nextInt(services)),
+                        Collections.singletonList(packageName(index, 0) + ".Provider"));
+            }
+            if (random.nextInt(100) < userPercentage) {
+                builder.uses(service(random.nextInt(services)));
+            }
+        }
+        return builder.build();
+    }
+
+    private static String packageName(int index, int p) {
+        return "org.example.m" + index + ".p" + p;
+    }
+
+    private static String service(int s) {
+        return "org.example.spi.Service" + s;
+    }
+
+    private Path write(int index, Kind kind, JavaModuleDescriptor descriptor) throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        for (int c = 0; c < classes; c++) {
+            entries.put("org/example/m" + index + "/p" + (c % Math.max(1, packages)) + "/C" + c + ".class", CLASS_FILE);
+        }
+
+        Map<String, String> mainAttributes = new LinkedHashMap<>();
+
+        switch (kind) {
+            case MODULAR_JAR:
+                entries.put("module-info.class", moduleInfo(descriptor));
+                return writeJar(directory.resolve("m" + index + ".jar"), mainAttributes, entries);
+            case MULTI_RELEASE_JAR:
+                mainAttributes.put("Multi-Release", "true");
+                entries.put("META-INF/versions/9/module-info.class", moduleInfo(descriptor));
+                return writeJar(directory.resolve("mr" + index + ".jar"), mainAttributes, entries);
+            case SIGNED_JAR:
+                entries.put("module-info.class", moduleInfo(descriptor));
+                return writeSignedJar(directory.resolve("signed" + index + ".jar"), mainAttributes, entries);
+            case AUTOMATIC_MODULE_NAME_JAR:
+                mainAttributes.put("Automatic-Module-Name", descriptor.name());
+                return writeJar(directory.resolve("automatic" + index + ".jar"), mainAttributes, entries);
+            case FILENAME_JAR:
+                return writeJar(directory.resolve(descriptor.name() + "-1.0.jar"), mainAttributes, entries);
+            case DIRECTORY:
+                entries.put("module-info.class", moduleInfo(descriptor));
+                return writeDirectory(directory.resolve("classes" + index), entries);
+            case JMOD:
+                Map<String, byte[]> jmodEntries = new LinkedHashMap<>();
+                jmodEntries.put("classes/module-info.class", moduleInfo(descriptor));
+                for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                    jmodEntries.put("classes/" + entry.getKey(), entry.getValue());
+                }
+                return writeJmod(directory.resolve("m" + index + ".jmod"), jmodEntries);
+            default:
+                throw new IllegalArgumentException("Unknown kind " + kind);
+        }
+    }
+
+    private static Path writeJar(Path jar, Map<String, String> mainAttributes, Map<String, byte[]> entries)
+            throws IOException {
+        StringBuilder manifest = new StringBuilder("Manifest-Version: 1.0\r\n");
+        for (Map.Entry<String, String> attribute : mainAttributes.entrySet()) {
+            manifest.append(attribute.getKey()).append(": ").append(attribute.getValue()).append("\r\n");
+        }
+        manifest.append("\r\n");
+
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(jar))) {
+            putEntry(zip, "META-INF/MANIFEST.MF", manifest.toString().getBytes(StandardCharsets.UTF_8));
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                putEntry(zip, entry.getKey(), entry.getValue());
+            }
+        }
+        return jar;
+    }
+
+    private Path writeSignedJar(Path jar, Map<String, String> mainAttributes, Map<String, byte[]> entries)
+            throws IOException {
+        try (OutputStream out = Files.newOutputStream(jar)) {
+            if (signer == null) {
+                signer = new SelfSignedJarSigner();
+            }
+            signer.write(out, mainAttributes, entries);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Can't sign " + jar, e);
+        }
+        return jar;
+    }
+
+    private static Path writeDirectory(Path outputDirectory, Map<String, byte[]> entries) throws IOException {
+        for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+            Path file = outputDirectory.resolve(entry.getKey());
+            Files.createDirectories(file.getParent());
+            Files.write(file, entry.getValue());
+        }
+        return outputDirectory;
+    }
+
+    /**
+     * A jmod is a zip file after a header of 4 bytes.
+     */
+    private static Path writeJmod(Path jmod, Map<String, byte[]> entries) throws IOException {
+        try (OutputStream out = Files.newOutputStream(jmod)) {
+            out.write(new byte[] {'J', 'M', 1, 0});
+            try (ZipOutputStream zip = new ZipOutputStream(out)) {
+                for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                    putEntry(zip, entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        return jmod;
+    }
+
+    private static void putEntry(ZipOutputStream zip, String name, byte[] content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content);
+        zip.closeEntry();
+    }
+
+    /**
+     * @param descriptor the module
+     * @return the {@code module-info.class} of the module
+     */
+    static byte[] moduleInfo(JavaModuleDescriptor descriptor) {
+        ClassWriter writer = new ClassWriter(0);
+        writer.visit(Opcodes.V9, Opcodes.ACC_MODULE, "module-info", null, null, null);
+
+        ModuleVisitor module = writer.visitModule(descriptor.name(), 0, null);
+        if (descriptor.requires().stream().noneMatch(requires -> requires.name().equals("java.base"))) {
+            module.visitRequire("java.base", Opcodes.ACC_MANDATED, null);
+        }
+        for (JavaRequires requires : descriptor.requires()) {
+            int access = requires.name().equals("java.base") ? Opcodes.ACC_MANDATED : 0;
+            if (requires.modifiers().contains(JavaModifier.STATIC)) {
+                access |= Opcodes.ACC_STATIC_PHASE;
+            }
+            if (requires.modifiers().contains(JavaModifier.TRANSITIVE)) {
+                access |= Opcodes.ACC_TRANSITIVE;
+            }
+            module.visitRequire(requires.name(), access, null);
+        }
+        for (JavaExports exports : descriptor.exports()) {
+            String[] targets = exports.targets() != null ? exports.targets().toArray(new String[0]) : null;
+            module.visitExport(internalName(exports.source()), 0, targets);
+        }
+        for (String uses : descriptor.uses()) {
+            module.visitUse(internalName(uses));
+        }
+        for (JavaProvides provides : descriptor.provides()) {
+            String[] providers = new String[provides.providers().size()];
+            for (int i = 0; i < providers.length; i++) {
+                providers[i] = internalName(provides.providers().get(i));
+            }
+            module.visitProvide(internalName(provides.service()), providers);
+        }
+        module.visitEnd();
+
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    /**
+     * @param descriptor the module
+     * @return the {@code module-info.java} of the module
+     */
+    static String moduleInfoSource(JavaModuleDescriptor descriptor) {
+        StringBuilder source = new StringBuilder();
+        source.append("/*\n * A synthetic module.\n */\nmodule ").append(descriptor.name()).append(" {\n");
+        for (JavaRequires requires : descriptor.requires()) {
+            source.append("    requires ");
+            if (requires.modifiers().contains(JavaModifier.STATIC)) {
+                source.append("static ");
+            }
+            if (requires.modifiers().contains(JavaModifier.TRANSITIVE)) {
+                source.append("transitive ");
+            }
+            source.append(requires.name()).append(";\n");
+        }
+        for (JavaExports exports : descriptor.exports()) {
+            source.append("    exports ").append(exports.source());
+            if (exports.targets() != null && !exports.targets().isEmpty()) {
+                source.append(" to ").append(String.join(", ", exports.targets()));
+            }
+            source.append(";\n");
+        }
+        for (String uses : descriptor.uses()) {
+            source.append("    uses ").append(uses).append(";\n");
+        }
+        for (JavaProvides provides : descriptor.provides()) {
+            source.append("    provides ")
+                    .append(provides.service())
+                    .append(" with ")
+                    .append(String.join(", ", provides.providers()))
+                    .append(";\n");
+        }
+        return source.append("}\n").toString();
+    }
+
+    /**
+     * Deletes the directory and everything in it.
+     *
+     * @param directory the directory
+     * @throws IOException if a file can't be deleted
+     */
+    static void delete(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static String internalName(String name) {
+        return name.replace('.', '/');
+    }
+
+    /**
+     * The generated path elements, in order, with what {@link LocationManager} is expected to make of them.
+     */
+    static final class SyntheticPath {
+        private final List<Path> pathElements;
+
+        private final Map<Path, Kind> kinds;
+
+        private final Map<Path, JavaModuleDescriptor> descriptors;
+
+        SyntheticPath(int pathElements) {
+            this.pathElements = new ArrayList<>(pathElements);
+            this.kinds = new LinkedHashMap<>(pathElements * 4 / 3 + 1);
+            this.descriptors = new LinkedHashMap<>(pathElements * 4 / 3 + 1);
+        }
+
+        void add(Path pathElement, Kind kind, JavaModuleDescriptor descriptor) {
+            pathElements.add(pathElement);
+            kinds.put(pathElement, kind);
+            descriptors.put(pathElement, descriptor);
+        }
+
+        List<Path> getPathElements() {
+            return Collections.unmodifiableList(pathElements);
+        }
+
+        Kind getKind(Path pathElement) {
+            return kinds.get(pathElement);
+        }
+
+        /**
+         * @return the module of the path element, automatic modules only have a name
+         */
+        JavaModuleDescriptor getDescriptor(Path pathElement) {
+            return descriptors.get(pathElement);
+        }
+
+        /**
+         * @return the path elements of this kind, in order
+         */
+        List<Path> getPathElements(Kind kind) {
+            List<Path> result = new ArrayList<>();
+            for (Path pathElement : pathElements) {
+                if (kinds.get(pathElement) == kind) {
+                    result.add(pathElement);
+                }
+            }
+            return result;
+        }
+    }
+}
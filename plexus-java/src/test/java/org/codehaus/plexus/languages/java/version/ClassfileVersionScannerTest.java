@@ -0,0 +1,256 @@
+package org.codehaus.plexus.languages.java.version;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.DataInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ClassfileVersionScannerTest {
+    private static final Path CLASSFILES = Paths.get("src/test/test-data/classfile.version");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void directory() throws Exception {
+        ClassfileVersionReport report = new ClassfileVersionScanner().scan(CLASSFILES);
+
+        assertThat(report.getPath()).isEqualTo(CLASSFILES);
+        assertThat(report.getClassfileCount()).isEqualTo(18);
+        assertThat(report.getMaximum()).isEqualTo(JavaClassfileVersion.of(CLASSFILES.resolve("helloworld-24.class")));
+        assertThat(report.getHistogram())
+                .containsEntry(JavaClassfileVersion.of(CLASSFILES.resolve("helloworld-preview.class")), 1)
+                .containsEntry(JavaClassfileVersion.of(CLASSFILES.resolve("helloworld-8.class")), 1);
+    }
+
+    @Test
+    void sameAsJarFile() throws Exception {
+        Path jar = Paths.get("src/test/test-data/jar.service/threeten-extra-1.4.jar");
+
+        Map<JavaClassfileVersion, Integer> expected = new TreeMap<>(ClassfileVersionScanner.VERSION_ORDER);
+        try (JarFile jarFile = new JarFile(jar.toFile())) {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                if (entry.getName().endsWith(".class")) {
+                    byte[] header = new byte[8];
+                    try (DataInputStream in = new DataInputStream(jarFile.getInputStream(entry))) {
+                        in.readFully(header);
+                    }
+                    expected.merge(JavaClassfileVersion.of(header), 1, Integer::sum);
+                }
+            }
+        }
+
+        assertThat(new ClassfileVersionScanner().scan(jar).getHistogram()).isEqualTo(expected);
+    }
+
+    @Test
+    void storedAndDeflatedEntries() throws Exception {
+        Path jar = tempDir.resolve("mixed.jar");
+        try (OutputStream out = Files.newOutputStream(jar)) {
+            // bytes before the archive, like an executable jar with a launch script
+            out.write("#!/bin/sh\n".getBytes(StandardCharsets.US_ASCII));
+            try (JarOutputStream jarOut = new JarOutputStream(out)) {
+                putEntry(jarOut, "a/Stored.class", CLASSFILES.resolve("helloworld-17.class"), ZipEntry.STORED);
+                putEntry(jarOut, "a/Deflated.class", CLASSFILES.resolve("helloworld-8.class"), ZipEntry.DEFLATED);
+                putEntry(jarOut, "a/Other.class", CLASSFILES.resolve("helloworld-8.class"), ZipEntry.DEFLATED);
+                putEntry(jarOut, "a/readme.txt", CLASSFILES.resolve("helloworld-21.class"), ZipEntry.DEFLATED);
+            }
+        }
+
+        ClassfileVersionReport report = new ClassfileVersionScanner().scan(jar);
+
+        assertThat(report.getClassfileCount()).isEqualTo(3);
+        assertThat(report.getHistogram())
+                .containsEntry(JavaClassfileVersion.of(CLASSFILES.resolve("helloworld-17.class")), 1)
+                .containsEntry(JavaClassfileVersion.of(CLASSFILES.resolve("helloworld-8.class")), 2);
+        assertThat(report.getMaximum()).isEqualTo(JavaClassfileVersion.of(CLASSFILES.resolve("helloworld-17.class")));
+    }
+
+    @Test
+    void emptyDirectory() throws Exception {
+        ClassfileVersionReport report = new ClassfileVersionScanner().scan(tempDir);
+
+        assertThat(report.getClassfileCount()).isZero();
+        assertThat(report.getMaximum()).isNull();
+    }
+
+    @Test
+    void reportsInOrderOfPaths() throws Exception {
+        Path jar = Paths.get("src/test/test-data/jar.descriptor/asm-6.0_BETA.jar");
+
+        Map<Path, ClassfileVersionReport> reports = new ClassfileVersionScanner()
+                .setExecutor(Runnable::run)
+                .scan(Arrays.asList(jar, CLASSFILES));
+
+        assertThat(reports.keySet()).containsExactly(jar, CLASSFILES);
+    }
+
+    @Test
+    void maximumJavaVersionExceeded() throws Exception {
+        ClassfileVersionScanner scanner = new ClassfileVersionScanner().setMaximumJavaVersion(JavaVersion.parse("1.8"));
+
+        ClassfileVersionExceededException exception =
+                assertThrows(ClassfileVersionExceededException.class, () -> scanner.scan(CLASSFILES));
+
+        assertThat(exception.getPath()).isEqualTo(CLASSFILES);
+        assertThat(exception.getClassfile()).startsWith("helloworld-").endsWith(".class");
+        assertThat(exception.getVersion().javaVersion()).isGreaterThan(JavaVersion.parse("1.8"));
+    }
+
+    @Test
+    void maximumJavaVersionNotExceeded() throws Exception {
+        ClassfileVersionReport report = new ClassfileVersionScanner()
+                .setMaximumJavaVersion(JavaVersion.parse("24"))
+                .scan(Collections.singletonList(CLASSFILES))
+                .get(CLASSFILES);
+
+        assertThat(report.getClassfileCount()).isEqualTo(18);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void multiRelease(boolean manifestFirst) throws Exception {
+        Path jar = multiReleaseJar(true, manifestFirst);
+
+        ClassfileVersionReport report = new ClassfileVersionScanner().scan(jar);
+
+        assertThat(report.isMultiRelease()).isTrue();
+        assertThat(report.getClassfileCount()).isEqualTo(4);
+        assertThat(report.getMaximum()).isEqualTo(version(17));
+
+        assertThat(report.getMaximum(JavaVersion.parse("1.8"))).isEqualTo(version(11));
+        assertThat(report.getMaximum(JavaVersion.parse("10"))).isEqualTo(version(11));
+        // a/B.class is replaced by a lower version
+        assertThat(report.getMaximum(JavaVersion.parse("11"))).isEqualTo(version(9));
+        assertThat(report.getMaximum(JavaVersion.parse("16"))).isEqualTo(version(9));
+        assertThat(report.getMaximum(JavaVersion.parse("17"))).isEqualTo(version(17));
+        assertThat(report.getMaximum(JavaVersion.parse("21"))).isEqualTo(version(17));
+    }
+
+    @Test
+    void notMultiRelease() throws Exception {
+        Path jar = multiReleaseJar(false, true);
+
+        ClassfileVersionReport report = new ClassfileVersionScanner().scan(jar);
+
+        assertThat(report.isMultiRelease()).isFalse();
+        assertThat(report.getMaximum(JavaVersion.parse("1.8"))).isEqualTo(version(17));
+    }
+
+    @Test
+    void maximumJavaVersionIgnoresLaterReleases() throws Exception {
+        Path jar = multiReleaseJar(true, true);
+
+        ClassfileVersionReport report = new ClassfileVersionScanner()
+                .setMaximumJavaVersion(JavaVersion.parse("11"))
+                .scan(jar);
+
+        assertThat(report.getMaximum(JavaVersion.parse("11"))).isEqualTo(version(9));
+
+        assertThrows(
+                ClassfileVersionExceededException.class,
+                () -> new ClassfileVersionScanner()
+                        .setMaximumJavaVersion(JavaVersion.parse("10"))
+                        .scan(jar));
+    }
+
+    private Path multiReleaseJar(boolean multiRelease, boolean manifestFirst) throws Exception {
+        Path jar = tempDir.resolve("multi-release.jar");
+        try (JarOutputStream jarOut = new JarOutputStream(Files.newOutputStream(jar))) {
+            if (manifestFirst) {
+                putManifest(jarOut, multiRelease);
+            }
+            putEntry(jarOut, "a/A.class", CLASSFILES.resolve("helloworld-8.class"), ZipEntry.DEFLATED);
+            putEntry(jarOut, "a/B.class", CLASSFILES.resolve("helloworld-11.class"), ZipEntry.DEFLATED);
+            putEntry(
+                    jarOut,
+                    "META-INF/versions/11/a/B.class",
+                    CLASSFILES.resolve("helloworld-9.class"),
+                    ZipEntry.DEFLATED);
+            putEntry(
+                    jarOut,
+                    "META-INF/versions/17/a/A.class",
+                    CLASSFILES.resolve("helloworld-17.class"),
+                    ZipEntry.DEFLATED);
+            if (!manifestFirst) {
+                putManifest(jarOut, multiRelease);
+            }
+        }
+        return jar;
+    }
+
+    private static JavaClassfileVersion version(int release) {
+        return JavaClassfileVersion.of(CLASSFILES.resolve("helloworld-" + release + ".class"));
+    }
+
+    private static void putManifest(JarOutputStream jarOut, boolean multiRelease) throws Exception {
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        if (multiRelease) {
+            manifest.getMainAttributes().putValue("Multi-Release", "true");
+        }
+        jarOut.putNextEntry(new JarEntry(JarFile.MANIFEST_NAME));
+        manifest.write(jarOut);
+        jarOut.closeEntry();
+    }
+
+    private static void putEntry(JarOutputStream jarOut, String name, Path source, int method) throws Exception {
+        byte[] bytes = Files.readAllBytes(source);
+
+        JarEntry entry = new JarEntry(name);
+        entry.setMethod(method);
+        if (method == ZipEntry.STORED) {
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            entry.setSize(bytes.length);
+            entry.setCompressedSize(bytes.length);
+            entry.setCrc(crc.getValue());
+        }
+        jarOut.putNextEntry(entry);
+        jarOut.write(bytes);
+        jarOut.closeEntry();
+    }
+}
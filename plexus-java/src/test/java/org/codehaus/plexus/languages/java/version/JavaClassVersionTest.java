@@ -17,6 +17,7 @@ import org.junit.jupiter.params.provider.MethodSource;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -76,4 +77,15 @@ class JavaClassVersionTest {
         assertEquals(javaClassVersion.javaVersion(), javaClassVersionOther.javaVersion());
         assertEquals(javaClassVersion.javaVersion(), previewFeature.javaVersion());
     }
+
+    @Test
+    void canonicalInstances() {
+        Path filePath = Paths.get("src/test/test-data/classfile.version/helloworld-17.class");
+        JavaClassfileVersion classVersion = JavaClassfileVersion.of(filePath);
+        assertSame(classVersion, JavaClassfileVersion.of(filePath));
+        assertSame(JavaVersion.parse("17"), classVersion.javaVersion());
+
+        Path previewFile = Paths.get("src/test/test-data/classfile.version/helloworld-preview.class");
+        assertSame(JavaClassfileVersion.of(previewFile), JavaClassfileVersion.of(previewFile));
+    }
 }
@@ -28,7 +28,7 @@ import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /*
- * Parsing is lazy, only triggered when comparing
+ * Parsing never fails, the segments are only interpreted as far as possible
  */
 class JavaVersionTest {
     @Test
@@ -166,4 +166,24 @@ class JavaVersionTest {
         assertThat(JavaVersion.parse("3.2.1").getValue(2)).isEqualTo("3.2");
         assertThat(JavaVersion.parse("3.2.1").getValue(3)).isEqualTo("3.2.1");
     }
+
+    @Test
+    void segmentsWithoutNumbers() {
+        assertThat(JavaVersion.parse("1.a").compareTo(JavaVersion.parse("1.b"))).isNegative();
+        assertThat(JavaVersion.parse("1.a").compareTo(JavaVersion.parse("1.0"))).isNegative();
+        assertThat(JavaVersion.parse("1.a").compareTo(JavaVersion.parse("1.a"))).isZero();
+        assertThat(JavaVersion.parse("1.").compareTo(JavaVersion.parse("1"))).isZero();
+    }
+
+    @Test
+    void canonicalInstances() {
+        assertThat(JavaVersion.parse("17")).isSameAs(JavaVersion.parse("17"));
+        assertThat(JavaVersion.parse("1.8")).isSameAs(JavaVersion.parse("1.8"));
+        assertThat(JavaVersion.parse("1.8").asMajor()).isSameAs(JavaVersion.parse("8"));
+
+        // outside the shared versions every parse creates a new version, which computes its major version once
+        JavaVersion version = JavaVersion.parse("1.4.2");
+        assertThat(version.asMajor()).isSameAs(version.asMajor());
+        assertThat(version.asMajor()).isEqualTo(JavaVersion.parse("1.4.2").asMajor());
+    }
 }
@@ -0,0 +1,67 @@
+package org.codehaus.plexus.languages.java.version;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.jar.Manifest;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MultiReleaseVersionsTest {
+    @Test
+    void isMultiRelease() {
+        Manifest manifest = new Manifest();
+        assertThat(MultiReleaseVersions.isMultiRelease(manifest)).isFalse();
+        assertThat(MultiReleaseVersions.isMultiRelease(null)).isFalse();
+
+        manifest.getMainAttributes().putValue("Multi-Release", "TRUE");
+        assertThat(MultiReleaseVersions.isMultiRelease(manifest)).isTrue();
+    }
+
+    @Test
+    void release() {
+        assertThat(MultiReleaseVersions.release(JavaVersion.parse("1.8.0_292"))).isEqualTo(8);
+        assertThat(MultiReleaseVersions.release(JavaVersion.parse("11.0.2"))).isEqualTo(11);
+        assertThat(MultiReleaseVersions.release(JavaVersion.parse("21"))).isEqualTo(21);
+    }
+
+    @Test
+    void releaseOf() {
+        assertThat(MultiReleaseVersions.releaseOf("a/A.class")).isEqualTo(MultiReleaseVersions.BASE_RELEASE);
+        assertThat(MultiReleaseVersions.releaseOf("META-INF/versions/9/a/A.class")).isEqualTo(9);
+        assertThat(MultiReleaseVersions.releaseOf("META-INF/versions/17/module-info.class")).isEqualTo(17);
+
+        assertThat(MultiReleaseVersions.releaseOf("META-INF/versions/8/a/A.class"))
+                .isEqualTo(MultiReleaseVersions.IGNORED_RELEASE);
+        assertThat(MultiReleaseVersions.releaseOf("META-INF/versions/eleven/a/A.class"))
+                .isEqualTo(MultiReleaseVersions.IGNORED_RELEASE);
+        assertThat(MultiReleaseVersions.releaseOf("META-INF/versions/11"))
+                .isEqualTo(MultiReleaseVersions.IGNORED_RELEASE);
+    }
+
+    @Test
+    void unversionedName() {
+        assertThat(MultiReleaseVersions.unversionedName("a/A.class")).isEqualTo("a/A.class");
+        assertThat(MultiReleaseVersions.unversionedName("META-INF/versions/11/a/A.class")).isEqualTo("a/A.class");
+        assertThat(MultiReleaseVersions.unversionedName("META-INF/versions/8/a/A.class"))
+                .isEqualTo("META-INF/versions/8/a/A.class");
+    }
+}